@@ -1,6 +1,9 @@
 package at.yawk.numaec;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.eclipse.collections.api.list.primitive.MutableLongList;
 import org.eclipse.collections.api.set.primitive.MutableLongSet;
 import org.eclipse.collections.impl.factory.primitive.LongLists;
@@ -36,18 +39,39 @@ abstract class BTree {
     private final long maxPage;
     private final PageAllocator allocator;
 
-    private final AtomicReference<Cursor> reuseCursor = new AtomicReference<>();
+    private final CursorCache<Cursor> cursorCache = new CursorCache<>();
+
+    private final CollectionMetrics metrics;
+
+    /*
+     * Copy-on-write state. Every page is tagged with the epoch it was allocated in, and taking a snapshot starts a new
+     * epoch. A page from an older epoch may be referenced by an open snapshot, so a writing cursor copies it (and
+     * repoints its parent, which is already writable) before modifying it. Pages that are replaced or freed while
+     * they may still be referenced are retired with the current epoch, and only returned to the allocator once no
+     * snapshot older than that epoch remains open.
+     *
+     * All of this state is owned by the writing thread, except for openSnapshots, which snapshots remove themselves
+     * from when closed.
+     */
+    private final boolean copyOnWrite;
+    private long epoch = 0;
+    private final MutableLongList pageEpochs = LongLists.mutable.empty();
+    private final NavigableMap<Long, MutableLongList> retiredPages = new TreeMap<>();
+    private final NavigableMap<Long, Integer> openSnapshots = new TreeMap<>();
+    private final AtomicInteger openSnapshotCount = new AtomicInteger();
 
     @SuppressWarnings({ "UnnecessaryLocalVariable", "TooBroadScope" })
     BTree(LargeByteBufferAllocator allocator, BTreeConfig config, int branchEntrySize, int leafEntrySize) {
-        this.allocator = new PageAllocator(allocator, config.regionSize, config.blockSize);
+        this.metrics = config.metrics;
+        this.allocator = new PageAllocator(allocator, config.regionSize, config.blockSize, config.metrics);
         this.buf = this.allocator.getBufferView();
         this.blockSize = config.blockSize;
         this.pointerSize = config.pointerSize;
         this.leafEntrySize = leafEntrySize;
         this.branchEntrySize = branchEntrySize;
-        this.storeNextPointer = config.storeNextPointer;
+        this.storeNextPointer = config.storeNextPointer && !config.copyOnWrite;
         this.entryMustBeInLeaf = config.entryMustBeInLeaf;
+        this.copyOnWrite = config.copyOnWrite;
 
         leafItemCountSize = requiredCountBytes(blockSize / leafEntrySize);
         branchItemCountSize = requiredCountBytes(blockSize / (branchEntrySize + pointerSize));
@@ -96,27 +120,141 @@ abstract class BTree {
      * @return The page pointer
      */
     private long allocatePage() {
+        if (copyOnWrite) {
+            reclaimPages();
+        }
         int ptr = allocator.allocatePage();
         if (ptr > maxPage) {
             allocator.freePage(ptr);
             throw new IllegalStateException(MESSAGE_POINTER_TOO_SMALL);
         }
+        if (copyOnWrite) {
+            while (pageEpochs.size() <= ptr) {
+                pageEpochs.add(0);
+            }
+            pageEpochs.set(ptr, epoch);
+        }
         return ptr;
     }
 
     private void freePage(long page) {
-        allocator.freePage(Math.toIntExact(page));
+        if (isShared(page)) {
+            retiredPages.computeIfAbsent(epoch, e -> LongLists.mutable.empty()).add(page);
+        } else {
+            allocator.freePage(Math.toIntExact(page));
+        }
+    }
+
+    /**
+     * @return {@code true} iff the given page may be referenced by an open snapshot, and must not be modified or
+     * freed.
+     */
+    private boolean isShared(long page) {
+        return copyOnWrite && openSnapshotCount.get() != 0 && pageEpochs.get(Math.toIntExact(page)) != epoch;
+    }
+
+    /**
+     * Return retired pages that are no longer referenced by any open snapshot to the allocator.
+     */
+    private void reclaimPages() {
+        if (retiredPages.isEmpty()) { return; }
+        long oldestSnapshot;
+        synchronized (openSnapshots) {
+            oldestSnapshot = openSnapshots.isEmpty() ? Long.MAX_VALUE : openSnapshots.firstKey();
+        }
+        // pages retired in epoch e are only referenced by snapshots taken before e
+        NavigableMap<Long, MutableLongList> reclaimable = retiredPages.headMap(oldestSnapshot, true);
+        for (MutableLongList pages : reclaimable.values()) {
+            pages.forEach(page -> allocator.freePage(Math.toIntExact(page)));
+        }
+        reclaimable.clear();
+    }
+
+    /**
+     * Take a snapshot of the current state of this tree. The snapshot is not affected by later modifications, and
+     * can be read from other threads without synchronization, provided it is safely published to them. Must be
+     * called by the writing thread.
+     */
+    public Snapshot snapshot() {
+        if (!copyOnWrite) { throw new IllegalStateException("Snapshots require a copy-on-write btree"); }
+        reclaimPages();
+        Snapshot snapshot = new Snapshot(rootPtr, levelCount, epoch);
+        synchronized (openSnapshots) {
+            openSnapshots.merge(epoch, 1, Integer::sum);
+        }
+        openSnapshotCount.incrementAndGet();
+        epoch++;
+        return snapshot;
     }
 
     public Cursor allocateCursor() {
-        Cursor cursor = reuseCursor.getAndSet(null);
+        Cursor cursor = cursorCache.take();
         if (cursor == null) {
+            if (metrics != null) { metrics.cursorAllocations.increment(); }
             return new Cursor();
         } else {
+            // the level count may have changed since the cursor was released by another thread
+            cursor.init();
             return cursor;
         }
     }
 
+    /**
+     * Returned by {@link #findEntry} if the key is not present.
+     */
+    private static final long ENTRY_NOT_FOUND = Long.MIN_VALUE;
+
+    /**
+     * Search the tree below the given root for a key without allocating a cursor.
+     *
+     * @return The address of the leaf entry, the complement of the address of the branch entry, or
+     * {@link #ENTRY_NOT_FOUND}
+     */
+    private long findEntry(long root, int levelCount, long key) {
+        if (levelCount == 0) { return ENTRY_NOT_FOUND; }
+        long node = root;
+        for (int level = 0; ; level++) {
+            boolean leaf = level == levelCount - 1;
+            long ix = blockSearch(leaf, node, key);
+            if (leaf) {
+                return ix >= 0 ? leafValueIndex(node, ix) : ENTRY_NOT_FOUND;
+            }
+            if (ix < 0) {
+                node = readBranchPrevPointer(node, ~ix);
+            } else if (entryMustBeInLeaf) {
+                node = readBranchNextPointer(node, ix);
+            } else {
+                return ~branchValueIndex(node, ix);
+            }
+        }
+    }
+
+    private long readEntryValue(long entry, long ifAbsent) {
+        if (entry == ENTRY_NOT_FOUND) {
+            return ifAbsent;
+        } else if (entry >= 0) {
+            return readLeafValue(buf, entry);
+        } else {
+            return readBranchValue(buf, ~entry);
+        }
+    }
+
+    /**
+     * Point lookup that does not need a cursor.
+     *
+     * @return The value for the given key, or {@code ifAbsent} if the key is not present
+     */
+    public long get(long key, long ifAbsent) {
+        return readEntryValue(findEntry(rootPtr, levelCount, key), ifAbsent);
+    }
+
+    /**
+     * Point lookup that does not need a cursor.
+     */
+    public boolean containsKey(long key) {
+        return findEntry(rootPtr, levelCount, key) != ENTRY_NOT_FOUND;
+    }
+
     static long uget(LargeByteBuffer buf, long address, int length) {
         if (length == 1) { return buf.getByte(address) & 0xffL; }
         if (length == 2) { return buf.getShort(address) & 0xffffL; }
@@ -347,11 +485,41 @@ abstract class BTree {
     }
 
     public void clear() {
-        rootPtr = NULL;
-        levelCount = 0;
-        allocator.freeAllPages();
+        if (openSnapshotCount.get() != 0) {
+            // some pages may still be referenced, free the live pages one by one
+            if (rootPtr != NULL) {
+                freePages(rootPtr, 0);
+            }
+            rootPtr = NULL;
+            levelCount = 0;
+        } else {
+            rootPtr = NULL;
+            levelCount = 0;
+            retiredPages.clear();
+            allocator.freeAllPages();
+        }
     }
 
+    private void freePages(long node, int level) {
+        if (level != levelCount - 1) {
+            long itemCount = getBranchItemCount(node);
+            for (long i = 0; i <= itemCount; i++) {
+                freePages(readBranchPrevPointer(node, i), level + 1);
+            }
+        }
+        freePage(node);
+    }
+
+    /**
+     * @param payload Size of the entries stored in this tree, which the tree itself does not count
+     */
+    public MemoryFootprint memoryFootprint(long payload) {
+        return new MemoryFootprint(allocator.reservedBytes(), allocator.usedBytes(), payload);
+    }
+
+    /**
+     * Close this tree. Snapshots of this tree must not be used after this call.
+     */
     public void close() {
         levelCount = -1;
         allocator.close();
@@ -365,11 +533,7 @@ abstract class BTree {
         if (rootPtr != NULL) {
             checkInvariants(Long.MAX_VALUE, rootPtr, 0, LongLists.mutable.empty(), LongSets.mutable.empty());
         }
-        @SuppressWarnings("resource")
-        Cursor cursor = reuseCursor.get();
-        if (cursor != null) {
-            cursor.checkCursorInvariants();
-        }
+        cursorCache.forEach(Cursor::checkCursorInvariants);
     }
 
     @DoNotMutate
@@ -435,6 +599,46 @@ abstract class BTree {
         return max;
     }
 
+    /**
+     * Walk the whole tree to compute its statistics. Must not run concurrently with writers.
+     */
+    public BTreeStatistics statistics() {
+        long[] nodeCounts = new long[Math.max(levelCount, 0)];
+        long[] leafFill = new long[BTreeStatistics.FILL_BUCKETS];
+        long[] branchFill = new long[BTreeStatistics.FILL_BUCKETS];
+        // [0]: last leaf visited, [1]: sequential leaves
+        long[] leafOrder = { NULL, 0 };
+        if (rootPtr != NULL) {
+            statistics(rootPtr, 0, nodeCounts, leafFill, branchFill, leafOrder);
+        }
+        return new BTreeStatistics(nodeCounts, leafFill, branchFill, leafOrder[1]);
+    }
+
+    private void statistics(
+            long node,
+            int level,
+            long[] nodeCounts,
+            long[] leafFill,
+            long[] branchFill,
+            long[] leafOrder
+    ) {
+        nodeCounts[level]++;
+        if (level == levelCount - 1) {
+            leafFill[BTreeStatistics.fillBucket(getLeafItemCount(node), leafCapacity)]++;
+            if (leafOrder[0] != NULL && node == leafOrder[0] + 1) {
+                leafOrder[1]++;
+            }
+            leafOrder[0] = node;
+        } else {
+            long count = getBranchItemCount(node);
+            branchFill[BTreeStatistics.fillBucket(count, branchCapacity)]++;
+            statistics(readBranchPrevPointer(node, 0), level + 1, nodeCounts, leafFill, branchFill, leafOrder);
+            for (long i = 0; i < count; i++) {
+                statistics(readBranchNextPointer(node, i), level + 1, nodeCounts, leafFill, branchFill, leafOrder);
+            }
+        }
+    }
+
     @DoNotMutate
     String toStringFlat() {
         try (Cursor iterator = new Cursor()) {
@@ -598,7 +802,73 @@ abstract class BTree {
 
     protected abstract long readLeafValue(LargeByteBuffer lbb, long address);
 
+    /**
+     * An immutable view of the tree at the time {@link #snapshot()} was called. The pages reachable from the
+     * snapshot root are never modified while the snapshot is open.
+     */
+    public final class Snapshot implements AutoCloseable {
+        private final long root;
+        private final int levelCount;
+        private final long epoch;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Snapshot(long root, int levelCount, long epoch) {
+            this.root = root;
+            this.levelCount = levelCount;
+            this.epoch = epoch;
+        }
+
+        /**
+         * @see BTree#get(long, long)
+         */
+        public long get(long key, long ifAbsent) {
+            if (closed.get()) { throw new IllegalStateException("Snapshot closed"); }
+            return readEntryValue(findEntry(root, levelCount, key), ifAbsent);
+        }
+
+        /**
+         * @see BTree#containsKey(long)
+         */
+        public boolean containsKey(long key) {
+            if (closed.get()) { throw new IllegalStateException("Snapshot closed"); }
+            return findEntry(root, levelCount, key) != ENTRY_NOT_FOUND;
+        }
+
+        /**
+         * Allocate a read-only cursor on this snapshot. Unlike {@link BTree#allocateCursor()}, this may be called
+         * from any thread.
+         */
+        public Cursor allocateCursor() {
+            if (closed.get()) { throw new IllegalStateException("Snapshot closed"); }
+            return new Cursor(this);
+        }
+
+        /**
+         * Release this snapshot. Pages that are only referenced by this snapshot are reclaimed by the next write to
+         * the tree.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                synchronized (openSnapshots) {
+                    Integer remaining = openSnapshots.get(epoch);
+                    if (remaining == 1) {
+                        openSnapshots.remove(epoch);
+                    } else {
+                        openSnapshots.put(epoch, remaining - 1);
+                    }
+                }
+                openSnapshotCount.decrementAndGet();
+            }
+        }
+    }
+
     public class Cursor implements MapStoreCursor {
+        /**
+         * The snapshot this cursor reads from, or {@code null} if this cursor operates on the live tree.
+         */
+        private final Snapshot snapshot;
+
         long[] trace;
         long[] trace2;
         long[] traceIndex;
@@ -607,13 +877,28 @@ abstract class BTree {
         int level2;
 
         boolean marked;
+        /**
+         * Whether this cursor has modified the tree. Once set, every block the cursor enters is made writable.
+         */
+        private boolean writing;
+        /**
+         * The copy-on-write epoch the blocks on the trace were made writable in. A snapshot taken since then shares
+         * them again.
+         */
+        private long writingEpoch;
 
         private Cursor() {
+            this(null);
+        }
+
+        private Cursor(Snapshot snapshot) {
+            this.snapshot = snapshot;
             init();
         }
 
         private void init() {
             if (marked) { throw new IllegalStateException(); }
+            int levelCount = levelCount();
             if (trace == null || trace.length != levelCount) {
                 trace = new long[levelCount];
                 trace2 = new long[levelCount];
@@ -621,12 +906,64 @@ abstract class BTree {
                 traceIndex2 = new long[levelCount];
             }
             level = -1;
+            writing = false;
+        }
+
+        private int levelCount() {
+            return snapshot == null ? levelCount : snapshot.levelCount;
+        }
+
+        private long rootPtr() {
+            return snapshot == null ? rootPtr : snapshot.root;
+        }
+
+        /**
+         * Must be called before this cursor modifies the tree. In copy-on-write mode, copies all shared blocks on the
+         * current trace.
+         */
+        private void beginWrite() {
+            if (snapshot != null) { throw new UnsupportedOperationException("Snapshots are read-only"); }
+            if (copyOnWrite && (!writing || writingEpoch != epoch)) {
+                writing = true;
+                writingEpoch = epoch;
+                for (int i = 0; i <= level; i++) {
+                    makeWritable(i);
+                }
+            }
+        }
+
+        /**
+         * Called after this cursor entered a new block at the current level.
+         */
+        private void entered() {
+            if (writing) {
+                makeWritable(level);
+            }
+        }
+
+        /**
+         * Replace the block at the given trace level with a private copy if it is shared with a snapshot. The parent
+         * block must already be writable.
+         */
+        private void makeWritable(int level) {
+            long page = trace[level];
+            if (!isShared(page)) { return; }
+            long copy = allocatePage();
+            buf.copyFrom(buf, baseAddress(page), baseAddress(copy), blockSize);
+            if (level == 0) {
+                rootPtr = copy;
+            } else {
+                long ix = traceIndex[level - 1];
+                writeBranchPrevPointer(trace[level - 1], ix < 0 ? ~ix : ix + 1, copy);
+            }
+            trace[level] = copy;
+            freePage(page);
         }
 
         private void mark() {
             if (marked) { throw new IllegalStateException(); }
-            System.arraycopy(trace, 0, trace2, 0, levelCount);
-            System.arraycopy(traceIndex, 0, traceIndex2, 0, levelCount);
+            System.arraycopy(trace, 0, trace2, 0, levelCount());
+            System.arraycopy(traceIndex, 0, traceIndex2, 0, levelCount());
             level2 = level;
             marked = true;
         }
@@ -636,8 +973,8 @@ abstract class BTree {
          */
         private void resetToMark() {
             if (!marked) { throw new IllegalStateException(); }
-            System.arraycopy(trace2, 0, trace, 0, levelCount);
-            System.arraycopy(traceIndex2, 0, traceIndex, 0, levelCount);
+            System.arraycopy(trace2, 0, trace, 0, levelCount());
+            System.arraycopy(traceIndex2, 0, traceIndex, 0, levelCount());
             level = level2;
         }
 
@@ -647,7 +984,7 @@ abstract class BTree {
         }
 
         private boolean inLeaf() {
-            return level == levelCount - 1;
+            return level == levelCount() - 1;
         }
 
         private long getItemCount() {
@@ -676,7 +1013,7 @@ abstract class BTree {
             while (!inLeaf() && (level == -1 || traceIndex[level] < 0 || entryMustBeInLeaf)) {
                 if (level == -1) {
                     level = 0;
-                    trace[0] = rootPtr;
+                    trace[0] = rootPtr();
                 } else {
                     level++;
                     long ix = traceIndex[level - 1];
@@ -687,16 +1024,78 @@ abstract class BTree {
                         trace[level] = readBranchNextPointer(trace[level - 1], ix);
                     }
                 }
+                entered();
                 traceIndex[level] = blockSearch(inLeaf(), trace[level], key);
             }
         }
 
+        /**
+         * Like {@link #descendToKey(long)}, but starting from the current position instead of the root: The cursor
+         * only ascends as far as needed to reach a block whose key range contains {@code key}. For keys in ascending
+         * order this costs about as much as a leaf scan, but any order gives correct results.
+         * <p>
+         * The trace of this cursor must be intact, so it must not have been moved by {@link #next()} or
+         * {@link #balance()} since the last descend.
+         */
+        public void seekKey(long key) {
+            if (level < 0) {
+                descendToKey(key);
+                return;
+            }
+            int target = level;
+            for (int i = level; i > 0; i--) {
+                int range = parentRange(i, key);
+                if (range < 0) {
+                    target = i - 1;
+                } else if (range > 0) {
+                    // between two pivots of the parent, so also inside the range of all further ancestors
+                    break;
+                }
+            }
+            for (int i = 0; i < target; i++) {
+                if (traceIndex[i] >= 0) {
+                    // matched the pivot of an earlier key. Point at the same child without claiming a match.
+                    traceIndex[i] = ~(traceIndex[i] + 1);
+                }
+            }
+            level = target;
+            traceIndex[level] = blockSearch(inLeaf(), trace[level], key);
+            descendToKey(key);
+        }
+
+        /**
+         * Check {@code key} against the pivots that bound the block at the given trace level in its parent.
+         *
+         * @return {@code -1} if the key is outside those bounds, {@code 1} if it is inside, and {@code 0} if it is
+         * inside but the block is the first or last child, so that one bound is set by an ancestor instead
+         */
+        private int parentRange(int level, long key) {
+            long parent = trace[level - 1];
+            long ix = traceIndex[level - 1];
+            long child = ix < 0 ? ~ix : ix + 1;
+            boolean bounded = true;
+            if (child > 0) {
+                // if entries may be in branches, the pivot itself is not part of the child
+                int cmp = compare(readBranchKey(parent, child - 1), key);
+                if (cmp > 0 || (cmp == 0 && !entryMustBeInLeaf)) { return -1; }
+            } else {
+                bounded = false;
+            }
+            if (child < getBranchItemCount(parent)) {
+                if (compare(key, readBranchKey(parent, child)) >= 0) { return -1; }
+            } else {
+                bounded = false;
+            }
+            return bounded ? 1 : 0;
+        }
+
         private void descendToImmediateLeftLeaf() {
             if (!elementFound()) { throw new IllegalStateException(); }
             while (!inLeaf()) {
                 trace[level + 1] = getPreviousBlockPtr();
                 traceIndex[level] = ~traceIndex[level];
                 level++;
+                entered();
                 traceIndex[level] = getItemCount();
             }
             // insertion index for last element of leaf
@@ -706,13 +1105,74 @@ abstract class BTree {
         private void descendToImmediateRightLeaf() {
             if (level < -1) { throw new IllegalStateException(); }
             while (!inLeaf()) {
-                trace[level + 1] = level == -1 ? rootPtr : getNextBlockPtr();
+                trace[level + 1] = level == -1 ? rootPtr() : getNextBlockPtr();
                 if (level >= 0) { traceIndex[level] = ~(traceIndex[level] + 1); }
                 level++;
+                entered();
                 traceIndex[level] = -1;
             }
         }
 
+        /**
+         * Descend to the given key, such that the next call to {@link #next()} selects the first entry with a key
+         * larger than {@code key}, whether or not {@code key} itself is present.
+         *
+         * @return {@code true} iff {@code key} is present
+         */
+        public boolean descendToAfterKey(long key) {
+            descendToKey(key);
+            if (level >= 0 && !elementFound()) {
+                // position before the insertion index
+                traceIndex[level] = ~traceIndex[level] - 1;
+                return false;
+            }
+            return elementFound();
+        }
+
+        /**
+         * Move this cursor back to its initial state, before the root.
+         */
+        void reset() {
+            init();
+        }
+
+        /**
+         * @return {@code true} iff this cursor is positioned in a leaf after a descend.
+         */
+        boolean positionedInLeaf() {
+            return level >= 0 && inLeaf();
+        }
+
+        /**
+         * @return The page of the block this cursor is currently positioned in.
+         */
+        long currentPage() {
+            return trace[level];
+        }
+
+        /**
+         * Repeat the search of the last {@link #descendToKey(long)} in the current leaf, for when the leaf may have
+         * been modified since. The branches above the leaf must not have changed.
+         */
+        void searchLeaf(long key) {
+            if (!positionedInLeaf()) { throw new IllegalStateException(); }
+            traceIndex[level] = blockSearch(true, trace[level], key);
+        }
+
+        /**
+         * @return {@code true} iff an entry can be inserted into the current leaf without splitting it.
+         */
+        boolean leafHasRoom() {
+            return positionedInLeaf() && getItemCount() < leafCapacity;
+        }
+
+        /**
+         * @return {@code true} iff an entry can be removed from the current leaf without merging it.
+         */
+        boolean leafCanShrink() {
+            return positionedInLeaf() && getItemCount() > 1;
+        }
+
         /**
          * Descend to before the start of the first leaf. After this call the tree can be iterated using
          * {@link #next()}.
@@ -728,6 +1188,7 @@ abstract class BTree {
         }
 
         public void simpleInsert(long key, long value) {
+            beginWrite();
             if (level == -1) {
                 if (levelCount != 0) { throw new IllegalStateException(); }
                 // first element in the tree
@@ -771,6 +1232,7 @@ abstract class BTree {
         }
 
         public void setValue(long value) {
+            beginWrite();
             long key = getKey();
             if (inLeaf()) {
                 writeLeafEntry(trace[level], traceIndex[level], key, value);
@@ -824,7 +1286,7 @@ abstract class BTree {
 
         @Override
         public boolean next() {
-            if (levelCount == 0) {
+            if (levelCount() == 0) {
                 return false;
             }
 
@@ -871,7 +1333,31 @@ abstract class BTree {
             }
         }
 
+        /**
+         * Remove the current entry and rebalance, keeping the cursor positioned such that the next call to
+         * {@link #next()} selects the entry that followed the removed one.
+         */
+        public void removeAndContinue() {
+            long key = getKey();
+            if (inLeaf() && getItemCount() > 1) {
+                // leaf does not underflow, so the tree structure is unchanged
+                simpleRemove();
+                traceIndex[level]--;
+            } else {
+                if (storeNextPointer) {
+                    // iteration may have followed next pointers, leaving the parent trace stale
+                    init();
+                    descendToKey(key);
+                }
+                simpleRemove();
+                balance();
+                init();
+                descendToAfterKey(key);
+            }
+        }
+
         public void simpleRemove() {
+            beginWrite();
             if (inLeaf()) {
                 simpleLeafRemoveAt(trace[level], traceIndex[level]);
                 if (entryMustBeInLeaf && traceIndex[level] == 0) {
@@ -932,6 +1418,7 @@ abstract class BTree {
         }
 
         public void balance() {
+            beginWrite();
             while (level >= 0) {
                 // for debugging
                 assert checkCursorInvariants();
@@ -949,6 +1436,7 @@ abstract class BTree {
         }
 
         private void splitBlock() {
+            if (metrics != null) { metrics.btreeSplits.increment(); }
             // select pivot element
             traceIndex[level] = getCapacity() / 2;
             long pivotKey = getKey();
@@ -979,6 +1467,7 @@ abstract class BTree {
 
         private void mergeBlock() {
             if (getItemCount() != 0) { throw new UnsupportedOperationException(); }
+            if (metrics != null) { metrics.btreeMerges.increment(); }
 
             if (level == 0) {
                 if (inLeaf()) {
@@ -1142,6 +1631,7 @@ abstract class BTree {
                 // set our index to be the insertion index
                 traceIndex[level] = ~traceIndex[level];
                 level++;
+                entered();
 
                 if (mergeWithLeftNeighbour) {
                     // add to end of left neighbour
@@ -1190,6 +1680,7 @@ abstract class BTree {
                     if (elementFound()) { throw new AssertionError(); }
                 }
             }
+            int levelCount = levelCount();
             if (levelCount != trace.length || levelCount != traceIndex.length ||
                 levelCount != trace2.length || levelCount != traceIndex2.length) {
                 throw new AssertionError();
@@ -1202,8 +1693,10 @@ abstract class BTree {
 
         @Override
         public void close() {
-            init();
-            reuseCursor.set(this);
+            if (snapshot == null) {
+                init();
+                cursorCache.release(this);
+            }
         }
     }
 }
@@ -10,6 +10,8 @@ public final class BTreeConfig {
     final int pointerSize;
     final boolean storeNextPointer;
     final boolean entryMustBeInLeaf;
+    final boolean copyOnWrite;
+    final CollectionMetrics metrics;
 
     private BTreeConfig(Builder builder) {
         this.blockSize = builder.blockSize;
@@ -17,6 +19,8 @@ public final class BTreeConfig {
         this.pointerSize = builder.pointerSize;
         this.storeNextPointer = builder.storeNextPointer;
         this.entryMustBeInLeaf = builder.entryMustBeInLeaf;
+        this.copyOnWrite = builder.copyOnWrite;
+        this.metrics = builder.metrics;
     }
 
     @Override
@@ -26,6 +30,7 @@ public final class BTreeConfig {
                 .add("pointerSize=" + pointerSize)
                 .add("storeNextPointer=" + storeNextPointer)
                 .add("entryMustBeInLeaf=" + entryMustBeInLeaf)
+                .add("copyOnWrite=" + copyOnWrite)
                 .toString();
     }
 
@@ -39,6 +44,8 @@ public final class BTreeConfig {
         private int regionSize = 16;
         private boolean storeNextPointer = true;
         private boolean entryMustBeInLeaf = true;
+        private boolean copyOnWrite = false;
+        private CollectionMetrics metrics = null;
 
         private Builder() {
         }
@@ -85,6 +92,25 @@ public final class BTreeConfig {
             return this;
         }
 
+        /**
+         * Whether blocks that are referenced by an open snapshot should be copied before they are modified. This is
+         * required for taking snapshots of the tree, and implies {@code storeNextPointer(false)}, since a copied leaf
+         * cannot be linked from its predecessor.
+         */
+        public Builder copyOnWrite(boolean copyOnWrite) {
+            this.copyOnWrite = copyOnWrite;
+            return this;
+        }
+
+        /**
+         * Metrics to count page allocations, cursor allocations, splits and merges of this tree in. {@code null}, the
+         * default, disables counting.
+         */
+        public Builder metrics(CollectionMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         public BTreeConfig build() {
             return new BTreeConfig(this);
         }
@@ -0,0 +1,110 @@
+package at.yawk.numaec;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Shape of the btree behind a map or set at the time it was computed, for deciding when to rebuild a tree and how to
+ * size {@link BTreeConfig.Builder#blockSize}.
+ */
+public final class BTreeStatistics {
+    /**
+     * Number of buckets of the fill factor histograms. Bucket {@code i} counts blocks that are at least {@code i}
+     * tenths and less than {@code i + 1} tenths full, and the last bucket also counts full blocks.
+     */
+    public static final int FILL_BUCKETS = 10;
+
+    private final long[] nodeCounts;
+    private final long[] leafFill;
+    private final long[] branchFill;
+    private final long sequentialLeaves;
+
+    BTreeStatistics(long[] nodeCounts, long[] leafFill, long[] branchFill, long sequentialLeaves) {
+        this.nodeCounts = nodeCounts;
+        this.leafFill = leafFill;
+        this.branchFill = branchFill;
+        this.sequentialLeaves = sequentialLeaves;
+    }
+
+    /**
+     * Get the statistics of the btree behind the given collection.
+     *
+     * @throws IllegalArgumentException if the collection is not backed by a btree
+     */
+    public static BTreeStatistics of(BufferBasedCollection collection) {
+        if (!(collection instanceof Source)) {
+            throw new IllegalArgumentException("Not a btree collection");
+        }
+        return ((Source) collection).bTreeStatistics();
+    }
+
+    static int fillBucket(long count, long capacity) {
+        return (int) Math.min(count * FILL_BUCKETS / capacity, FILL_BUCKETS - 1);
+    }
+
+    /**
+     * Depth of the tree, {@code 0} for an empty tree.
+     */
+    public int levelCount() {
+        return nodeCounts.length;
+    }
+
+    /**
+     * @param level The level, {@code 0} being the root and {@code levelCount() - 1} the leaves
+     */
+    public long nodeCount(int level) {
+        return nodeCounts[level];
+    }
+
+    public long leafCount() {
+        return nodeCounts.length == 0 ? 0 : nodeCounts[nodeCounts.length - 1];
+    }
+
+    /**
+     * @return Leaf counts by fill factor, see {@link #FILL_BUCKETS}
+     */
+    public long[] leafFillHistogram() {
+        return leafFill.clone();
+    }
+
+    /**
+     * @return Branch counts by fill factor, see {@link #FILL_BUCKETS}
+     */
+    public long[] branchFillHistogram() {
+        return branchFill.clone();
+    }
+
+    /**
+     * Number of leaves that directly follow their predecessor in key order in memory, i.e. are stored in the next
+     * page. Iteration over a tree where most leaves are sequential reads memory front to back.
+     */
+    public long sequentialLeafCount() {
+        return sequentialLeaves;
+    }
+
+    /**
+     * @return The fraction of leaves, excluding the first, that are {@link #sequentialLeafCount() sequential}, or
+     * {@code 1} for trees with less than two leaves
+     */
+    public double leafSequentiality() {
+        long links = leafCount() - 1;
+        return links <= 0 ? 1 : (double) sequentialLeaves / links;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", BTreeStatistics.class.getSimpleName() + "[", "]")
+                .add("nodeCounts=" + Arrays.toString(nodeCounts))
+                .add("leafFill=" + Arrays.toString(leafFill))
+                .add("branchFill=" + Arrays.toString(branchFill))
+                .add("sequentialLeaves=" + sequentialLeaves)
+                .toString();
+    }
+
+    /**
+     * Implemented by collections that are backed by a single btree.
+     */
+    interface Source {
+        BTreeStatistics bTreeStatistics();
+    }
+}
@@ -3,6 +3,12 @@ package at.yawk.numaec;
 import java.io.Closeable;
 
 public interface BufferBasedCollection extends Closeable {
+    /**
+     * Compute the memory held by this collection. This may walk the page occupancy of the collection, so it is meant
+     * for monitoring and budgeting, not for every operation.
+     */
+    MemoryFootprint memoryFootprint();
+
     /**
      * Close the buffers associated with this collection. This collection may be in an invalid state after this
      * operation.
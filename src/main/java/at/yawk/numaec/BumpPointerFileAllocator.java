@@ -3,7 +3,7 @@ package at.yawk.numaec;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -14,8 +14,6 @@ import java.util.HashSet;
 import java.util.Set;
 
 public final class BumpPointerFileAllocator implements LargeByteBufferAllocator, Closeable {
-    private static final int MAP_SIZE_BITS = 30;
-
     public static final String KEEP_TEMP_FILE_PROPERTY = "at.yawk.numaec.BumpPointerFileAllocator.KEEP_TEMP_FILE";
     private static final boolean KEEP_TEMP_FILE = Boolean.getBoolean(KEEP_TEMP_FILE_PROPERTY);
 
@@ -66,13 +64,8 @@ public final class BumpPointerFileAllocator implements LargeByteBufferAllocator,
             long start = channel.size();
             //noinspection resource
             channel.truncate(start + size);
-            ByteBuffer[] parts = new ByteBuffer[(int) (((size - 1) >> MAP_SIZE_BITS) + 1)];
-            for (int i = 0; i < parts.length; i++) {
-                long partStart = start + ((long) i << MAP_SIZE_BITS);
-                long partEnd = Math.min(start + size, start + (((long) i + 1) << MAP_SIZE_BITS));
-                parts[i] = channel.map(FileChannel.MapMode.READ_WRITE, partStart, partEnd - partStart);
-            }
-            return new ByteBufferBackedLargeByteBuffer(parts, 1 << MAP_SIZE_BITS);
+            return ByteBufferBackedLargeByteBuffer.map(
+                    channel, FileChannel.MapMode.READ_WRITE, start, size, ByteOrder.BIG_ENDIAN);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
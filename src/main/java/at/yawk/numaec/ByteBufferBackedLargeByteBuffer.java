@@ -1,10 +1,20 @@
 package at.yawk.numaec;
 
+import java.io.IOException;
 import java.nio.Buffer;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
 
 public class ByteBufferBackedLargeByteBuffer extends GenericJoinedBuffer<ByteBuffer> implements LargeByteBuffer {
+    private static final int MAP_SIZE_BITS = 30;
+    /**
+     * Copies between direct buffers up to this many bytes are done byte by byte, which is cheaper than allocating the
+     * two buffer duplicates a bulk copy needs.
+     */
+    private static final int SMALL_COPY_LENGTH = 16;
+
     private final ByteBuffer[] buffers;
     private final int componentSize;
 
@@ -16,6 +26,34 @@ public class ByteBufferBackedLargeByteBuffer extends GenericJoinedBuffer<ByteBuf
         this.componentSize = componentSize;
     }
 
+    /**
+     * Map a region of a file. The region is mapped lazily by the OS, so no I/O happens until the buffer is accessed.
+     *
+     * @param mode     The map mode. With {@link FileChannel.MapMode#READ_ONLY}, all writes to the returned buffer
+     *                 fail with {@link ReadOnlyBufferException}.
+     * @param position Start of the region in the file
+     * @param size     Size of the region in bytes
+     * @param order    Byte order of multi-byte values in the file
+     */
+    public static LargeByteBuffer map(
+            FileChannel channel,
+            FileChannel.MapMode mode,
+            long position,
+            long size,
+            ByteOrder order
+    ) throws IOException {
+        if (size == 0) {
+            return LargeByteBuffer.EMPTY;
+        }
+        ByteBuffer[] parts = new ByteBuffer[(int) (((size - 1) >> MAP_SIZE_BITS) + 1)];
+        for (int i = 0; i < parts.length; i++) {
+            long partStart = position + ((long) i << MAP_SIZE_BITS);
+            long partEnd = Math.min(position + size, position + (((long) i + 1) << MAP_SIZE_BITS));
+            parts[i] = channel.map(mode, partStart, partEnd - partStart).order(order);
+        }
+        return new ByteBufferBackedLargeByteBuffer(parts, 1 << MAP_SIZE_BITS);
+    }
+
     @Override
     long offset(long position) {
         return offsetInt(position);
@@ -100,25 +138,38 @@ public class ByteBufferBackedLargeByteBuffer extends GenericJoinedBuffer<ByteBuf
         if (src.limit() < fromIndex + length || dest.limit() < toIndex + length) {
             throw new IndexOutOfBoundsException();
         }
-        if (dest == src) {
-            dest = dest.duplicate();
+        int from = (int) fromIndex;
+        int to = (int) toIndex;
+        int len = (int) length;
+        // none of these paths touch the position and limit of the shared buffers, which would break concurrent
+        // absolute accesses to other parts of them
+        if (src.hasArray() && dest.hasArray()) {
+            System.arraycopy(src.array(), src.arrayOffset() + from, dest.array(), dest.arrayOffset() + to, len);
+            return;
         }
-
-        int oldDestLimit = dest.limit();
-        int oldSrcLimit = src.limit();
+        if (len <= SMALL_COPY_LENGTH) {
+            if (src == dest && from < to) {
+                // overlapping shift to the right, copy back to front
+                for (int i = len - 1; i >= 0; i--) {
+                    dest.put(to + i, src.get(from + i));
+                }
+            } else {
+                for (int i = 0; i < len; i++) {
+                    dest.put(to + i, src.get(from + i));
+                }
+            }
+            return;
+        }
+        src = src.duplicate();
+        dest = dest.duplicate();
 
         // casts are necessary for java 8 compat
-        ((Buffer) src).position(Math.toIntExact(fromIndex));
-        ((Buffer) dest).position(Math.toIntExact(toIndex));
-        ((Buffer) src).limit(Math.toIntExact(src.position() + length));
-        ((Buffer) dest).limit(Math.toIntExact(dest.position() + length));
+        ((Buffer) src).position(from);
+        ((Buffer) dest).position(to);
+        ((Buffer) src).limit(from + len);
+        ((Buffer) dest).limit(to + len);
 
         dest.put(src);
-
-        ((Buffer) dest).position(0);
-        ((Buffer) src).position(0);
-        ((Buffer) dest).limit(oldDestLimit);
-        ((Buffer) src).limit(oldSrcLimit);
     }
 
     @Override
@@ -0,0 +1,147 @@
+package at.yawk.numaec;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Counters for structural events inside collections and allocators, for sizing {@link BTreeConfig.Builder#blockSize}
+ * and {@link LinearHashMapConfig.Builder#loadFactor} from real traffic.
+ * <p>
+ * Metrics are opt-in: collections only count when an instance is passed to their config, e.g. through
+ * {@link BTreeConfig.Builder#metrics(CollectionMetrics)}, and allocators only when wrapped with {@link #meter}.
+ * Without metrics the only cost is a {@code null} check at each counted event. One instance may be shared by
+ * several collections and allocators, and is safe to update from multiple threads.
+ */
+public final class CollectionMetrics implements CollectionMetricsMBean {
+    final LongAdder pagesAllocated = new LongAdder();
+    final LongAdder pagesFreed = new LongAdder();
+    final LongAdder cursorAllocations = new LongAdder();
+    final LongAdder btreeSplits = new LongAdder();
+    final LongAdder btreeMerges = new LongAdder();
+    final LongAdder linearHashSplits = new LongAdder();
+    final LongAdder linearHashMerges = new LongAdder();
+    final LongAdder overflowBucketsAllocated = new LongAdder();
+    final LongAdder overflowBucketsVisited = new LongAdder();
+    final LongAdder allocations = new LongAdder();
+    final LongAdder bytesAllocated = new LongAdder();
+
+    /**
+     * Pages handed out to btree blocks and hash buckets.
+     */
+    @Override
+    public long getPagesAllocated() {
+        return pagesAllocated.sum();
+    }
+
+    /**
+     * Pages returned by btree blocks and hash buckets. Freed pages are reused before new regions are allocated.
+     */
+    @Override
+    public long getPagesFreed() {
+        return pagesFreed.sum();
+    }
+
+    /**
+     * Cursors that had to be created because none was cached.
+     */
+    @Override
+    public long getCursorAllocations() {
+        return cursorAllocations.sum();
+    }
+
+    /**
+     * Btree blocks that were split because they overflowed. A high rate relative to the entry count suggests a
+     * larger block size.
+     */
+    @Override
+    public long getBTreeSplits() {
+        return btreeSplits.sum();
+    }
+
+    /**
+     * Btree blocks that were removed because they became empty.
+     */
+    @Override
+    public long getBTreeMerges() {
+        return btreeMerges.sum();
+    }
+
+    /**
+     * Main buckets added to linear hash tables.
+     */
+    @Override
+    public long getLinearHashSplits() {
+        return linearHashSplits.sum();
+    }
+
+    /**
+     * Main buckets merged back when linear hash tables shrink.
+     */
+    @Override
+    public long getLinearHashMerges() {
+        return linearHashMerges.sum();
+    }
+
+    /**
+     * Overflow buckets appended to linear hash chains.
+     */
+    @Override
+    public long getOverflowBucketsAllocated() {
+        return overflowBucketsAllocated.sum();
+    }
+
+    /**
+     * Overflow buckets read by lookups and cursors after the main bucket of a chain. Divided by the number of
+     * lookups, this is the average number of extra bucket accesses, which grows with the load factor.
+     */
+    @Override
+    public long getOverflowBucketsVisited() {
+        return overflowBucketsVisited.sum();
+    }
+
+    /**
+     * Buffers allocated through allocators wrapped with {@link #meter}.
+     */
+    @Override
+    public long getAllocations() {
+        return allocations.sum();
+    }
+
+    /**
+     * Bytes allocated through allocators wrapped with {@link #meter}.
+     */
+    @Override
+    public long getBytesAllocated() {
+        return bytesAllocated.sum();
+    }
+
+    /**
+     * Wrap the given allocator so that its allocations are counted by this instance. The returned buffers are not
+     * wrapped, so accessing them costs the same as before.
+     */
+    public LargeByteBufferAllocator meter(LargeByteBufferAllocator allocator) {
+        return size -> {
+            LargeByteBuffer buffer = allocator.allocate(size);
+            allocations.increment();
+            bytesAllocated.add(size);
+            return buffer;
+        };
+    }
+
+    /**
+     * Register this instance with the platform MBean server.
+     *
+     * @param name Value of the {@code name} key of the object name, e.g. the name of the collection
+     * @return The object name, for unregistering this instance again
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName(
+                "at.yawk.numaec:type=CollectionMetrics,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+}
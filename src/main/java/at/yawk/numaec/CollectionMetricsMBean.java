@@ -0,0 +1,28 @@
+package at.yawk.numaec;
+
+/**
+ * JMX view of a {@link CollectionMetrics} instance.
+ */
+public interface CollectionMetricsMBean {
+    long getPagesAllocated();
+
+    long getPagesFreed();
+
+    long getCursorAllocations();
+
+    long getBTreeSplits();
+
+    long getBTreeMerges();
+
+    long getLinearHashSplits();
+
+    long getLinearHashMerges();
+
+    long getOverflowBucketsAllocated();
+
+    long getOverflowBucketsVisited();
+
+    long getAllocations();
+
+    long getBytesAllocated();
+}
@@ -0,0 +1,56 @@
+package at.yawk.numaec;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Cache of released cursors for reuse. Slots are striped by thread, so concurrent readers neither contend on a single
+ * slot nor fall back to allocating a new cursor for every lookup.
+ */
+final class CursorCache<C> {
+    /**
+     * Distance between two slots in the backing array, so that slots don't share a cache line.
+     */
+    private static final int PADDING = 16;
+    private static final int STRIPES;
+
+    static {
+        int processors = Runtime.getRuntime().availableProcessors();
+        // next power of two, capped to limit the footprint of small collections
+        STRIPES = Math.min(Integer.highestOneBit(processors * 2 - 1), 32);
+    }
+
+    private final AtomicReferenceArray<C> slots = new AtomicReferenceArray<>(STRIPES * PADDING);
+
+    private static int slot() {
+        long id = Thread.currentThread().getId();
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+    }
+
+    /**
+     * @return A cached cursor, or {@code null} if there is none for this thread's slot.
+     */
+    C take() {
+        int index = slot() * PADDING;
+        // check first so that an empty slot doesn't need exclusive access to its cache line
+        if (slots.get(index) == null) { return null; }
+        return slots.getAndSet(index, null);
+    }
+
+    /**
+     * Offer a cursor that is not used anymore for reuse.
+     */
+    void release(C cursor) {
+        slots.lazySet(slot() * PADDING, cursor);
+    }
+
+    @DoNotMutate
+    void forEach(Consumer<? super C> action) {
+        for (int i = 0; i < STRIPES; i++) {
+            C cursor = slots.get(i * PADDING);
+            if (cursor != null) {
+                action.accept(cursor);
+            }
+        }
+    }
+}
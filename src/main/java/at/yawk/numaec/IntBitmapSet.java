@@ -0,0 +1,822 @@
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.IntIterable;
+import org.eclipse.collections.api.block.function.primitive.IntToObjectFunction;
+import org.eclipse.collections.api.block.predicate.primitive.IntPredicate;
+import org.eclipse.collections.api.list.primitive.MutableCharList;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.list.mutable.primitive.CharArrayList;
+import org.eclipse.collections.impl.set.mutable.primitive.IntHashSet;
+
+/**
+ * A compressed int set in the style of <a href="https://roaringbitmap.org/">Roaring bitmaps</a>. Elements are split
+ * into a high and a low 16-bit half. A {@link CharLongBTreeMap} directory maps each high half to a <i>container</i>
+ * that holds the low halves, stored in pages from a {@link PageAllocator}:
+ *
+ * <ul>
+ *     <li>Array containers hold up to {@value #ARRAY_MAX} sorted low halves as chars.</li>
+ *     <li>Bitmap containers hold one bit for each of the 2<sup>16</sup> possible low halves.</li>
+ *     <li>Run containers hold sorted {@code (start, length - 1)} char pairs. They are only created by
+ *     {@link #runOptimize()} and turned back into array or bitmap containers when modified.</li>
+ * </ul>
+ *
+ * Each container is placed in a page of the smallest power of two size between {@value #MIN_PAGE_SIZE} and
+ * {@value #LARGE_PAGE_SIZE} bytes that fits it. Array containers move to the next size when they outgrow their page,
+ * and back to a smaller size once they use no more than a quarter of it.
+ * <p>
+ * {@link #and}, {@link #or} and {@link #andNot} combine containers a 64-bit word at a time on an on-heap scratch
+ * bitmap, so this class is not thread-safe even for concurrent reads of different sets sharing it. Containers that
+ * an operation does not change are kept as they are.
+ */
+public final class IntBitmapSet extends BaseIntSet implements MutableIntBufferSet {
+    private static final int TYPE_ARRAY = 1;
+    private static final int TYPE_BITMAP = 2;
+    private static final int TYPE_RUN = 3;
+
+    private static final int MIN_PAGE_SHIFT = 4;
+    static final int MIN_PAGE_SIZE = 1 << MIN_PAGE_SHIFT;
+    static final int LARGE_PAGE_SIZE = 8192;
+    private static final int SIZE_CLASSES = Integer.numberOfTrailingZeros(LARGE_PAGE_SIZE) - MIN_PAGE_SHIFT + 1;
+    private static final int LARGE_SIZE_CLASS = SIZE_CLASSES - 1;
+    private static final int REGION_SIZE = 16;
+
+    /**
+     * Maximum cardinality of an array container. Above this, bitmap containers are smaller.
+     */
+    static final int ARRAY_MAX = LARGE_PAGE_SIZE / Character.BYTES;
+    private static final int BITMAP_WORDS = (1 << 16) / Long.SIZE;
+
+    private final CharLongBTreeMap.Mutable directory;
+    /**
+     * One page allocator for each size class, the page size of class {@code c} is {@code MIN_PAGE_SIZE << c}.
+     */
+    private final PageAllocator[] pages = new PageAllocator[SIZE_CLASSES];
+    private long size = 0;
+
+    /**
+     * Scratch space for set algebra and iteration.
+     */
+    private final long[] scratchA = new long[BITMAP_WORDS];
+    private final long[] scratchB = new long[BITMAP_WORDS];
+
+    IntBitmapSet(LargeByteBufferAllocator allocator, BTreeConfig directoryConfig) {
+        super(allocator);
+        this.directory = new CharLongBTreeMap.Mutable(allocator, directoryConfig);
+        for (int i = 0; i < SIZE_CLASSES; i++) {
+            pages[i] = new PageAllocator(allocator, REGION_SIZE, MIN_PAGE_SIZE << i);
+        }
+    }
+
+    // container descriptor layout, stored as the directory value:
+    // [63..62] type, [61..58] size class, [57..41] cardinality, [40..29] run count, [28..0] page index
+
+    private static long descriptor(int type, int sizeClass, int cardinality, int runs, int page) {
+        return ((long) type << 62) |
+               ((long) sizeClass << 58) |
+               ((long) cardinality << 41) |
+               ((long) runs << 29) |
+               (page & 0x1fffffffL);
+    }
+
+    private static int type(long descriptor) {
+        return (int) (descriptor >>> 62);
+    }
+
+    private static int sizeClass(long descriptor) {
+        return (int) ((descriptor >>> 58) & 0xf);
+    }
+
+    private static int cardinality(long descriptor) {
+        return (int) ((descriptor >>> 41) & 0x1ffff);
+    }
+
+    private static int runs(long descriptor) {
+        return (int) ((descriptor >>> 29) & 0xfff);
+    }
+
+    private static int page(long descriptor) {
+        return (int) (descriptor & 0x1fffffff);
+    }
+
+    /**
+     * @return The smallest size class whose pages hold {@code bytes} bytes
+     */
+    private static int sizeClassFor(int bytes) {
+        return Math.max(0, 32 - Integer.numberOfLeadingZeros(bytes - 1) - MIN_PAGE_SHIFT);
+    }
+
+    private static int pageSize(long descriptor) {
+        return MIN_PAGE_SIZE << sizeClass(descriptor);
+    }
+
+    private LargeByteBuffer buffer(long descriptor) {
+        return pages[sizeClass(descriptor)].getBufferView();
+    }
+
+    private static long address(long descriptor) {
+        return (long) page(descriptor) * pageSize(descriptor);
+    }
+
+    private long allocate(int type, int bytes, int cardinality, int runs) {
+        int sizeClass = sizeClassFor(bytes);
+        int page = pages[sizeClass].allocatePage();
+        return descriptor(type, sizeClass, cardinality, runs, page);
+    }
+
+    private void free(long descriptor) {
+        pages[sizeClass(descriptor)].freePage(page(descriptor));
+    }
+
+    private static int high(int element) {
+        return element >>> 16;
+    }
+
+    private static int low(int element) {
+        return element & 0xffff;
+    }
+
+    private long getDescriptor(int high) {
+        return directory.getIfAbsent((char) high, 0);
+    }
+
+    /**
+     * Replace the container of the given high half, or remove it if {@code descriptor} is 0.
+     */
+    private void setDescriptor(int high, long descriptor) {
+        if (descriptor == 0) {
+            directory.removeKey((char) high);
+        } else {
+            directory.put((char) high, descriptor);
+        }
+    }
+
+    /**
+     * @return The index of {@code low} in the sorted array container, or {@code -(insertion point) - 1}.
+     */
+    private static int arraySearch(LargeByteBuffer buffer, long address, int cardinality, int low) {
+        int from = 0;
+        int to = cardinality - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            int value = buffer.getChar(address + (long) mid * Character.BYTES);
+            if (value < low) {
+                from = mid + 1;
+            } else if (value > low) {
+                to = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(from + 1);
+    }
+
+    private boolean containerContains(long descriptor, int low) {
+        LargeByteBuffer buffer = buffer(descriptor);
+        long address = address(descriptor);
+        switch (type(descriptor)) {
+            case TYPE_ARRAY:
+                return arraySearch(buffer, address, cardinality(descriptor), low) >= 0;
+            case TYPE_BITMAP:
+                return (buffer.getLong(address + (low >>> 6) * Long.BYTES) & (1L << low)) != 0;
+            case TYPE_RUN:
+                int from = 0;
+                int to = runs(descriptor) - 1;
+                while (from <= to) {
+                    int mid = (from + to) >>> 1;
+                    int start = buffer.getChar(address + mid * 4L);
+                    int end = start + buffer.getChar(address + mid * 4L + 2);
+                    if (end < low) {
+                        from = mid + 1;
+                    } else if (start > low) {
+                        to = mid - 1;
+                    } else {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Decode the given container into a bitmap.
+     */
+    private void decode(long descriptor, long[] words) {
+        for (int i = 0; i < BITMAP_WORDS; i++) {
+            words[i] = 0;
+        }
+        LargeByteBuffer buffer = buffer(descriptor);
+        long address = address(descriptor);
+        switch (type(descriptor)) {
+            case TYPE_ARRAY:
+                for (int i = 0; i < cardinality(descriptor); i++) {
+                    int low = buffer.getChar(address + (long) i * Character.BYTES);
+                    words[low >>> 6] |= 1L << low;
+                }
+                break;
+            case TYPE_BITMAP:
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    words[i] = buffer.getLong(address + (long) i * Long.BYTES);
+                }
+                break;
+            case TYPE_RUN:
+                for (int i = 0; i < runs(descriptor); i++) {
+                    int start = buffer.getChar(address + i * 4L);
+                    int end = start + buffer.getChar(address + i * 4L + 2);
+                    setRange(words, start, end);
+                }
+                break;
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Set the bits from {@code start} to {@code end}, both inclusive.
+     */
+    private static void setRange(long[] words, int start, int end) {
+        int startWord = start >>> 6;
+        int endWord = end >>> 6;
+        long startMask = -1L << start;
+        long endMask = -1L >>> (63 - (end & 63));
+        if (startWord == endWord) {
+            words[startWord] |= startMask & endMask;
+        } else {
+            words[startWord] |= startMask;
+            for (int i = startWord + 1; i < endWord; i++) {
+                words[i] = -1L;
+            }
+            words[endWord] |= endMask;
+        }
+    }
+
+    private static int cardinality(long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        return cardinality;
+    }
+
+    /**
+     * Write a new array or bitmap container for the given bitmap.
+     *
+     * @return The new descriptor, or 0 if the bitmap is empty
+     */
+    private long encode(long[] words, int cardinality) {
+        if (cardinality == 0) {
+            return 0;
+        } else if (cardinality <= ARRAY_MAX) {
+            long descriptor = allocate(TYPE_ARRAY, cardinality * Character.BYTES, cardinality, 0);
+            LargeByteBuffer buffer = buffer(descriptor);
+            long address = address(descriptor);
+            int i = 0;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    int low = (w << 6) + Long.numberOfTrailingZeros(word);
+                    buffer.setChar(address + (long) i++ * Character.BYTES, (char) low);
+                    word &= word - 1;
+                }
+            }
+            return descriptor;
+        } else {
+            long descriptor = allocate(TYPE_BITMAP, LARGE_PAGE_SIZE, cardinality, 0);
+            LargeByteBuffer buffer = buffer(descriptor);
+            long address = address(descriptor);
+            for (int i = 0; i < BITMAP_WORDS; i++) {
+                buffer.setLong(address + (long) i * Long.BYTES, words[i]);
+            }
+            return descriptor;
+        }
+    }
+
+    /**
+     * Replace a run container by an equivalent array or bitmap container.
+     */
+    private long expandRuns(long descriptor) {
+        decode(descriptor, scratchA);
+        free(descriptor);
+        return encode(scratchA, cardinality(descriptor));
+    }
+
+    @Override
+    public boolean contains(int value) {
+        long descriptor = getDescriptor(high(value));
+        return descriptor != 0 && containerContains(descriptor, low(value));
+    }
+
+    @Override
+    public boolean add(int element) {
+        int high = high(element);
+        int low = low(element);
+        long descriptor = getDescriptor(high);
+        if (descriptor == 0) {
+            descriptor = allocate(TYPE_ARRAY, Character.BYTES, 1, 0);
+            buffer(descriptor).setChar(address(descriptor), (char) low);
+            setDescriptor(high, descriptor);
+            size++;
+            return true;
+        }
+        if (type(descriptor) == TYPE_RUN) {
+            if (containerContains(descriptor, low)) {
+                return false;
+            }
+            descriptor = expandRuns(descriptor);
+        }
+        LargeByteBuffer buffer = buffer(descriptor);
+        long address = address(descriptor);
+        int cardinality = cardinality(descriptor);
+        if (type(descriptor) == TYPE_ARRAY) {
+            int index = arraySearch(buffer, address, cardinality, low);
+            if (index >= 0) {
+                return false;
+            }
+            index = -(index + 1);
+            int requiredBytes = (cardinality + 1) * Character.BYTES;
+            if (cardinality == ARRAY_MAX) {
+                decode(descriptor, scratchA);
+                scratchA[low >>> 6] |= 1L << low;
+                free(descriptor);
+                descriptor = encode(scratchA, cardinality + 1);
+            } else if (requiredBytes > pageSize(descriptor)) {
+                // move to a page of the next size
+                long moved = allocate(TYPE_ARRAY, requiredBytes, cardinality + 1, 0);
+                LargeByteBuffer target = buffer(moved);
+                long targetAddress = address(moved);
+                target.copyFrom(buffer, address, targetAddress, (long) index * Character.BYTES);
+                target.setChar(targetAddress + (long) index * Character.BYTES, (char) low);
+                target.copyFrom(buffer,
+                                address + (long) index * Character.BYTES,
+                                targetAddress + (long) (index + 1) * Character.BYTES,
+                                (long) (cardinality - index) * Character.BYTES);
+                free(descriptor);
+                descriptor = moved;
+            } else {
+                buffer.copyFrom(buffer,
+                                address + (long) index * Character.BYTES,
+                                address + (long) (index + 1) * Character.BYTES,
+                                (long) (cardinality - index) * Character.BYTES);
+                buffer.setChar(address + (long) index * Character.BYTES, (char) low);
+                descriptor = descriptor(TYPE_ARRAY, sizeClass(descriptor), cardinality + 1, 0, page(descriptor));
+            }
+        } else {
+            long wordAddress = address + (low >>> 6) * Long.BYTES;
+            long word = buffer.getLong(wordAddress);
+            if ((word & (1L << low)) != 0) {
+                return false;
+            }
+            buffer.setLong(wordAddress, word | (1L << low));
+            descriptor = descriptor(TYPE_BITMAP, LARGE_SIZE_CLASS, cardinality + 1, 0, page(descriptor));
+        }
+        setDescriptor(high, descriptor);
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(int element) {
+        int high = high(element);
+        int low = low(element);
+        long descriptor = getDescriptor(high);
+        if (descriptor == 0 || !containerContains(descriptor, low)) {
+            return false;
+        }
+        if (type(descriptor) == TYPE_RUN) {
+            descriptor = expandRuns(descriptor);
+        }
+        LargeByteBuffer buffer = buffer(descriptor);
+        long address = address(descriptor);
+        int cardinality = cardinality(descriptor);
+        if (cardinality == 1) {
+            free(descriptor);
+            descriptor = 0;
+        } else if (type(descriptor) == TYPE_ARRAY) {
+            int index = arraySearch(buffer, address, cardinality, low);
+            buffer.copyFrom(buffer,
+                            address + (long) (index + 1) * Character.BYTES,
+                            address + (long) index * Character.BYTES,
+                            (long) (cardinality - index - 1) * Character.BYTES);
+            descriptor = descriptor(TYPE_ARRAY, sizeClass(descriptor), cardinality - 1, 0, page(descriptor));
+            int usedBytes = (cardinality - 1) * Character.BYTES;
+            if (sizeClass(descriptor) > 0 && usedBytes <= pageSize(descriptor) / 4) {
+                // move to a smaller page
+                long moved = allocate(TYPE_ARRAY, usedBytes, cardinality - 1, 0);
+                buffer(moved).copyFrom(buffer, address, address(moved), usedBytes);
+                free(descriptor);
+                descriptor = moved;
+            }
+        } else if (cardinality - 1 <= ARRAY_MAX) {
+            decode(descriptor, scratchA);
+            scratchA[low >>> 6] &= ~(1L << low);
+            free(descriptor);
+            descriptor = encode(scratchA, cardinality - 1);
+        } else {
+            long wordAddress = address + (low >>> 6) * Long.BYTES;
+            buffer.setLong(wordAddress, buffer.getLong(wordAddress) & ~(1L << low));
+            descriptor = descriptor(TYPE_BITMAP, LARGE_SIZE_CLASS, cardinality - 1, 0, page(descriptor));
+        }
+        setDescriptor(high, descriptor);
+        size--;
+        return true;
+    }
+
+    /**
+     * Convert containers to run containers where that saves space.
+     */
+    public void runOptimize() {
+        for (char high : directoryKeys().toArray()) {
+            long descriptor = getDescriptor(high);
+            if (type(descriptor) == TYPE_RUN) {
+                continue;
+            }
+            decode(descriptor, scratchA);
+            int runs = 0;
+            boolean previous = false;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = scratchA[w];
+                // a run starts at every set bit whose predecessor is clear
+                long predecessors = (word << 1) | (previous ? 1 : 0);
+                runs += Long.bitCount(word & ~predecessors);
+                previous = word < 0;
+            }
+            int runBytes = runs * 4;
+            int currentBytes = type(descriptor) == TYPE_ARRAY ?
+                    cardinality(descriptor) * Character.BYTES : LARGE_PAGE_SIZE;
+            if (runBytes >= currentBytes) {
+                continue;
+            }
+            long optimized = allocate(TYPE_RUN, runBytes, cardinality(descriptor), runs);
+            LargeByteBuffer buffer = buffer(optimized);
+            long address = address(optimized);
+            int run = 0;
+            int start = -1;
+            for (int low = 0; low <= 1 << 16; low++) {
+                boolean set = low < 1 << 16 && (scratchA[low >>> 6] & (1L << low)) != 0;
+                if (set && start == -1) {
+                    start = low;
+                } else if (!set && start != -1) {
+                    buffer.setChar(address + run * 4L, (char) start);
+                    buffer.setChar(address + run * 4L + 2, (char) (low - 1 - start));
+                    run++;
+                    start = -1;
+                }
+            }
+            free(descriptor);
+            setDescriptor(high, optimized);
+        }
+    }
+
+    private MutableCharList directoryKeys() {
+        MutableCharList keys = new CharArrayList(directory.size());
+        directory.forEachKey(keys::add);
+        return keys;
+    }
+
+    /**
+     * Retain only the elements that are also contained in {@code other}.
+     */
+    public void and(IntBitmapSet other) {
+        for (char high : directoryKeys().toArray()) {
+            long otherDescriptor = other.getDescriptor(high);
+            long descriptor = getDescriptor(high);
+            if (otherDescriptor == 0) {
+                size -= cardinality(descriptor);
+                free(descriptor);
+                setDescriptor(high, 0);
+            } else {
+                decode(descriptor, scratchA);
+                other.decode(otherDescriptor, scratchB);
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    scratchA[i] &= scratchB[i];
+                }
+                replace(high, descriptor, scratchA);
+            }
+        }
+    }
+
+    /**
+     * Add all elements of {@code other} to this set.
+     */
+    public void or(IntBitmapSet other) {
+        for (char high : other.directoryKeys().toArray()) {
+            long otherDescriptor = other.getDescriptor(high);
+            long descriptor = getDescriptor(high);
+            if (descriptor == 0) {
+                setDescriptor(high, copyContainer(other, otherDescriptor));
+                size += cardinality(otherDescriptor);
+            } else {
+                decode(descriptor, scratchA);
+                other.decode(otherDescriptor, scratchB);
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    scratchA[i] |= scratchB[i];
+                }
+                replace(high, descriptor, scratchA);
+            }
+        }
+    }
+
+    /**
+     * Remove all elements of {@code other} from this set.
+     */
+    public void andNot(IntBitmapSet other) {
+        for (char high : directoryKeys().toArray()) {
+            long otherDescriptor = other.getDescriptor(high);
+            if (otherDescriptor != 0) {
+                long descriptor = getDescriptor(high);
+                decode(descriptor, scratchA);
+                other.decode(otherDescriptor, scratchB);
+                for (int i = 0; i < BITMAP_WORDS; i++) {
+                    scratchA[i] &= ~scratchB[i];
+                }
+                replace(high, descriptor, scratchA);
+            }
+        }
+    }
+
+    /**
+     * Copy a container of {@code source} to a new page of this set, keeping its type.
+     */
+    private long copyContainer(IntBitmapSet source, long descriptor) {
+        int sizeClass = sizeClass(descriptor);
+        long copy = descriptor(type(descriptor), sizeClass, cardinality(descriptor), runs(descriptor),
+                               pages[sizeClass].allocatePage());
+        LargeByteBuffer from = source.buffer(descriptor);
+        long fromAddress = address(descriptor);
+        LargeByteBuffer to = buffer(copy);
+        long toAddress = address(copy);
+        // the sets may use different allocators, so copyFrom is not an option
+        for (int i = 0; i < pageSize(descriptor); i += Long.BYTES) {
+            to.setLong(toAddress + i, from.getLong(fromAddress + i));
+        }
+        return copy;
+    }
+
+    /**
+     * Replace the container {@code descriptor} of {@code high} with the given bitmap. The bitmap must be a subset or
+     * a superset of the container, so if the cardinality is unchanged, so is the content and the container is kept.
+     */
+    private void replace(int high, long descriptor, long[] words) {
+        int cardinality = cardinality(words);
+        if (cardinality == cardinality(descriptor)) {
+            return;
+        }
+        free(descriptor);
+        setDescriptor(high, encode(words, cardinality));
+        size += cardinality - cardinality(descriptor);
+    }
+
+    @Override
+    protected MapStoreCursor iterationCursor() {
+        return new Cursor();
+    }
+
+    @Override
+    protected MapStoreCursor keyCursor(int element) {
+        boolean found = contains(element);
+        return new MapStoreCursor() {
+            @Override
+            public long getKey() {
+                return toKey(element);
+            }
+
+            @Override
+            public long getValue() {
+                return 0;
+            }
+
+            @Override
+            public boolean next() {
+                return false;
+            }
+
+            @Override
+            public boolean elementFound() {
+                return found;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * @return The number of elements in this set. Unlike {@link #size()}, this does not overflow.
+     */
+    public long size64() {
+        return size;
+    }
+
+    /**
+     * @return The number of elements in this set, or {@link Integer#MAX_VALUE} if it is larger than that.
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean addAll(int... source) {
+        boolean changed = false;
+        for (int element : source) {
+            changed |= add(element);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean addAll(IntIterable source) {
+        boolean[] changed = { false };
+        source.forEach(element -> changed[0] |= add(element));
+        return changed[0];
+    }
+
+    @Override
+    public boolean removeAll(IntIterable source) {
+        boolean[] changed = { false };
+        source.forEach(element -> changed[0] |= remove(element));
+        return changed[0];
+    }
+
+    @Override
+    public boolean removeAll(int... source) {
+        boolean changed = false;
+        for (int element : source) {
+            changed |= remove(element);
+        }
+        return changed;
+    }
+
+    @Override
+    public boolean removeIf(IntPredicate predicate) {
+        try (MutableIntBufferList matching = collectMatching(predicate)) {
+            matching.forEach(this::remove);
+            return matching.notEmpty();
+        }
+    }
+
+    @Override
+    public boolean retainAll(IntIterable elements) {
+        return removeIf(element -> !elements.contains(element));
+    }
+
+    @Override
+    public boolean retainAll(int... source) {
+        return retainAll(IntHashSet.newSetWith(source));
+    }
+
+    @Override
+    public void clear() {
+        directory.clear();
+        for (PageAllocator allocator : pages) {
+            allocator.freeAllPages();
+        }
+        size = 0;
+    }
+
+    @Override
+    public MutableIntSet with(int element) {
+        add(element);
+        return this;
+    }
+
+    @Override
+    public MutableIntSet without(int element) {
+        remove(element);
+        return this;
+    }
+
+    @Override
+    public MutableIntSet withAll(IntIterable elements) {
+        addAll(elements);
+        return this;
+    }
+
+    @Override
+    public MutableIntSet withoutAll(IntIterable elements) {
+        removeAll(elements);
+        return this;
+    }
+
+    @Override
+    public MutableIntSet asUnmodifiable() {
+        throw new UnsupportedOperationException("IntBitmapSet.asUnmodifiable not implemented yet");
+    }
+
+    @Override
+    public MutableIntSet asSynchronized() {
+        throw new UnsupportedOperationException("IntBitmapSet.asSynchronized not implemented yet");
+    }
+
+    @Override
+    public MutableIntSet select(IntPredicate predicate) {
+        throw new UnsupportedOperationException("IntBitmapSet.select not implemented yet");
+    }
+
+    @Override
+    public MutableIntSet reject(IntPredicate predicate) {
+        throw new UnsupportedOperationException("IntBitmapSet.reject not implemented yet");
+    }
+
+    @Override
+    public <V> MutableSet<V> collect(IntToObjectFunction<? extends V> function) {
+        throw new UnsupportedOperationException("IntBitmapSet.collect not implemented yet");
+    }
+
+    @DoNotMutate
+    @Override
+    void checkInvariants() {
+        super.checkInvariants();
+        directory.checkInvariants();
+        directory.forEachKeyValue((high, descriptor) -> {
+            long[] words = new long[BITMAP_WORDS];
+            decode(descriptor, words);
+            int cardinality = cardinality(words);
+            if (cardinality == 0 || cardinality != cardinality(descriptor)) { throw new AssertionError(); }
+            if ((type(descriptor) == TYPE_ARRAY) != (cardinality <= ARRAY_MAX) && type(descriptor) != TYPE_RUN) {
+                throw new AssertionError();
+            }
+            int bytes = type(descriptor) == TYPE_ARRAY ? cardinality * Character.BYTES :
+                    type(descriptor) == TYPE_RUN ? runs(descriptor) * 4 : LARGE_PAGE_SIZE;
+            if (bytes > pageSize(descriptor)) { throw new AssertionError(); }
+        });
+    }
+
+    /**
+     * The payload is the size of the elements as plain {@code int}s, which is usually larger than the containers use.
+     */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        MemoryFootprint directoryFootprint = directory.memoryFootprint();
+        long reserved = directoryFootprint.reserved();
+        long used = directoryFootprint.used();
+        for (PageAllocator allocator : pages) {
+            reserved += allocator.reservedBytes();
+            used += allocator.usedBytes();
+        }
+        return new MemoryFootprint(reserved, used, size * Integer.BYTES);
+    }
+
+    @Override
+    public void close() {
+        directory.close();
+        for (PageAllocator allocator : pages) {
+            allocator.close();
+        }
+    }
+
+    /**
+     * Iterates over the containers in directory order, decoding each into a bitmap.
+     */
+    private final class Cursor implements MapStoreCursor {
+        private final MapStoreCursor directoryCursor = directory.iterationCursor();
+        private final long[] words = new long[BITMAP_WORDS];
+        private int high = -1;
+        private int wordIndex = BITMAP_WORDS;
+        private long word = 0;
+        private int current;
+
+        @Override
+        public long getKey() {
+            return toKey(current);
+        }
+
+        @Override
+        public long getValue() {
+            return 0;
+        }
+
+        @Override
+        public boolean next() {
+            while (word == 0) {
+                if (++wordIndex >= BITMAP_WORDS) {
+                    if (!directoryCursor.next()) {
+                        wordIndex = BITMAP_WORDS;
+                        return false;
+                    }
+                    high = (int) directoryCursor.getKey();
+                    decode(directoryCursor.getValue(), words);
+                    wordIndex = 0;
+                }
+                word = words[wordIndex];
+            }
+            int low = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            word &= word - 1;
+            current = (high << 16) | low;
+            return true;
+        }
+
+        @Override
+        public boolean elementFound() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+            directoryCursor.close();
+        }
+    }
+}
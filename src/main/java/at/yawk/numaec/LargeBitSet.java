@@ -0,0 +1,212 @@
+package at.yawk.numaec;
+
+/**
+ * A fixed-size, long-indexed bit set stored in a {@link LargeByteBuffer}, using one bit per flag. Bits are stored in
+ * 64-bit words, and scans and bulk operations work a word at a time.
+ */
+public final class LargeBitSet implements BufferBasedCollection {
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+    private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
+
+    private final long size;
+    private final long wordCount;
+    private LargeByteBuffer buffer;
+
+    private LargeBitSet(LargeByteBuffer buffer, long size) {
+        this.buffer = buffer;
+        this.size = size;
+        this.wordCount = wordCount(size);
+    }
+
+    /**
+     * Create a new bit set with all bits cleared.
+     *
+     * @param size The number of bits in this set
+     */
+    public static LargeBitSet create(LargeByteBufferAllocator allocator, long size) {
+        if (size < 0) { throw new IllegalArgumentException("Negative size"); }
+        LargeBitSet set = new LargeBitSet(allocator.allocate(wordCount(size) * Long.BYTES), size);
+        set.clearAll();
+        return set;
+    }
+
+    private static long wordCount(long size) {
+        return (size + BITS_PER_WORD - 1) >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    private static long wordPosition(long wordIndex) {
+        return wordIndex * Long.BYTES;
+    }
+
+    private long word(long wordIndex) {
+        return buffer.getLong(wordPosition(wordIndex));
+    }
+
+    private void word(long wordIndex, long word) {
+        buffer.setLong(wordPosition(wordIndex), word);
+    }
+
+    private void checkIndex(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * @return The number of bits in this set
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean get(long index) {
+        checkIndex(index);
+        return (word(index >>> ADDRESS_BITS_PER_WORD) & (1L << index)) != 0;
+    }
+
+    public void set(long index) {
+        checkIndex(index);
+        long wordIndex = index >>> ADDRESS_BITS_PER_WORD;
+        word(wordIndex, word(wordIndex) | (1L << index));
+    }
+
+    public void clear(long index) {
+        checkIndex(index);
+        long wordIndex = index >>> ADDRESS_BITS_PER_WORD;
+        word(wordIndex, word(wordIndex) & ~(1L << index));
+    }
+
+    public void set(long index, boolean value) {
+        if (value) {
+            set(index);
+        } else {
+            clear(index);
+        }
+    }
+
+    public void clearAll() {
+        for (long i = 0; i < wordCount; i++) {
+            word(i, 0);
+        }
+    }
+
+    /**
+     * @return The number of set bits
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (long i = 0; i < wordCount; i++) {
+            cardinality += Long.bitCount(word(i));
+        }
+        return cardinality;
+    }
+
+    /**
+     * @return The index of the first set bit at or after {@code from}, or {@code -1} if there is none.
+     */
+    public long nextSetBit(long from) {
+        if (from < 0) { throw new IndexOutOfBoundsException(); }
+        if (from >= size) { return -1; }
+        long wordIndex = from >>> ADDRESS_BITS_PER_WORD;
+        long word = word(wordIndex) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex == wordCount) {
+                return -1;
+            }
+            word = word(wordIndex);
+        }
+    }
+
+    /**
+     * @return The index of the first cleared bit at or after {@code from}, or {@code -1} if there is none.
+     */
+    public long nextClearBit(long from) {
+        if (from < 0) { throw new IndexOutOfBoundsException(); }
+        if (from >= size) { return -1; }
+        long wordIndex = from >>> ADDRESS_BITS_PER_WORD;
+        long word = ~word(wordIndex) & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                long index = wordIndex * BITS_PER_WORD + Long.numberOfTrailingZeros(word);
+                // the bits after the end of the set are always clear
+                return index < size ? index : -1;
+            }
+            if (++wordIndex == wordCount) {
+                return -1;
+            }
+            word = ~word(wordIndex);
+        }
+    }
+
+    private void checkSameSize(LargeBitSet other) {
+        if (other.size != size) {
+            throw new IllegalArgumentException("Size mismatch: " + size + " != " + other.size);
+        }
+    }
+
+    /**
+     * Clear all bits in this set that are not set in {@code other}. Both sets must have the same size.
+     */
+    public void and(LargeBitSet other) {
+        checkSameSize(other);
+        for (long i = 0; i < wordCount; i++) {
+            word(i, word(i) & other.word(i));
+        }
+    }
+
+    /**
+     * Set all bits in this set that are set in {@code other}. Both sets must have the same size.
+     */
+    public void or(LargeBitSet other) {
+        checkSameSize(other);
+        for (long i = 0; i < wordCount; i++) {
+            word(i, word(i) | other.word(i));
+        }
+    }
+
+    /**
+     * Flip all bits in this set that are set in {@code other}. Both sets must have the same size.
+     */
+    public void xor(LargeBitSet other) {
+        checkSameSize(other);
+        for (long i = 0; i < wordCount; i++) {
+            word(i, word(i) ^ other.word(i));
+        }
+    }
+
+    /**
+     * Clear all bits in this set that are set in {@code other}. Both sets must have the same size.
+     */
+    public void andNot(LargeBitSet other) {
+        checkSameSize(other);
+        for (long i = 0; i < wordCount; i++) {
+            word(i, word(i) & ~other.word(i));
+        }
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return new MemoryFootprint(buffer.size(), wordCount * Long.BYTES, (size + Byte.SIZE - 1) / Byte.SIZE);
+    }
+
+    @Override
+    public void close() {
+        buffer.close();
+        buffer = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (long i = nextSetBit(0); i != -1; i = nextSetBit(i + 1)) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(i);
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -6,19 +6,28 @@ import java.util.function.LongSupplier;
 
 public final class LinearHashMapConfig {
     final float loadFactor;
+    final float shrinkLoadFactor;
     final int regionSize;
     final int bucketSize;
     final int pointerSize;
     final int hashLength;
+    final boolean columnarBuckets;
+    final int segmentCount;
+    final CollectionMetrics metrics;
     final LongSupplier sipHashK0;
     final LongSupplier sipHashK1;
 
     private LinearHashMapConfig(Builder builder) {
         this.loadFactor = builder.loadFactor;
+        this.shrinkLoadFactor = Float.isNaN(builder.shrinkLoadFactor) ?
+                builder.loadFactor / 4 : builder.shrinkLoadFactor;
         this.regionSize = builder.regionSize;
         this.bucketSize = builder.bucketSize;
         this.pointerSize = builder.pointerSize;
         this.hashLength = builder.hashLength;
+        this.columnarBuckets = builder.columnarBuckets;
+        this.segmentCount = builder.segmentCount;
+        this.metrics = builder.metrics;
         this.sipHashK0 = builder.sipHashK0;
         this.sipHashK1 = builder.sipHashK1;
     }
@@ -29,10 +38,14 @@ public final class LinearHashMapConfig {
 
     public static class Builder {
         float loadFactor = 0.75f;
+        float shrinkLoadFactor = Float.NaN;
         int regionSize = 16;
         int bucketSize = BTreeConfig.PAGE_SIZE;
         int pointerSize = 4;
         int hashLength = 4;
+        boolean columnarBuckets = false;
+        int segmentCount = 16;
+        CollectionMetrics metrics = null;
 
         LongSupplier sipHashK0;
         LongSupplier sipHashK1;
@@ -44,6 +57,19 @@ public final class LinearHashMapConfig {
             return this;
         }
 
+        /**
+         * Load below which linear hash maps merge buckets again, freeing their pages. {@code 0} disables shrinking.
+         * Defaults to a quarter of the {@link #loadFactor(float) load factor}, and must be at most half of it so that
+         * alternating inserts and removals don't split and merge the same bucket over and over.
+         */
+        public Builder shrinkLoadFactor(float shrinkLoadFactor) {
+            if (!(shrinkLoadFactor >= 0)) {
+                throw new IllegalArgumentException("Shrink load factor must not be negative");
+            }
+            this.shrinkLoadFactor = shrinkLoadFactor;
+            return this;
+        }
+
         public Builder regionSize(int regionSize) {
             this.regionSize = regionSize;
             return this;
@@ -89,7 +115,42 @@ public final class LinearHashMapConfig {
             return this;
         }
 
+        /**
+         * Store the hashes, keys and values of a bucket in separate columns instead of one entry after the other. A
+         * lookup then searches the packed hash column, which spans fewer cache lines, and only reads the key and value
+         * of the matching entry. This helps most for wide values, while inserts and removals have to move each
+         * column separately.
+         */
+        public Builder columnarBuckets(boolean columnarBuckets) {
+            this.columnarBuckets = columnarBuckets;
+            return this;
+        }
+
+        /**
+         * Number of independently locked segments of concurrent maps. Must be a power of two. Ignored by maps that
+         * are not thread-safe.
+         */
+        public Builder segmentCount(int segmentCount) {
+            if (segmentCount <= 0 || Integer.bitCount(segmentCount) != 1) {
+                throw new IllegalArgumentException("Segment count must be a power of two");
+            }
+            this.segmentCount = segmentCount;
+            return this;
+        }
+
+        /**
+         * Metrics to count page allocations, cursor allocations, bucket splits and merges and overflow chain
+         * traversals of this map in. {@code null}, the default, disables counting.
+         */
+        public Builder metrics(CollectionMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
         public LinearHashMapConfig build() {
+            if (shrinkLoadFactor > loadFactor / 2) {
+                throw new IllegalArgumentException("Shrink load factor must be at most half the load factor");
+            }
             return new LinearHashMapConfig(this);
         }
     }
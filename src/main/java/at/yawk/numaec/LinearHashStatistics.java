@@ -0,0 +1,112 @@
+package at.yawk.numaec;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Shape of the linear hash table behind a map or set at the time it was computed, for deciding when to rebuild a
+ * table and how to size {@link LinearHashMapConfig.Builder#bucketSize} and
+ * {@link LinearHashMapConfig.Builder#loadFactor}.
+ */
+public final class LinearHashStatistics {
+    private final long[] chainLengths;
+    private final int lowDepth;
+    private final int splitIndex;
+    private final long entryCount;
+    private final long fullLoadCapacity;
+
+    LinearHashStatistics(long[] chainLengths, int lowDepth, int splitIndex, long entryCount, long fullLoadCapacity) {
+        this.chainLengths = chainLengths;
+        this.lowDepth = lowDepth;
+        this.splitIndex = splitIndex;
+        this.entryCount = entryCount;
+        this.fullLoadCapacity = fullLoadCapacity;
+    }
+
+    /**
+     * Get the statistics of the linear hash table behind the given collection.
+     *
+     * @throws IllegalArgumentException if the collection is not backed by a single linear hash table
+     */
+    public static LinearHashStatistics of(BufferBasedCollection collection) {
+        if (!(collection instanceof Source)) {
+            throw new IllegalArgumentException("Not a linear hash collection");
+        }
+        return ((Source) collection).linearHashStatistics();
+    }
+
+    /**
+     * Number of main buckets.
+     */
+    public long bucketCount() {
+        long count = 0;
+        for (long n : chainLengths) {
+            count += n;
+        }
+        return count;
+    }
+
+    /**
+     * @return Main bucket counts by the number of pages in their chain. Index {@code 0} counts empty buckets that have
+     * no page yet, index {@code 1} buckets without overflow pages, and so on.
+     */
+    public long[] chainLengthHistogram() {
+        return chainLengths.clone();
+    }
+
+    /**
+     * Number of overflow pages, i.e. pages after the first of each chain.
+     */
+    public long overflowBucketCount() {
+        long count = 0;
+        for (int length = 2; length < chainLengths.length; length++) {
+            count += chainLengths[length] * (length - 1);
+        }
+        return count;
+    }
+
+    /**
+     * Number of hash bits that select the main bucket of entries that fall before the {@link #splitIndex()}.
+     */
+    public int lowDepth() {
+        return lowDepth;
+    }
+
+    /**
+     * Index of the next main bucket to split. Buckets before it, and the buckets split off from them, already use
+     * {@code lowDepth() + 1} hash bits.
+     */
+    public int splitIndex() {
+        return splitIndex;
+    }
+
+    public long entryCount() {
+        return entryCount;
+    }
+
+    /**
+     * @return The number of entries relative to what the main buckets hold without overflow pages. This is the value
+     * that is compared against {@link LinearHashMapConfig.Builder#loadFactor}.
+     */
+    public double loadFactor() {
+        return fullLoadCapacity == 0 ? 0 : (double) entryCount / fullLoadCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", LinearHashStatistics.class.getSimpleName() + "[", "]")
+                .add("chainLengths=" + Arrays.toString(chainLengths))
+                .add("lowDepth=" + lowDepth)
+                .add("splitIndex=" + splitIndex)
+                .add("entryCount=" + entryCount)
+                .add("fullLoadCapacity=" + fullLoadCapacity)
+                .toString();
+    }
+
+    /**
+     * Implemented by collections that are backed by a single linear hash table.
+     */
+    interface Source {
+        LinearHashStatistics linearHashStatistics();
+    }
+}
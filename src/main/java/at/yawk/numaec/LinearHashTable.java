@@ -1,6 +1,6 @@
 package at.yawk.numaec;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Arrays;
 import org.eclipse.collections.api.list.primitive.MutableLongList;
 import org.eclipse.collections.impl.factory.primitive.LongLists;
 
@@ -10,6 +10,9 @@ abstract class LinearHashTable implements AutoCloseable {
      *       |--| depth bits
      *
      * bucket = flip(hash >> (64 - depth))
+     *
+     * bucket layout: [hash key value]* ... [count] [next pointer]
+     *      columnar: [hash]* [key]* [value]* ... [count] [next pointer]
      */
 
     private static final long NULL = -1;
@@ -17,7 +20,13 @@ abstract class LinearHashTable implements AutoCloseable {
     private final int bucketSize;
     private final int pointerSize;
     private final long maxBucket;
+    private final int hashSize;
+    private final int keySize;
+    private final int valueSize;
     private final int entrySize;
+    private final boolean columnar;
+    private final long keyColumnOffset;
+    private final long valueColumnOffset;
     private final int maxBucketEntryCount;
     private final int bucketEntryCountBytes;
 
@@ -26,20 +35,31 @@ abstract class LinearHashTable implements AutoCloseable {
 
     private final MutableLongList mainBuckets = LongLists.mutable.empty();
 
-    private final AtomicReference<Cursor> reuseCursor = new AtomicReference<>();
+    private final CursorCache<Cursor> cursorCache = new CursorCache<>();
+
+    private final CollectionMetrics metrics;
 
     LinearHashTable(
             LargeByteBufferAllocator allocator,
             LinearHashMapConfig config,
-            int entrySize
+            int hashSize,
+            int keySize,
+            int valueSize
     ) {
-        this.allocator = new PageAllocator(allocator, config.regionSize, config.bucketSize);
+        this.metrics = config.metrics;
+        this.allocator = new PageAllocator(allocator, config.regionSize, config.bucketSize, config.metrics);
         this.buf = this.allocator.getBufferView();
         this.bucketSize = config.bucketSize;
         this.pointerSize = config.pointerSize;
-        this.entrySize = entrySize;
+        this.hashSize = hashSize;
+        this.keySize = keySize;
+        this.valueSize = valueSize;
+        this.entrySize = hashSize + keySize + valueSize;
+        this.columnar = config.columnarBuckets;
         this.bucketEntryCountBytes = BTree.requiredCountBytes((bucketSize - pointerSize) / entrySize);
         this.maxBucketEntryCount = (bucketSize - pointerSize - bucketEntryCountBytes) / entrySize;
+        this.keyColumnOffset = (long) maxBucketEntryCount * hashSize;
+        this.valueColumnOffset = (long) maxBucketEntryCount * (hashSize + keySize);
 
         mainBuckets.add(NULL);
 
@@ -82,16 +102,201 @@ abstract class LinearHashTable implements AutoCloseable {
         }
     }
 
+    /**
+     * @return The number of entries the main buckets hold without overflow buckets
+     */
+    public long fullLoadCapacity() {
+        return (long) mainBuckets.size() * maxBucketEntryCount;
+    }
+
+    /**
+     * Merge buckets until there are no more than needed to hold the given number of entries at full load, freeing the
+     * pages that become empty. This is the reverse of {@link #expandToFullLoadCapacity(long)}.
+     */
+    public void contractToFullLoadCapacity(long entryCount) {
+        long requiredBuckets = Math.max((entryCount - 1) / maxBucketEntryCount + 1, 1);
+        if (requiredBuckets < mainBuckets.size()) {
+            try (Cursor cursor = allocateCursor()) {
+                while (requiredBuckets < mainBuckets.size()) {
+                    cursor.mergeLastBucket();
+                }
+            }
+        }
+    }
+
     @SuppressWarnings("resource")
     public Cursor allocateCursor() {
-        Cursor cursor = reuseCursor.getAndSet(null);
+        Cursor cursor = cursorCache.take();
         if (cursor == null) {
+            if (metrics != null) { metrics.cursorAllocations.increment(); }
             cursor = new Cursor();
             cursor.init();
         }
         return cursor;
     }
 
+    private int mainBucketIndex(long hash) {
+        int bucketIndex = bucketIndex(lowDepth, hash);
+        if (bucketIndex < splitIndex) {
+            bucketIndex = bucketIndex(lowDepth + 1, hash);
+        }
+        return bucketIndex;
+    }
+
+    /**
+     * Search the chain of the given hash for an entry without allocating a cursor.
+     *
+     * @return The address of the value of the entry, or {@link #NULL} if it is not present
+     */
+    private long findEntry(long hash, long key) {
+        return findEntry(mainBuckets.get(mainBucketIndex(hash)), hash, key);
+    }
+
+    private long findEntry(long bucket, long hash, long key) {
+        while (bucket != NULL) {
+            long index = searchBucket(bucket, hash, key);
+            if (index >= 0) {
+                return valueAddress(bucket, index);
+            }
+            if (~index != maxBucketEntryCount) {
+                // the insertion index is in this bucket, so the entry can't be in a later one
+                return NULL;
+            }
+            bucket = getNextPointer(bucket);
+            if (metrics != null && bucket != NULL) { metrics.overflowBucketsVisited.increment(); }
+        }
+        return NULL;
+    }
+
+    /**
+     * Point lookup that does not need a cursor.
+     *
+     * @return The value for the given entry, or {@code ifAbsent} if the entry is not present
+     */
+    public long get(long hash, long key, long ifAbsent) {
+        long address = findEntry(hash, key);
+        return address == NULL ? ifAbsent : readValue(buf, address);
+    }
+
+    /**
+     * Point lookup that does not need a cursor.
+     */
+    public boolean containsKey(long hash, long key) {
+        return findEntry(hash, key) != NULL;
+    }
+
+    /**
+     * Batched variant of {@link #get}. The lookups are grouped by main bucket, so that chains are visited in bucket
+     * order instead of at random. If a chain has overflow pages, the keys that fall into it are sorted into chain
+     * order first, so that the chain is walked once for all of them instead of once per key.
+     *
+     * @param valuesOut Receives the value of every entry that is present. Other indices are left untouched.
+     * @param found     Receives whether each entry is present
+     */
+    public void getAll(long[] hashes, long[] keys, long[] valuesOut, boolean[] found) {
+        long[] order = new long[hashes.length];
+        for (int i = 0; i < hashes.length; i++) {
+            // bucket index in the high half, position in the batch in the low half
+            order[i] = ((long) mainBucketIndex(hashes[i]) << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] group = new int[hashes.length];
+        int[] scratch = null;
+        int groupStart = 0;
+        while (groupStart < order.length) {
+            int bucketIndex = (int) (order[groupStart] >>> 32);
+            int groupEnd = groupStart + 1;
+            while (groupEnd < order.length && (int) (order[groupEnd] >>> 32) == bucketIndex) {
+                groupEnd++;
+            }
+            int groupSize = groupEnd - groupStart;
+            for (int j = 0; j < groupSize; j++) {
+                group[j] = (int) order[groupStart + j];
+            }
+            groupStart = groupEnd;
+
+            long bucket = mainBuckets.get(bucketIndex);
+            if (bucket == NULL) {
+                for (int j = 0; j < groupSize; j++) {
+                    found[group[j]] = false;
+                }
+                continue;
+            }
+            if (groupSize > 1 && getNextPointer(bucket) != NULL) {
+                if (scratch == null) { scratch = new int[hashes.length]; }
+                sortByHashAndKey(group, scratch, 0, groupSize, hashes, keys);
+            }
+            for (int j = 0; j < groupSize; j++) {
+                int i = group[j];
+                long index;
+                // the keys are in chain order, so an entry is never in a page before the current one. Without
+                // overflow pages the keys are unsorted, but then there is no page to move to.
+                while ((index = searchBucket(bucket, hashes[i], keys[i])) < 0 && ~index == maxBucketEntryCount) {
+                    long next = getNextPointer(bucket);
+                    if (next == NULL) { break; }
+                    bucket = next;
+                    if (metrics != null) { metrics.overflowBucketsVisited.increment(); }
+                }
+                found[i] = index >= 0;
+                if (index >= 0) {
+                    valuesOut[i] = getValue0(bucket, index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Merge sort the given batch indices by hash and key, in the order entries are stored in a chain.
+     */
+    private static void sortByHashAndKey(int[] indices, int[] scratch, int from, int to, long[] hashes, long[] keys) {
+        if (to - from < 2) { return; }
+        int mid = (from + to) >>> 1;
+        sortByHashAndKey(indices, scratch, from, mid, hashes, keys);
+        sortByHashAndKey(indices, scratch, mid, to, hashes, keys);
+        System.arraycopy(indices, from, scratch, from, to - from);
+        int left = from;
+        int right = mid;
+        for (int k = from; k < to; k++) {
+            if (right >= to || (left < mid && compareEntries(scratch[left], scratch[right], hashes, keys) <= 0)) {
+                indices[k] = scratch[left++];
+            } else {
+                indices[k] = scratch[right++];
+            }
+        }
+    }
+
+    private static int compareEntries(int a, int b, long[] hashes, long[] keys) {
+        int cmp = Long.compareUnsigned(hashes[a], hashes[b]);
+        return cmp == 0 ? Long.compareUnsigned(keys[a], keys[b]) : cmp;
+    }
+
+    /**
+     * Binary search for an entry in a single bucket.
+     *
+     * @return The index of the entry, or the complement of the insertion index
+     */
+    private long searchBucket(long bucket, long hash, long key) {
+        long low = 0;
+        long high = getBucketEntryCount(bucket) - 1;
+        while (low <= high) {
+            long mid = (low + high) / 2;
+            // compare by hash, then by key
+            int cmp = Long.compareUnsigned(getHash0(bucket, mid), hash);
+            if (cmp == 0) {
+                cmp = Long.compareUnsigned(getKey0(bucket, mid), key);
+            }
+            if (cmp < 0) { // pivot < hash
+                low = mid + 1;
+            } else if (cmp > 0) { // pivot > hash
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return ~low;
+    }
+
     @DoNotMutate
     void checkInvariants() {
         if (mainBuckets.size() < (1 << lowDepth)) { throw new AssertionError(); }
@@ -171,31 +376,115 @@ abstract class LinearHashTable implements AutoCloseable {
         return baseAddress(bucket) + indexInBucket * entrySize;
     }
 
+    private long hashAddress(long bucket, long indexInBucket) {
+        return columnar
+                ? baseAddress(bucket) + indexInBucket * hashSize
+                : getEntryAddress(bucket, indexInBucket);
+    }
+
+    private long keyAddress(long bucket, long indexInBucket) {
+        return columnar
+                ? baseAddress(bucket) + keyColumnOffset + indexInBucket * keySize
+                : getEntryAddress(bucket, indexInBucket) + hashSize;
+    }
+
+    private long valueAddress(long bucket, long indexInBucket) {
+        return columnar
+                ? baseAddress(bucket) + valueColumnOffset + indexInBucket * valueSize
+                : getEntryAddress(bucket, indexInBucket) + hashSize + keySize;
+    }
+
     private long getHash0(long bucket, long indexInBucket) {
-        return readHash(buf, getEntryAddress(bucket, indexInBucket));
+        return hashSize == 0
+                ? hashOfKey(getKey0(bucket, indexInBucket))
+                : readHash(buf, hashAddress(bucket, indexInBucket));
     }
 
     private long getKey0(long bucket, long indexInBucket) {
-        return readKey(buf, getEntryAddress(bucket, indexInBucket));
+        return readKey(buf, keyAddress(bucket, indexInBucket));
     }
 
     private long getValue0(long bucket, long indexInBucket) {
-        return readValue(buf, getEntryAddress(bucket, indexInBucket));
+        return readValue(buf, valueAddress(bucket, indexInBucket));
+    }
+
+    private void write0(long bucket, long indexInBucket, long hash, long key, long value) {
+        if (hashSize != 0) {
+            writeHash(buf, hashAddress(bucket, indexInBucket), hash);
+        }
+        writeKey(buf, keyAddress(bucket, indexInBucket), key);
+        writeValue(buf, valueAddress(bucket, indexInBucket), value);
+    }
+
+    /**
+     * Move entries within or between buckets. The ranges may overlap.
+     */
+    private void moveEntries(long fromBucket, long fromIndex, long toBucket, long toIndex, long count) {
+        if (columnar) {
+            buf.copyFrom(buf, hashAddress(fromBucket, fromIndex), hashAddress(toBucket, toIndex), count * hashSize);
+            buf.copyFrom(buf, keyAddress(fromBucket, fromIndex), keyAddress(toBucket, toIndex), count * keySize);
+            buf.copyFrom(buf, valueAddress(fromBucket, fromIndex), valueAddress(toBucket, toIndex), count * valueSize);
+        } else {
+            buf.copyFrom(
+                    buf, getEntryAddress(fromBucket, fromIndex), getEntryAddress(toBucket, toIndex), count * entrySize);
+        }
     }
 
-    protected abstract void write(LargeByteBuffer lbb, long address, long hash, long key, long value);
+    /**
+     * Only called if the hash is stored, i.e. the hash size is not {@code 0}.
+     */
+    protected abstract void writeHash(LargeByteBuffer lbb, long address, long hash);
+
+    protected abstract void writeKey(LargeByteBuffer lbb, long address, long key);
 
+    protected abstract void writeValue(LargeByteBuffer lbb, long address, long value);
+
+    /**
+     * Only called if the hash is stored, otherwise {@link #hashOfKey(long)} is used.
+     */
     protected abstract long readHash(LargeByteBuffer lbb, long address);
 
     protected abstract long readKey(LargeByteBuffer lbb, long address);
 
     protected abstract long readValue(LargeByteBuffer lbb, long address);
 
+    /**
+     * Compute the hash of a key, for tables that don't store it.
+     */
+    protected abstract long hashOfKey(long key);
+
+    /**
+     * @param payload Size of the entries stored in this table, which the table itself does not count
+     */
+    public MemoryFootprint memoryFootprint(long payload) {
+        return new MemoryFootprint(allocator.reservedBytes(), allocator.usedBytes(), payload);
+    }
+
     @Override
     public void close() {
         allocator.close();
     }
 
+    /**
+     * Walk all bucket chains to compute the statistics of this table.
+     */
+    public LinearHashStatistics statistics() {
+        long[] chainLengths = new long[2];
+        long entryCount = 0;
+        for (int i = 0; i < mainBuckets.size(); i++) {
+            int length = 0;
+            for (long bucket = mainBuckets.get(i); bucket != NULL; bucket = getNextPointer(bucket)) {
+                entryCount += getBucketEntryCount(bucket);
+                length++;
+            }
+            if (length >= chainLengths.length) {
+                chainLengths = Arrays.copyOf(chainLengths, length + 1);
+            }
+            chainLengths[length]++;
+        }
+        return new LinearHashStatistics(chainLengths, lowDepth, splitIndex, entryCount, fullLoadCapacity());
+    }
+
     @DoNotMutate
     String toStringFlat() {
         try (LinearHashTable.Cursor iterator = allocateCursor()) {
@@ -231,6 +520,250 @@ abstract class LinearHashTable implements AutoCloseable {
                 .toArray(String[]::new);
     }
 
+    /**
+     * Start a bulk load into this table, which must be empty.
+     *
+     * @param scratchAllocator Allocator for the sort runs. The scratch buffer is released once the load completes.
+     * @param entryCount       Maximum number of entries that will be added
+     * @param capacity         Number of entries to size the main buckets for at full load, as passed to
+     *                         {@link #expandToFullLoadCapacity(long)}
+     */
+    public BulkLoader bulkLoader(LargeByteBufferAllocator scratchAllocator, long entryCount, long capacity) {
+        if (mainBuckets.size() != 1 || mainBuckets.get(0) != NULL) {
+            throw new IllegalStateException("Bulk load requires an empty table");
+        }
+        return new BulkLoader(scratchAllocator, entryCount, capacity);
+    }
+
+    /**
+     * Builds a table from unsorted entries without splitting buckets. Entries are collected in a scratch buffer, sorted
+     * in runs that fit on the heap and then merged. Since the merged stream is in table order, every bucket chain is
+     * written once, front to back, with all but its last page full.
+     */
+    public final class BulkLoader implements AutoCloseable {
+        /**
+         * Entries per sort run. Not final so that tests can exercise merging with few entries.
+         */
+        int runLength = 1 << 18;
+
+        private final LargeByteBuffer scratch;
+        private final long entryCount;
+        private final long capacity;
+        private long added = 0;
+        private boolean closed = false;
+
+        private int chainIndex = -1;
+        private long chainTail = NULL;
+        private long lastHash;
+        private long lastKey;
+        private long distinct = 0;
+
+        private BulkLoader(LargeByteBufferAllocator scratchAllocator, long entryCount, long capacity) {
+            this.scratch = entryCount == 0 ? null : scratchAllocator.allocate(entryCount * entrySize);
+            this.entryCount = entryCount;
+            this.capacity = capacity;
+        }
+
+        public void add(long hash, long key, long value) {
+            if (closed) { throw new IllegalStateException("Bulk load already finished"); }
+            if (added >= entryCount) { throw new IllegalStateException("More entries than announced"); }
+            writeScratch(added++ * entrySize, hash, key, value);
+        }
+
+        /**
+         * Sort the added entries and write them to the table. If a key was added more than once, the last value
+         * wins.
+         *
+         * @return The number of distinct entries in the table
+         */
+        public long finish() {
+            if (closed) { throw new IllegalStateException("Bulk load already finished"); }
+            presize(Math.max((capacity - 1) / maxBucketEntryCount + 1, 1));
+            if (added != 0) {
+                for (long start = 0; start < added; start += runLength) {
+                    sortRun(start, (int) Math.min(runLength, added - start));
+                }
+                mergeRuns();
+            }
+            close();
+            return distinct;
+        }
+
+        private void presize(long bucketCount) {
+            if (bucketCount > Integer.MAX_VALUE) { throw new IllegalArgumentException("Too many buckets"); }
+            mainBuckets.clear();
+            for (long i = 0; i < bucketCount; i++) {
+                mainBuckets.add(NULL);
+            }
+            // same state as after splitting buckets one at a time
+            lowDepth = 31 - Integer.numberOfLeadingZeros((int) bucketCount);
+            splitIndex = (int) bucketCount - (1 << lowDepth);
+        }
+
+        private void sortRun(long start, int length) {
+            long[] hashes = new long[length];
+            long[] keys = new long[length];
+            long[] values = new long[length];
+            for (int i = 0; i < length; i++) {
+                long address = (start + i) * entrySize;
+                keys[i] = readKey(scratch, address + hashSize);
+                hashes[i] = readScratchHash(address, keys[i]);
+                values[i] = readValue(scratch, address + hashSize + keySize);
+            }
+            int[] order = new int[length];
+            for (int i = 0; i < length; i++) {
+                order[i] = i;
+            }
+            // stable, so that duplicate keys stay in insertion order
+            mergeSort(order, new int[length], 0, length, hashes, keys);
+            for (int i = 0; i < length; i++) {
+                int j = order[i];
+                writeScratch((start + i) * entrySize, hashes[j], keys[j], values[j]);
+            }
+        }
+
+        private void mergeSort(int[] order, int[] tmp, int from, int to, long[] hashes, long[] keys) {
+            if (to - from < 2) { return; }
+            int mid = (from + to) >>> 1;
+            mergeSort(order, tmp, from, mid, hashes, keys);
+            mergeSort(order, tmp, mid, to, hashes, keys);
+            System.arraycopy(order, from, tmp, from, to - from);
+            int left = from;
+            int right = mid;
+            for (int i = from; i < to; i++) {
+                if (right >= to || (left < mid && compareEntries(
+                        hashes[tmp[left]], keys[tmp[left]], hashes[tmp[right]], keys[tmp[right]]) <= 0)) {
+                    order[i] = tmp[left++];
+                } else {
+                    order[i] = tmp[right++];
+                }
+            }
+        }
+
+        private void mergeRuns() {
+            int runCount = (int) ((added - 1) / runLength + 1);
+            long[] position = new long[runCount];
+            long[] headHash = new long[runCount];
+            long[] headKey = new long[runCount];
+            // binary min-heap of run indices, ordered by their head entry and then by run index
+            int[] heap = new int[runCount];
+            int heapSize = 0;
+            for (int run = 0; run < runCount; run++) {
+                position[run] = (long) run * runLength;
+                long address = position[run] * entrySize;
+                headKey[run] = readKey(scratch, address + hashSize);
+                headHash[run] = readScratchHash(address, headKey[run]);
+                heap[heapSize++] = run;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(heap, heapSize, i, headHash, headKey);
+            }
+            while (heapSize > 0) {
+                int run = heap[0];
+                long address = position[run] * entrySize;
+                append(headHash[run], headKey[run], readValue(scratch, address + hashSize + keySize));
+                position[run]++;
+                if (position[run] == Math.min((long) (run + 1) * runLength, added)) {
+                    heap[0] = heap[--heapSize];
+                } else {
+                    address += entrySize;
+                    headKey[run] = readKey(scratch, address + hashSize);
+                    headHash[run] = readScratchHash(address, headKey[run]);
+                }
+                siftDown(heap, heapSize, 0, headHash, headKey);
+            }
+        }
+
+        /**
+         * Entries in the scratch buffer are always stored one after the other, regardless of the bucket layout.
+         */
+        private void writeScratch(long address, long hash, long key, long value) {
+            if (hashSize != 0) {
+                writeHash(scratch, address, hash);
+            }
+            writeKey(scratch, address + hashSize, key);
+            writeValue(scratch, address + hashSize + keySize, value);
+        }
+
+        private long readScratchHash(long address, long key) {
+            return hashSize == 0 ? hashOfKey(key) : readHash(scratch, address);
+        }
+
+        private void siftDown(int[] heap, int heapSize, int i, long[] headHash, long[] headKey) {
+            while (true) {
+                int smallest = i;
+                for (int child = 2 * i + 1; child <= 2 * i + 2 && child < heapSize; child++) {
+                    if (compareHeads(heap[child], heap[smallest], headHash, headKey) < 0) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == i) { return; }
+                int swap = heap[i];
+                heap[i] = heap[smallest];
+                heap[smallest] = swap;
+                i = smallest;
+            }
+        }
+
+        private int compareHeads(int runA, int runB, long[] headHash, long[] headKey) {
+            int cmp = compareEntries(headHash[runA], headKey[runA], headHash[runB], headKey[runB]);
+            // earlier runs hold earlier entries, so duplicates come out in insertion order
+            return cmp != 0 ? cmp : Integer.compare(runA, runB);
+        }
+
+        private void append(long hash, long key, long value) {
+            if (distinct != 0 && hash == lastHash && key == lastKey) {
+                // duplicate key, replace the value
+                write0(chainTail, getBucketEntryCount(chainTail) - 1, hash, key, value);
+                return;
+            }
+            int bucketIndex = mainBucketIndex(hash);
+            if (bucketIndex != chainIndex) {
+                chainIndex = bucketIndex;
+                chainTail = allocateChainPage();
+                mainBuckets.set(bucketIndex, chainTail);
+            } else if (getBucketEntryCount(chainTail) == maxBucketEntryCount) {
+                long next = allocateChainPage();
+                setNextPointer(chainTail, next);
+                chainTail = next;
+            }
+            long count = getBucketEntryCount(chainTail);
+            write0(chainTail, count, hash, key, value);
+            setBucketEntryCount(chainTail, count + 1);
+            lastHash = hash;
+            lastKey = key;
+            distinct++;
+        }
+
+        private long allocateChainPage() {
+            long page = allocator.allocatePage();
+            setNextPointer(page, NULL);
+            setBucketEntryCount(page, 0);
+            return page;
+        }
+
+        /**
+         * Release the scratch buffer. Called by {@link #finish()}, or to abort the load.
+         */
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (scratch != null) {
+                    scratch.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Order of entries in a bucket chain.
+     */
+    private static int compareEntries(long hashA, long keyA, long hashB, long keyB) {
+        int cmp = Long.compareUnsigned(hashA, hashB);
+        return cmp != 0 ? cmp : Long.compareUnsigned(keyA, keyB);
+    }
+
     public class Cursor implements MapStoreCursor {
         private long bucket;
         private long prevBucket;
@@ -245,14 +778,25 @@ abstract class LinearHashTable implements AutoCloseable {
         }
 
         public void seek(long hash, long key) {
-            int bucketIndex = bucketIndex(lowDepth, hash);
-            if (bucketIndex < splitIndex) {
-                bucketIndex = bucketIndex(lowDepth + 1, hash);
-            }
-            seekMainBucketByBucketIndex(bucketIndex);
+            seekMainBucketByBucketIndex(mainBucketIndex(hash));
             seekInChain(hash, key);
         }
 
+        /**
+         * Like {@link #seek}, but if the entry is not present, position the cursor such that the next call to
+         * {@link #next()} selects the entry that would follow it.
+         *
+         * @return {@code true} iff the entry is present
+         */
+        public boolean seekAfter(long hash, long key) {
+            seek(hash, key);
+            if (indexInBucket < 0) {
+                indexInBucket = ~indexInBucket - 1;
+                return false;
+            }
+            return true;
+        }
+
         @Override
         public boolean elementFound() {
             return indexInBucket >= 0;
@@ -267,6 +811,7 @@ abstract class LinearHashTable implements AutoCloseable {
         private void jumpToNextBucket() {
             prevBucket = bucket;
             bucket = getNextPointer(bucket);
+            if (metrics != null && bucket != NULL) { metrics.overflowBucketsVisited.increment(); }
         }
 
         private void seekInChain(long hash, long key) {
@@ -340,6 +885,7 @@ abstract class LinearHashTable implements AutoCloseable {
                 mainBuckets.set(bucketIndex, bucket);
             } else {
                 setNextPointer(prevBucket, bucket);
+                if (metrics != null) { metrics.overflowBucketsAllocated.increment(); }
             }
             setNextPointer(bucket, NULL);
             setBucketEntryCount(bucket, 0);
@@ -356,12 +902,7 @@ abstract class LinearHashTable implements AutoCloseable {
                     }
 
                     // shift items
-                    buf.copyFrom(
-                            buf,
-                            getEntryAddress(bucket, insertionIndex),
-                            getEntryAddress(bucket, insertionIndex + 1),
-                            getEntryAddress(bucket, oldEntryCount) - getEntryAddress(bucket, insertionIndex)
-                    );
+                    moveEntries(bucket, insertionIndex, bucket, insertionIndex + 1, oldEntryCount - insertionIndex);
                     setBucketEntryCount(bucket, oldEntryCount + 1);
                     indexInBucket = insertionIndex;
                     replace0(hash, key, value);
@@ -372,12 +913,7 @@ abstract class LinearHashTable implements AutoCloseable {
                     long trailingKey = getKey0(bucket, oldEntryCount - 1);
                     long trailingValue = getValue0(bucket, oldEntryCount - 1);
                     // shift items
-                    buf.copyFrom(
-                            buf,
-                            getEntryAddress(bucket, insertionIndex),
-                            getEntryAddress(bucket, insertionIndex + 1),
-                            getEntryAddress(bucket, oldEntryCount - 1) - getEntryAddress(bucket, insertionIndex)
-                    );
+                    moveEntries(bucket, insertionIndex, bucket, insertionIndex + 1, oldEntryCount - 1 - insertionIndex);
                     // place item
                     indexInBucket = insertionIndex;
                     replace0(hash, key, value);
@@ -424,20 +960,10 @@ abstract class LinearHashTable implements AutoCloseable {
                 );
                 if (toShift == 0) { return; }
                 // copy to previous
-                buf.copyFrom(
-                        buf,
-                        getEntryAddress(bucket, 0),
-                        getEntryAddress(prevBucket, oldPrevEntryCount),
-                        getEntryAddress(bucket, toShift) - getEntryAddress(bucket, 0)
-                );
+                moveEntries(bucket, 0, prevBucket, oldPrevEntryCount, toShift);
                 setBucketEntryCount(prevBucket, oldPrevEntryCount + toShift);
                 // shift remaining items to the left
-                buf.copyFrom(
-                        buf,
-                        getEntryAddress(bucket, toShift),
-                        getEntryAddress(bucket, 0),
-                        getEntryAddress(bucket, oldEntryCount) - getEntryAddress(bucket, toShift)
-                );
+                moveEntries(bucket, toShift, bucket, 0, oldEntryCount - toShift);
                 if (oldEntryCount == toShift) {
                     freeBucket();
                 } else {
@@ -448,6 +974,19 @@ abstract class LinearHashTable implements AutoCloseable {
             }
         }
 
+        /**
+         * Remove the current entry, keeping the cursor positioned such that the next call to {@link #next()} selects
+         * the entry that followed it.
+         */
+        public void removeAndContinue() {
+            checkElementFound();
+            long hash = getHash0(bucket, indexInBucket);
+            long key = getKey0(bucket, indexInBucket);
+            remove();
+            // remove may move entries between buckets, so find our place again
+            seekAfter(hash, key);
+        }
+
         public void remove() {
             checkElementFound();
             long oldCount = getEntryCount();
@@ -455,12 +994,7 @@ abstract class LinearHashTable implements AutoCloseable {
                 freeBucket();
             } else {
                 // shift other elements left
-                buf.copyFrom(
-                        buf,
-                        getEntryAddress(bucket, indexInBucket + 1),
-                        getEntryAddress(bucket, indexInBucket),
-                        getEntryAddress(bucket, oldCount) - getEntryAddress(bucket, indexInBucket + 1)
-                );
+                moveEntries(bucket, indexInBucket + 1, bucket, indexInBucket, oldCount - indexInBucket - 1);
                 setBucketEntryCount(bucket, oldCount - 1);
                 jumpToNextBucket();
                 backfill();
@@ -469,7 +1003,7 @@ abstract class LinearHashTable implements AutoCloseable {
 
         private void replace0(long hash, long key, long value) {
             checkElementFound();
-            write(buf, getEntryAddress(bucket, indexInBucket), hash, key, value);
+            write0(bucket, indexInBucket, hash, key, value);
         }
 
         private long getEntryCount() {
@@ -478,25 +1012,7 @@ abstract class LinearHashTable implements AutoCloseable {
 
         private void binarySearch(long hash, long key) {
             if (bucket == NULL) { throw new IllegalStateException(); }
-            long low = 0;
-            long high = getEntryCount() - 1;
-            while (low <= high) {
-                long mid = (low + high) / 2;
-                // compare by hash, then by key
-                int cmp = Long.compareUnsigned(getHash0(bucket, mid), hash);
-                if (cmp == 0) {
-                    cmp = Long.compareUnsigned(getKey0(bucket, mid), key);
-                }
-                if (cmp < 0) { // pivot < hash
-                    low = mid + 1;
-                } else if (cmp > 0) { // pivot > hash
-                    high = mid - 1;
-                } else {
-                    indexInBucket = mid;
-                    return;
-                }
-            }
-            indexInBucket = ~low;
+            indexInBucket = searchBucket(bucket, hash, key);
         }
 
         private void appendItemsFromBucket(long sourceBucket, long startIndex) {
@@ -509,12 +1025,7 @@ abstract class LinearHashTable implements AutoCloseable {
                 long oldEntryCount = getEntryCount();
                 long copyHere = Math.min(maxBucketEntryCount - oldEntryCount, toCopy);
                 long newEntryCount = oldEntryCount + copyHere;
-                buf.copyFrom(
-                        buf,
-                        getEntryAddress(sourceBucket, startIndex),
-                        getEntryAddress(bucket, oldEntryCount),
-                        getEntryAddress(bucket, newEntryCount) - getEntryAddress(bucket, oldEntryCount)
-                );
+                moveEntries(sourceBucket, startIndex, bucket, oldEntryCount, copyHere);
                 setBucketEntryCount(bucket, newEntryCount);
                 toCopy -= copyHere;
                 startIndex += copyHere;
@@ -527,6 +1038,7 @@ abstract class LinearHashTable implements AutoCloseable {
 
         private void splitBucket() {
             if (splitIndex != bucketIndex) { throw new IllegalStateException(); }
+            if (metrics != null) { metrics.linearHashSplits.increment(); }
             int daughterBucketIndex = this.bucketIndex | (1 << lowDepth);
             if (daughterBucketIndex != mainBuckets.size()) { throw new AssertionError(); }
             mainBuckets.add(NULL);
@@ -564,10 +1076,44 @@ abstract class LinearHashTable implements AutoCloseable {
             }
         }
 
+        /**
+         * Merge the last main bucket back into the bucket it was split from.
+         */
+        private void mergeLastBucket() {
+            if (mainBuckets.size() <= 1) { throw new IllegalStateException(); }
+            if (metrics != null) { metrics.linearHashMerges.increment(); }
+            if (splitIndex == 0) {
+                lowDepth--;
+                splitIndex = 1 << lowDepth;
+            }
+            splitIndex--;
+            int daughterBucketIndex = splitIndex | (1 << lowDepth);
+            if (daughterBucketIndex != mainBuckets.size() - 1) { throw new AssertionError(); }
+            long daughter = mainBuckets.removeAtIndex(daughterBucketIndex);
+
+            // the daughter entries differ from the parent entries only in a hash bit that is 1 for the daughter, so
+            // they all sort after the parent entries and can simply be appended.
+            seekMainBucketByBucketIndex(splitIndex);
+            while (bucket != NULL && getEntryCount() >= maxBucketEntryCount) {
+                jumpToNextBucket();
+            }
+            if (bucket == NULL) {
+                // the parent chain is empty or full, link the daughter chain as-is
+                replaceBucketWith(daughter);
+            } else {
+                while (daughter != NULL) {
+                    appendItemsFromBucket(daughter, 0);
+                    long next = getNextPointer(daughter);
+                    allocator.freePage(Math.toIntExact(daughter));
+                    daughter = next;
+                }
+            }
+        }
+
         @Override
         public void close() {
             init();
-            reuseCursor.set(this);
+            cursorCache.release(this);
         }
     }
 }
@@ -0,0 +1,68 @@
+package at.yawk.numaec;
+
+import java.util.Objects;
+import java.util.StringJoiner;
+
+/**
+ * Breakdown of the memory held by a {@link BufferBasedCollection}, in bytes.
+ * <p>
+ * {@link #reserved()} is what the collection has taken from its allocator, {@link #used()} the part of that which
+ * holds live data, including per-page headers and the free space inside pages that are in use, and
+ * {@link #payload()} the size of the elements themselves. {@code reserved - used} can be reused without allocating,
+ * while {@code used - payload} is the overhead of the storage layout. Compressed collections may have a payload larger
+ * than what they use.
+ */
+public final class MemoryFootprint {
+    public static final MemoryFootprint EMPTY = new MemoryFootprint(0, 0, 0);
+
+    private final long reserved;
+    private final long used;
+    private final long payload;
+
+    public MemoryFootprint(long reserved, long used, long payload) {
+        this.reserved = reserved;
+        this.used = used;
+        this.payload = payload;
+    }
+
+    public long reserved() {
+        return reserved;
+    }
+
+    public long used() {
+        return used;
+    }
+
+    public long payload() {
+        return payload;
+    }
+
+    /**
+     * @return The sum of this footprint and the given one, e.g. for a collection made of several structures
+     */
+    public MemoryFootprint plus(MemoryFootprint other) {
+        return new MemoryFootprint(reserved + other.reserved, used + other.used, payload + other.payload);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (!(o instanceof MemoryFootprint)) { return false; }
+        MemoryFootprint that = (MemoryFootprint) o;
+        return reserved == that.reserved && used == that.used && payload == that.payload;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(reserved, used, payload);
+    }
+
+    @Override
+    public String toString() {
+        return new StringJoiner(", ", MemoryFootprint.class.getSimpleName() + "[", "]")
+                .add("reserved=" + reserved)
+                .add("used=" + used)
+                .add("payload=" + payload)
+                .toString();
+    }
+}
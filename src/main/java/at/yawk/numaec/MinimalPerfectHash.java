@@ -0,0 +1,185 @@
+package at.yawk.numaec;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Minimal perfect hash function over a fixed set of distinct {@code long} keys, following the BBHash construction:
+ * every level is a bit array that keys are hashed into, keys that land on a bit alone are placed on that level and the
+ * colliding keys move on to the next, smaller level. The index of a key is the rank of its bit over all levels, so
+ * the keys of the set are mapped to {@code [0, count)} without gaps.
+ * <p>
+ * The levels are concatenated into one bit array, which is stored in blocks of {@link #BLOCK_WORDS} words, each
+ * preceded by the number of set bits before the block. A lookup is one access to the block of the first level for
+ * most keys, plus one per level the key collided on.
+ * <p>
+ * Keys that are not in the set are mapped to {@code -1} or to an arbitrary index, so users have to check the key
+ * stored at the index.
+ */
+final class MinimalPerfectHash implements BufferBasedCollection {
+    /**
+     * Size of a level in bits relative to the number of keys hashed into it. Larger values need fewer levels, and so
+     * fewer memory accesses per lookup, but more space: at 2, the levels take about 3.7 bits per key.
+     */
+    private static final double GAMMA = 2;
+    private static final int MAX_LEVELS = 64;
+    private static final int BLOCK_WORDS = 8;
+    private static final int BLOCK_BITS = BLOCK_WORDS * Long.SIZE;
+    private static final int BLOCK_BYTES = (BLOCK_WORDS + 1) * Long.BYTES;
+
+    private final long seed;
+    private final long[] levelOffsets;
+    private final long[] levelSizes;
+    private final long count;
+    private LargeByteBuffer buffer;
+
+    private MinimalPerfectHash(long seed, long[] levelOffsets, long[] levelSizes, long count, LargeByteBuffer buffer) {
+        this.seed = seed;
+        this.levelOffsets = levelOffsets;
+        this.levelSizes = levelSizes;
+        this.count = count;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Build a hash function for the given keys.
+     *
+     * @param keys  Buffer holding the keys as consecutive {@code long}s. The keys must be distinct. The buffer is used
+     *              as scratch space during construction, so the order of the keys is not preserved.
+     * @param count Number of keys in the buffer
+     */
+    static MinimalPerfectHash build(LargeByteBufferAllocator allocator, LargeByteBuffer keys, long count) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        long[] levelOffsets = new long[MAX_LEVELS];
+        long[] levelSizes = new long[MAX_LEVELS];
+        LargeBitSet[] levels = new LargeBitSet[MAX_LEVELS];
+        int levelCount = 0;
+        long totalBits = 0;
+        try {
+            long remaining = count;
+            while (remaining > 0) {
+                if (levelCount == MAX_LEVELS) {
+                    throw new IllegalArgumentException("Could not separate keys, are they distinct?");
+                }
+                int level = levelCount++;
+                // round to whole words so that levels never share a word
+                long size = ((Math.max((long) (remaining * GAMMA), Long.SIZE) + Long.SIZE - 1) / Long.SIZE) * Long.SIZE;
+                levelOffsets[level] = totalBits;
+                levelSizes[level] = size;
+                totalBits += size;
+                LargeBitSet placed = LargeBitSet.create(allocator, size);
+                levels[level] = placed;
+                try (LargeBitSet collisions = LargeBitSet.create(allocator, size)) {
+                    for (long i = 0; i < remaining; i++) {
+                        long position = position(seed, level, size, keys.getLong(i * Long.BYTES));
+                        if (collisions.get(position)) { continue; }
+                        if (placed.get(position)) {
+                            placed.clear(position);
+                            collisions.set(position);
+                        } else {
+                            placed.set(position);
+                        }
+                    }
+                    // move the colliding keys to the front for the next level
+                    long next = 0;
+                    for (long i = 0; i < remaining; i++) {
+                        long key = keys.getLong(i * Long.BYTES);
+                        if (collisions.get(position(seed, level, size, key))) {
+                            keys.setLong(next++ * Long.BYTES, key);
+                        }
+                    }
+                    remaining = next;
+                }
+            }
+
+            long blockCount = (totalBits + BLOCK_BITS - 1) / BLOCK_BITS;
+            LargeByteBuffer buffer = allocator.allocate(Math.max(blockCount, 1) * BLOCK_BYTES);
+            for (long i = 0; i < blockCount * (BLOCK_WORDS + 1); i++) {
+                buffer.setLong(i * Long.BYTES, 0);
+            }
+            for (int level = 0; level < levelCount; level++) {
+                LargeBitSet bits = levels[level];
+                for (long i = bits.nextSetBit(0); i != -1; i = bits.nextSetBit(i + 1)) {
+                    long address = wordAddress(levelOffsets[level] + i);
+                    buffer.setLong(address, buffer.getLong(address) | (1L << i));
+                }
+            }
+            long rank = 0;
+            for (long block = 0; block < blockCount; block++) {
+                long address = block * BLOCK_BYTES;
+                buffer.setLong(address, rank);
+                for (int i = 0; i < BLOCK_WORDS; i++) {
+                    rank += Long.bitCount(buffer.getLong(address + (i + 1) * Long.BYTES));
+                }
+            }
+            if (rank != count) { throw new AssertionError(); }
+            return new MinimalPerfectHash(
+                    seed,
+                    Arrays.copyOf(levelOffsets, levelCount),
+                    Arrays.copyOf(levelSizes, levelCount),
+                    count,
+                    buffer);
+        } finally {
+            for (int level = 0; level < levelCount; level++) {
+                levels[level].close();
+            }
+        }
+    }
+
+    private static long position(long seed, int level, long size, long key) {
+        // murmur3 finalizer, which is a bijection, so distinct keys never collide on all levels
+        long h = key ^ (seed + level * 0x9E3779B97F4A7C15L);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return Long.remainderUnsigned(h, size);
+    }
+
+    private static long wordAddress(long bit) {
+        return (bit / BLOCK_BITS) * BLOCK_BYTES + (((bit / Long.SIZE) % BLOCK_WORDS) + 1) * Long.BYTES;
+    }
+
+    /**
+     * @return The number of keys in this function
+     */
+    long count() {
+        return count;
+    }
+
+    /**
+     * @return The index of the given key in {@code [0, count)}, or {@code -1} if the key is known to not be part of
+     * the set. Keys that are not part of the set may also be mapped to a valid index.
+     */
+    long index(long key) {
+        for (int level = 0; level < levelOffsets.length; level++) {
+            long bit = levelOffsets[level] + position(seed, level, levelSizes[level], key);
+            long word = buffer.getLong(wordAddress(bit));
+            if ((word & (1L << bit)) != 0) {
+                long blockAddress = (bit / BLOCK_BITS) * BLOCK_BYTES;
+                long rank = buffer.getLong(blockAddress);
+                int wordInBlock = (int) ((bit / Long.SIZE) % BLOCK_WORDS);
+                for (int i = 0; i < wordInBlock; i++) {
+                    rank += Long.bitCount(buffer.getLong(blockAddress + (i + 1) * Long.BYTES));
+                }
+                return rank + Long.bitCount(word & ((1L << bit) - 1));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The hash function stores no keys, so all of its memory counts as overhead.
+     */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return new MemoryFootprint(buffer.size(), buffer.size(), 0);
+    }
+
+    @Override
+    public void close() {
+        buffer.close();
+        buffer = null;
+    }
+}
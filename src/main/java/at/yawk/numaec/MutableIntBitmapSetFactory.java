@@ -0,0 +1,35 @@
+package at.yawk.numaec;
+
+public final class MutableIntBitmapSetFactory implements MutableIntBufferSetFactory {
+    private final LargeByteBufferAllocator allocator;
+    private final BTreeConfig directoryConfig;
+
+    private MutableIntBitmapSetFactory(LargeByteBufferAllocator allocator, BTreeConfig directoryConfig) {
+        this.allocator = allocator;
+        this.directoryConfig = directoryConfig;
+    }
+
+    public static MutableIntBitmapSetFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return withAllocatorAndConfig(allocator, BTreeConfig.builder().build());
+    }
+
+    /**
+     * @param directoryConfig Configuration of the {@link BTree} that maps the upper 16 bits of each element to its
+     *                        container
+     */
+    public static MutableIntBitmapSetFactory withAllocatorAndConfig(
+            LargeByteBufferAllocator allocator, BTreeConfig directoryConfig
+    ) {
+        return new MutableIntBitmapSetFactory(allocator, directoryConfig);
+    }
+
+    @Override
+    public IntBitmapSet empty() {
+        return new IntBitmapSet(allocator, directoryConfig);
+    }
+
+    @Override
+    public IntBitmapSet ofInitialCapacity(int capacity) {
+        return empty();
+    }
+}
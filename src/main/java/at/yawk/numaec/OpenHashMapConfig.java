@@ -0,0 +1,56 @@
+package at.yawk.numaec;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+public final class OpenHashMapConfig {
+    final float loadFactor;
+    final LongSupplier sipHashK0;
+    final LongSupplier sipHashK1;
+
+    private OpenHashMapConfig(Builder builder) {
+        this.loadFactor = builder.loadFactor;
+        this.sipHashK0 = builder.sipHashK0;
+        this.sipHashK1 = builder.sipHashK1;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        float loadFactor = 0.8f;
+
+        LongSupplier sipHashK0;
+        LongSupplier sipHashK1;
+
+        { generateHashKey(); }
+
+        /**
+         * Ratio of entries to slots above which the table is rehashed into one twice the size. Robin Hood hashing
+         * keeps probe sequences short up to high loads, but every lookup of an absent key scans a whole cluster.
+         */
+        public Builder loadFactor(float loadFactor) {
+            if (!(loadFactor > 0 && loadFactor < 1)) {
+                throw new IllegalArgumentException("Load factor must be between 0 and 1");
+            }
+            this.loadFactor = loadFactor;
+            return this;
+        }
+
+        public Builder generateHashKey(Random rng) {
+            sipHashK1 = sipHashK0 = rng::nextLong;
+            return this;
+        }
+
+        public Builder generateHashKey() {
+            sipHashK1 = sipHashK0 = () -> ThreadLocalRandom.current().nextLong();
+            return this;
+        }
+
+        public OpenHashMapConfig build() {
+            return new OpenHashMapConfig(this);
+        }
+    }
+}
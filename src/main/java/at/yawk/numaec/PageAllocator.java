@@ -1,13 +1,17 @@
 package at.yawk.numaec;
 
 import java.io.Closeable;
-import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 final class PageAllocator implements Closeable {
     private final LargeByteBufferAllocator allocator;
-    private final List<LargeByteBuffer> regions = new ArrayList<>();
+    /**
+     * Regions are only added by the allocating thread, but the buffer view may be read concurrently, e.g. by btree
+     * snapshot readers.
+     */
+    private final List<LargeByteBuffer> regions = new CopyOnWriteArrayList<>();
     /**
      * Size of each region in pages.
      */
@@ -16,18 +20,31 @@ final class PageAllocator implements Closeable {
      * Size of each region in bytes.
      */
     private final int regionSizeBytes;
+    private final int pageSize;
 
     private final LargeByteBuffer bufferView = new Buf();
 
     private final BitSet occupied = new BitSet();
 
+    private final CollectionMetrics metrics;
+
     /**
      * @param regionSize Region size in <i>pages</i>.
      */
     PageAllocator(LargeByteBufferAllocator allocator, int regionSize, int pageSize) {
+        this(allocator, regionSize, pageSize, null);
+    }
+
+    /**
+     * @param regionSize Region size in <i>pages</i>.
+     * @param metrics    Metrics to count allocated and freed pages in, or {@code null}
+     */
+    PageAllocator(LargeByteBufferAllocator allocator, int regionSize, int pageSize, CollectionMetrics metrics) {
         this.allocator = allocator;
+        this.metrics = metrics;
         this.regionSize = regionSize;
         this.regionSizeBytes = regionSize * pageSize;
+        this.pageSize = pageSize;
     }
 
     public LargeByteBuffer getBufferView() {
@@ -42,6 +59,7 @@ final class PageAllocator implements Closeable {
             regions.add(allocator.allocate(regionSizeBytes));
         }
         occupied.set(nextClear);
+        if (metrics != null) { metrics.pagesAllocated.increment(); }
         return nextClear;
     }
 
@@ -50,9 +68,25 @@ final class PageAllocator implements Closeable {
             throw new IllegalStateException("Page not allocated (double-free?)");
         }
         occupied.clear(page);
+        if (metrics != null) { metrics.pagesFreed.increment(); }
+    }
+
+    /**
+     * @return The total size of the allocated regions
+     */
+    public long reservedBytes() {
+        return (long) regionSizeBytes * regions.size();
+    }
+
+    /**
+     * @return The total size of the pages that are currently allocated
+     */
+    public long usedBytes() {
+        return (long) pageSize * occupied.cardinality();
     }
 
     public void freeAllPages() {
+        if (metrics != null) { metrics.pagesFreed.add(occupied.cardinality()); }
         occupied.clear();
     }
 
@@ -0,0 +1,370 @@
+package at.yawk.numaec;
+
+/**
+ * Open addressing hash table using Robin Hood hashing and backward shift deletion.
+ * <p>
+ * Slots are stored in a single buffer. Each slot starts with a control byte that is {@code 0} for an empty slot and
+ * otherwise one more than the distance of the entry from its home slot, followed by the entry as written by
+ * {@link #write}. Inserts displace entries that are closer to their home slot than the new entry, which keeps probe
+ * sequences short and lets lookups stop early, and removals shift the following entries back by one slot instead of
+ * leaving tombstones. When the load factor is exceeded, or an entry would be too far from its home slot to fit the
+ * control byte, the table is rehashed into a new buffer of twice the size.
+ * <p>
+ * The hash is not stored, it is recomputed from the key when rehashing.
+ */
+abstract class RobinHoodHashTable implements AutoCloseable {
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_DISTANCE = 0xff - 1;
+
+    private final LargeByteBufferAllocator allocator;
+    private final float loadFactor;
+    private final int slotSize;
+
+    private LargeByteBuffer buf;
+    private long capacity = 0;
+    private long mask = -1;
+    private long threshold = 0;
+    private long size = 0;
+
+    RobinHoodHashTable(LargeByteBufferAllocator allocator, OpenHashMapConfig config, int entrySize) {
+        this.allocator = allocator;
+        this.loadFactor = config.loadFactor;
+        this.slotSize = entrySize + 1;
+    }
+
+    protected abstract long hash(long key);
+
+    protected abstract void write(LargeByteBuffer lbb, long address, long key, long value);
+
+    protected abstract long readKey(LargeByteBuffer lbb, long address);
+
+    protected abstract long readValue(LargeByteBuffer lbb, long address);
+
+    private long address(long slot) {
+        return slot * slotSize;
+    }
+
+    private int distance(long slot) {
+        return (buf.getByte(address(slot)) & 0xff) - 1;
+    }
+
+    private void distance(long slot, int distance) {
+        buf.setByte(address(slot), (byte) (distance + 1));
+    }
+
+    private long home(long hash) {
+        return hash & mask;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Make sure the given number of entries fit without a rehash.
+     */
+    public void ensureCapacity(long entryCount) {
+        if (entryCount > threshold) {
+            long newCapacity = Math.max(capacity, MIN_CAPACITY);
+            while (entryCount > (long) (newCapacity * (double) loadFactor)) {
+                newCapacity *= 2;
+            }
+            rehash(newCapacity);
+        }
+    }
+
+    private void rehash(long newCapacity) {
+        LargeByteBuffer old = buf;
+        long oldCapacity = capacity;
+        buf = allocator.allocate(newCapacity * slotSize);
+        capacity = newCapacity;
+        mask = newCapacity - 1;
+        threshold = Math.min((long) (newCapacity * (double) loadFactor), newCapacity - 1);
+        size = 0;
+        for (long slot = 0; slot < newCapacity; slot++) {
+            distance(slot, -1);
+        }
+        if (old != null) {
+            for (long slot = 0; slot < oldCapacity; slot++) {
+                long address = slot * slotSize;
+                if (old.getByte(address) != 0) {
+                    long key = readKey(old, address + 1);
+                    insertNew(hash(key), key, readValue(old, address + 1));
+                }
+            }
+            old.close();
+        }
+    }
+
+    /**
+     * @return The slot of the given key, or {@code -1} if it is absent. The slot is valid until the next modification.
+     */
+    public long find(long hash, long key) {
+        if (size == 0) { return -1; }
+        long slot = home(hash);
+        for (int distance = 0; ; distance++) {
+            int slotDistance = distance(slot);
+            // an entry closer to its home than we are to ours would have been displaced by our key
+            if (slotDistance < distance) { return -1; }
+            if (readKey(buf, address(slot) + 1) == key) { return slot; }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public long valueAt(long slot) {
+        return readValue(buf, address(slot) + 1);
+    }
+
+    public void setValueAt(long slot, long value) {
+        write(buf, address(slot) + 1, readKey(buf, address(slot) + 1), value);
+    }
+
+    public long get(long hash, long key, long ifAbsent) {
+        long slot = find(hash, key);
+        return slot == -1 ? ifAbsent : readValue(buf, address(slot) + 1);
+    }
+
+    public boolean containsKey(long hash, long key) {
+        return find(hash, key) != -1;
+    }
+
+    /**
+     * @return {@code true} iff the key was not present before
+     */
+    public boolean put(long hash, long key, long value) {
+        long slot = find(hash, key);
+        if (slot != -1) {
+            setValueAt(slot, value);
+            return false;
+        }
+        insert(hash, key, value);
+        return true;
+    }
+
+    /**
+     * Insert a key that is known to be absent, e.g. after {@link #find} returned {@code -1}.
+     */
+    public void insert(long hash, long key, long value) {
+        ensureCapacity(size + 1);
+        insertNew(hash, key, value);
+    }
+
+    private void insertNew(long hash, long key, long value) {
+        while (true) {
+            long slot = home(hash);
+            int distance = 0;
+            while (distance <= MAX_DISTANCE) {
+                int slotDistance = distance(slot);
+                if (slotDistance == -1) {
+                    distance(slot, distance);
+                    write(buf, address(slot) + 1, key, value);
+                    size++;
+                    return;
+                }
+                if (slotDistance < distance) {
+                    // take the slot from the richer entry and continue inserting that one
+                    long displacedKey = readKey(buf, address(slot) + 1);
+                    long displacedValue = readValue(buf, address(slot) + 1);
+                    distance(slot, distance);
+                    write(buf, address(slot) + 1, key, value);
+                    key = displacedKey;
+                    value = displacedValue;
+                    distance = slotDistance;
+                }
+                slot = (slot + 1) & mask;
+                distance++;
+            }
+            // probe sequence too long for the control byte, grow and retry with the entry we are holding
+            rehash(capacity * 2);
+            hash = hash(key);
+        }
+    }
+
+    /**
+     * @return {@code true} iff the key was present
+     */
+    public boolean remove(long hash, long key) {
+        long slot = find(hash, key);
+        if (slot == -1) { return false; }
+        removeAt(slot);
+        return true;
+    }
+
+    /**
+     * Remove the entry in the given slot, moving the entries of the following probe sequence back by one slot.
+     */
+    public void removeAt(long slot) {
+        long next = (slot + 1) & mask;
+        int nextDistance;
+        while ((nextDistance = distance(next)) > 0) {
+            buf.copyFrom(buf, address(next) + 1, address(slot) + 1, slotSize - 1);
+            distance(slot, nextDistance - 1);
+            slot = next;
+            next = (next + 1) & mask;
+        }
+        distance(slot, -1);
+        size--;
+    }
+
+    @DoNotMutate
+    void checkInvariants() {
+        long count = 0;
+        for (long slot = 0; slot < capacity; slot++) {
+            int distance = distance(slot);
+            if (distance == -1) { continue; }
+            count++;
+            long key = readKey(buf, address(slot) + 1);
+            if (((slot - home(hash(key))) & mask) != distance) { throw new AssertionError("Wrong distance"); }
+            // entries may only be further from home than their predecessor by one slot
+            if (distance > distance((slot - 1) & mask) + 1) { throw new AssertionError("Gap in probe sequence"); }
+        }
+        if (count != size) { throw new AssertionError(); }
+    }
+
+    public void clear() {
+        for (long slot = 0; slot < capacity; slot++) {
+            distance(slot, -1);
+        }
+        size = 0;
+    }
+
+    public MemoryFootprint memoryFootprint() {
+        return new MemoryFootprint(capacity * slotSize, size * slotSize, size * (slotSize - 1));
+    }
+
+    public Cursor allocateCursor() {
+        Cursor cursor = new Cursor();
+        cursor.init();
+        return cursor;
+    }
+
+    @Override
+    public void close() {
+        if (buf != null) {
+            buf.close();
+            buf = null;
+        }
+    }
+
+    /**
+     * Cursor over the slots of this table. Iteration starts after an empty slot, so that entries moved back by
+     * {@link #removeAndContinue()} never wrap around to a slot the cursor has already passed.
+     */
+    final class Cursor implements MapStoreCursor {
+        private long start;
+        /**
+         * Number of slots after {@link #start} that have been passed, the current slot is the last of those. This is
+         * {@code -1} when positioned before {@link #start}.
+         */
+        private long offset;
+        private long slot;
+        private boolean found;
+
+        void init() {
+            start = -1;
+            offset = 0;
+            slot = -1;
+            found = false;
+        }
+
+        private void findStart() {
+            if (start == -1) {
+                start = 0;
+                while (start < capacity && distance(start) != -1) {
+                    start++;
+                }
+            }
+        }
+
+        private long slotAt(long offset) {
+            return (start + offset) & mask;
+        }
+
+        @Override
+        public boolean next() {
+            findStart();
+            found = false;
+            while (offset < capacity) {
+                slot = slotAt(++offset);
+                if (distance(slot) != -1) {
+                    found = true;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Position this cursor on the given key. If the key is absent, the next call to {@link #next()} moves to the
+         * entry that would follow it in iteration order.
+         */
+        boolean seek(long hash, long key) {
+            if (capacity == 0) {
+                found = false;
+                return false;
+            }
+            findStart();
+            long slot = home(hash);
+            for (int distance = 0; ; distance++) {
+                int slotDistance = distance(slot);
+                if (slotDistance < distance) {
+                    // the key would be inserted here, position just before this slot. This is -1 if the slot is
+                    // start itself, so it must not wrap around to the end of the table.
+                    this.offset = ((slot - start) & mask) - 1;
+                    this.slot = -1;
+                    found = false;
+                    return false;
+                }
+                if (readKey(buf, address(slot) + 1) == key) {
+                    this.offset = (slot - start) & mask;
+                    this.slot = slot;
+                    found = true;
+                    return true;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Position this cursor on the given key for access to its value only, without setting up iteration.
+         */
+        boolean find(long hash, long key) {
+            slot = RobinHoodHashTable.this.find(hash, key);
+            found = slot != -1;
+            return found;
+        }
+
+        @Override
+        public boolean elementFound() {
+            return found;
+        }
+
+        @Override
+        public long getKey() {
+            return readKey(buf, address(slot) + 1);
+        }
+
+        @Override
+        public long getValue() {
+            return readValue(buf, address(slot) + 1);
+        }
+
+        void setValue(long value) {
+            setValueAt(slot, value);
+        }
+
+        /**
+         * Remove the current entry. The next call to {@link #next()} moves to the entry that followed it, which may
+         * have been moved into the current slot.
+         */
+        void removeAndContinue() {
+            removeAt(slot);
+            offset--;
+            found = false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package at.yawk.numaec;
+
+/**
+ * Serializes calls to a {@link LargeByteBufferAllocator} that is not thread-safe, so that it can be shared by
+ * structures that allocate from different threads. Closing a returned buffer may update the state of the delegate as
+ * well, for example the open counts of {@link BumpPointerRegionAllocator} regions, so the returned buffers are wrapped
+ * to close under the same lock. Other accesses to a buffer are not guarded and remain the job of its owner.
+ */
+final class SynchronizedAllocator implements LargeByteBufferAllocator {
+    private final LargeByteBufferAllocator delegate;
+
+    private SynchronizedAllocator(LargeByteBufferAllocator delegate) {
+        this.delegate = delegate;
+    }
+
+    static LargeByteBufferAllocator wrap(LargeByteBufferAllocator delegate) {
+        if (delegate instanceof SynchronizedAllocator) {
+            return delegate;
+        }
+        return new SynchronizedAllocator(delegate);
+    }
+
+    @Override
+    public LargeByteBuffer allocate(long size) {
+        LargeByteBuffer buffer;
+        synchronized (delegate) {
+            buffer = delegate.allocate(size);
+        }
+        return new BufferSlice(buffer, 0, buffer.size()) {
+            @Override
+            public void close() {
+                synchronized (delegate) {
+                    buffer.close();
+                }
+            }
+        };
+    }
+}
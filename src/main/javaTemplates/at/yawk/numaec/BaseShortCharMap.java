@@ -91,6 +91,24 @@ abstract class BaseShortCharMap extends AbstractCharIterable implements ShortCha
         }
     }
 
+    public void getAll(short[] keys, char[] valuesOut, boolean[] found) {
+        checkBatchLength(keys.length, valuesOut.length, found.length);
+        for (int i = 0; i < keys.length; i++) {
+            try (MapStoreCursor cursor = keyCursor(keys[i])) {
+                found[i] = cursor.elementFound();
+                if (found[i]) {
+                    valuesOut[i] = fromValue(cursor.getValue());
+                }
+            }
+        }
+    }
+
+    static void checkBatchLength(int keyCount, int valueCount, int foundCount) {
+        if (valueCount < keyCount || foundCount < keyCount) {
+            throw new IllegalArgumentException("Output arrays are shorter than the key array");
+        }
+    }
+
     @Override
     public char getOrThrow(short key) {
         try (MapStoreCursor cursor = keyCursor(key)) {
@@ -0,0 +1,310 @@
+/* with short|byte|char|int|long|float|double element */
+/* define aggregate //
+// if double|float element //double
+// elif short|byte|char|int|long element //long
+// endif //
+// enddefine*/
+package at.yawk.numaec;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import org.eclipse.collections.api.block.function.primitive.ObjectShortToObjectFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortToObjectFunction;
+import org.eclipse.collections.api.block.predicate.primitive.ShortPredicate;
+import org.eclipse.collections.api.block.procedure.primitive.ShortProcedure;
+import org.eclipse.collections.api.iterator.MutableShortIterator;
+import org.eclipse.collections.api.set.SetIterable;
+import org.eclipse.collections.api.set.primitive.ImmutableShortSet;
+import org.eclipse.collections.api.set.primitive.ShortSet;
+import org.eclipse.collections.impl.primitive.AbstractShortIterable;
+
+abstract class BaseShortSet extends AbstractShortIterable implements ShortBufferSet {
+    static final long KEY_MASK = -1L >>> (64 - (Short.BYTES * 8));
+
+    final LargeByteBufferAllocator allocator;
+
+    BaseShortSet(LargeByteBufferAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    static long toKey(short element) {
+        return /* unwrapRaw element */element & KEY_MASK;
+    }
+
+    @SuppressWarnings("ConstantConditions")
+    static short fromKey(long key) {
+        if (KEY_MASK != -1) { if (key < 0 || key > KEY_MASK) { throw new IllegalArgumentException(); } }
+        /* if float element //
+        return Float.intBitsToFloat((int) key);
+        // elif byte|short|char|int|long|double element */
+        return (short) /* wrap element */key;
+        /* endif */
+    }
+
+    protected abstract MapStoreCursor iterationCursor();
+
+    protected abstract MapStoreCursor keyCursor(short element);
+
+    @DoNotMutate
+    void checkInvariants() {
+        int count = count(x -> true);
+        if (count != size()) { throw new AssertionError(); }
+    }
+
+    /**
+     * Collect all elements matching the given predicate into a new list, so that they can be removed without
+     * disturbing an iteration cursor. The list must be closed by the caller.
+     */
+    MutableShortBufferList collectMatching(ShortPredicate predicate) {
+        MutableShortBufferList matching = MutableShortBufferListFactory.withAllocator(allocator).empty();
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                short element = fromKey(cursor.getKey());
+                if (predicate.accept(element)) {
+                    matching.add(element);
+                }
+            }
+        }
+        return matching;
+    }
+
+    @Override
+    public boolean contains(short value) {
+        try (MapStoreCursor cursor = keyCursor(value)) {
+            return cursor.elementFound();
+        }
+    }
+
+    @Override
+    public MutableShortIterator shortIterator() {
+        return new KeyIterator(iterationCursor());
+    }
+
+    @Override
+    public short[] toArray() {
+        short[] data = new short[size()];
+        try (MapStoreCursor cursor = iterationCursor()) {
+            int i = 0;
+            while (cursor.next()) {
+                if (i >= data.length) { throw new ConcurrentModificationException(); }
+                data[i++] = fromKey(cursor.getKey());
+            }
+            if (i < data.length) { throw new ConcurrentModificationException(); }
+            return data;
+        }
+    }
+
+    @Override
+    public void forEach(ShortProcedure procedure) {
+        each(procedure);
+    }
+
+    @Override
+    public void each(ShortProcedure procedure) {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                procedure.value(fromKey(cursor.getKey()));
+            }
+        }
+    }
+
+    @Override
+    public short detectIfNone(ShortPredicate predicate, short ifNone) {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                short value = fromKey(cursor.getKey());
+                if (predicate.accept(value)) {
+                    return value;
+                }
+            }
+        }
+        return ifNone;
+    }
+
+    @Override
+    public int count(ShortPredicate predicate) {
+        int count = 0;
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                if (predicate.accept(fromKey(cursor.getKey()))) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public boolean anySatisfy(ShortPredicate predicate) {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                if (predicate.accept(fromKey(cursor.getKey()))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean allSatisfy(ShortPredicate predicate) {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                if (!predicate.accept(fromKey(cursor.getKey()))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean noneSatisfy(ShortPredicate predicate) {
+        return !anySatisfy(predicate);
+    }
+
+    @Override
+    public <T> T injectInto(T injectedValue, ObjectShortToObjectFunction<? super T, ? extends T> function) {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                injectedValue = function.valueOf(injectedValue, fromKey(cursor.getKey()));
+            }
+        }
+        return injectedValue;
+    }
+
+    @Override
+    public /*aggregate*/long/**/ sum() {
+        /*aggregate*/long/**/ sum = 0;
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                sum += fromKey(cursor.getKey());
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public short max() {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            if (!cursor.next()) { throw new NoSuchElementException(); }
+            short max = fromKey(cursor.getKey());
+            while (cursor.next()) {
+                max = (short) Math.max(max, fromKey(cursor.getKey()));
+            }
+            return max;
+        }
+    }
+
+    @Override
+    public short min() {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            if (!cursor.next()) { throw new NoSuchElementException(); }
+            short min = fromKey(cursor.getKey());
+            while (cursor.next()) {
+                min = (short) Math.min(min, fromKey(cursor.getKey()));
+            }
+            return min;
+        }
+    }
+
+    @Override
+    public void appendString(Appendable appendable, String start, String separator, String end) {
+        try (MapStoreCursor cursor = iterationCursor()) {
+            appendable.append(start);
+            boolean first = true;
+            while (cursor.next()) {
+                if (first) {
+                    first = false;
+                } else {
+                    appendable.append(separator);
+                }
+                appendable.append(String.valueOf(fromKey(cursor.getKey())));
+            }
+            appendable.append(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ShortSet)) {
+            return false;
+        }
+        ShortSet other = (ShortSet) o;
+        return other.size() == size() && other.containsAll(this);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        try (MapStoreCursor cursor = iterationCursor()) {
+            while (cursor.next()) {
+                hashCode += Short.hashCode(fromKey(cursor.getKey()));
+            }
+        }
+        return hashCode;
+    }
+
+    @Override
+    public ShortSet select(ShortPredicate predicate) {
+        throw new UnsupportedOperationException("ShortBufferSet.select not implemented yet");
+    }
+
+    @Override
+    public ShortSet reject(ShortPredicate predicate) {
+        throw new UnsupportedOperationException("ShortBufferSet.reject not implemented yet");
+    }
+
+    @Override
+    public <V> SetIterable<V> collect(ShortToObjectFunction<? extends V> function) {
+        throw new UnsupportedOperationException("ShortBufferSet.collect not implemented yet");
+    }
+
+    @Override
+    public ShortSet freeze() {
+        throw new UnsupportedOperationException("ShortBufferSet.freeze not implemented yet");
+    }
+
+    @Override
+    public ImmutableShortSet toImmutable() {
+        throw new UnsupportedOperationException("ShortBufferSet.toImmutable not implemented yet");
+    }
+
+    private static class KeyIterator implements MutableShortIterator {
+        /**
+         * this cursor is never closed, but since all {@link MapStoreCursor#close()} does is make it available for
+         * reuse, that's not too bad.
+         */
+        private final MapStoreCursor cursor;
+        private boolean peeked;
+
+        KeyIterator(MapStoreCursor cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public short next() {
+            if (!hasNext()) { throw new NoSuchElementException(); }
+            peeked = false;
+            return fromKey(cursor.getKey());
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (peeked) {
+                return true;
+            } else {
+                return peeked = cursor.next();
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("KeyIterator.remove not implemented yet");
+        }
+    }
+}
@@ -0,0 +1,619 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+package at.yawk.numaec;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.api.bag.primitive.MutableCharBag;
+import org.eclipse.collections.api.block.function.primitive.CharCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction0;
+import org.eclipse.collections.api.block.function.primitive.CharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharToObjectFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortToCharFunction;
+import org.eclipse.collections.api.block.predicate.primitive.CharPredicate;
+import org.eclipse.collections.api.block.predicate.primitive.ShortCharPredicate;
+import org.eclipse.collections.api.iterator.MutableCharIterator;
+import org.eclipse.collections.api.map.primitive.MutableCharShortMap;
+import org.eclipse.collections.api.map.primitive.MutableShortCharMap;
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+/**
+ * Thread-safe {@link ShortCharBTreeMap} that allows concurrent writers.
+ * <p>
+ * Locking happens on two levels. The tree lock is held exclusively for structural changes (leaf splits and merges),
+ * and shared by writers that only touch a single leaf. Such leaf writers additionally lock their leaf through a
+ * version word: even versions are unlocked, odd versions are locked, and every write bumps the version. Writers on
+ * different leaves therefore proceed in parallel, and a writer only takes the tree lock exclusively if it finds its
+ * leaf full (or about to become empty).
+ * <p>
+ * Single-key lookups take no locks at all: they descend optimistically, then search the leaf between two reads of its
+ * version and restart if the version or the tree lock stamp changed. Bulk reads and iterators are weakly consistent:
+ * they copy a batch of entries at a time, excluding writers only for the duration of each batch, and run callbacks
+ * without holding any lock.
+ * <p>
+ * Functions passed to the {@code getIfAbsentPut} and {@code update} methods run while a lock is held and must not
+ * access this map.
+ */
+class ConcurrentShortCharBTreeMap extends ShortCharBTreeMap implements MutableShortCharBufferMap {
+    /**
+     * Number of leaf version words. Leaves are mapped to versions by their page index, so leaves that share a version
+     * also share its lock.
+     */
+    private static final int VERSION_STRIPES = 1024;
+    private static final int OPTIMISTIC_ATTEMPTS = 4;
+    private static final int ITERATION_BATCH = 256;
+
+    private final StampedLock treeLock = new StampedLock();
+    private final AtomicLongArray leafVersions = new AtomicLongArray(VERSION_STRIPES);
+    private final LongAdder count = new LongAdder();
+
+    ConcurrentShortCharBTreeMap(LargeByteBufferAllocator allocator, BTreeConfig config) {
+        super(allocator, config);
+    }
+
+    private static int stripe(long page) {
+        return (int) (page & (VERSION_STRIPES - 1));
+    }
+
+    /**
+     * Spin until the given leaf version is unlocked, then lock it.
+     *
+     * @return The locked (odd) version
+     */
+    private long lockLeaf(int stripe) {
+        while (true) {
+            long version = leafVersions.get(stripe);
+            if ((version & 1) == 0 && leafVersions.compareAndSet(stripe, version, version + 1)) {
+                return version + 1;
+            }
+            Thread.yield();
+        }
+    }
+
+    private void unlockLeaf(int stripe, long lockedVersion) {
+        leafVersions.set(stripe, lockedVersion + 1);
+    }
+
+    @FunctionalInterface
+    private interface Operation {
+        /**
+         * Apply this operation to an entry. The cursor is positioned on the key, and may or may not have found it.
+         *
+         * @return An operation-specific result
+         */
+        long apply(BTree.Cursor cursor);
+    }
+
+    /**
+     * Run a write operation on a single key. If the operation can be completed within its leaf, only that leaf is
+     * locked, otherwise the whole tree is locked and the tree is rebalanced afterwards.
+     */
+    private long write(long key, Operation operation) {
+        long stamp = treeLock.readLock();
+        try (BTree.Cursor cursor = bTree.allocateCursor()) {
+            cursor.descendToKey(key);
+            if (cursor.positionedInLeaf()) {
+                int stripe = stripe(cursor.currentPage());
+                long version = lockLeaf(stripe);
+                try {
+                    // another leaf writer may have changed the leaf before we locked it
+                    cursor.searchLeaf(key);
+                    if (cursor.elementFound() ? cursor.leafCanShrink() : cursor.leafHasRoom()) {
+                        return operation.apply(cursor);
+                    }
+                } finally {
+                    unlockLeaf(stripe, version);
+                }
+            }
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
+
+        stamp = treeLock.writeLock();
+        try (BTree.Cursor cursor = bTree.allocateCursor()) {
+            cursor.descendToKey(key);
+            long result = operation.apply(cursor);
+            cursor.balance();
+            return result;
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Put the given key, assuming the cursor did not find it.
+     */
+    private void insert(BTree.Cursor cursor, long key, long value) {
+        cursor.simpleInsert(key, value);
+        count.increment();
+    }
+
+    private void remove(BTree.Cursor cursor) {
+        cursor.simpleRemove();
+        count.decrement();
+    }
+
+    @Override
+    protected MapStoreCursor keyCursor(short key) {
+        long k = toKey(key);
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; attempt++) {
+            long stamp = treeLock.tryOptimisticRead();
+            if (stamp == 0) {
+                break;
+            }
+            try (BTree.Cursor cursor = bTree.allocateCursor()) {
+                cursor.descendToKey(k);
+                if (!cursor.positionedInLeaf()) {
+                    // either empty or found in a branch, which only changes under the exclusive tree lock
+                    LookupCursor result = LookupCursor.of(cursor);
+                    if (treeLock.validate(stamp)) {
+                        return result;
+                    }
+                    continue;
+                }
+                int stripe = stripe(cursor.currentPage());
+                long version = leafVersions.get(stripe);
+                if ((version & 1) != 0) {
+                    continue;
+                }
+                cursor.searchLeaf(k);
+                LookupCursor result = LookupCursor.of(cursor);
+                // validate also acts as a load fence for the version check below
+                if (treeLock.validate(stamp) && leafVersions.get(stripe) == version) {
+                    return result;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                // a concurrent write left the tree or leaf in an intermediate state. Lookups do not throw on their
+                // own, so just retry; the locked attempt below would surface a genuine failure.
+            }
+        }
+
+        // too much contention, lock the tree and the leaf
+        long stamp = treeLock.readLock();
+        try (BTree.Cursor cursor = bTree.allocateCursor()) {
+            cursor.descendToKey(k);
+            if (!cursor.positionedInLeaf()) {
+                return LookupCursor.of(cursor);
+            }
+            int stripe = stripe(cursor.currentPage());
+            long version = lockLeaf(stripe);
+            try {
+                cursor.searchLeaf(k);
+                return LookupCursor.of(cursor);
+            } finally {
+                unlockLeaf(stripe, version);
+            }
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    protected MapStoreCursor iterationCursor() {
+        return new BatchCursor();
+    }
+
+    @Override
+    public char getIfAbsent(short key, char ifAbsent) {
+        // the cursor-less lookup of the superclass does not validate leaf versions
+        try (MapStoreCursor cursor = keyCursor(key)) {
+            return cursor.elementFound() ? fromValue(cursor.getValue()) : ifAbsent;
+        }
+    }
+
+    @Override
+    public boolean containsKey(short key) {
+        try (MapStoreCursor cursor = keyCursor(key)) {
+            return cursor.elementFound();
+        }
+    }
+
+    @Override
+    public void getAllSorted(short[] keys, char[] valuesOut, boolean[] found) {
+        // the search path can't be reused across keys, since other threads may restructure the tree in between
+        getAll(keys, valuesOut, found);
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.min(count.sum(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        // pages are only allocated and freed under the exclusive tree lock
+        long stamp = treeLock.readLock();
+        try {
+            return super.memoryFootprint();
+        } finally {
+            treeLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public BTreeStatistics bTreeStatistics() {
+        // leaf writers may change item counts, so exclude them as well
+        long stamp = treeLock.writeLock();
+        try {
+            return super.bTreeStatistics();
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void close() {
+        long stamp = treeLock.writeLock();
+        try {
+            super.close();
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void put(short key, char value) {
+        long k = toKey(key);
+        long v = toValue(value);
+        write(k, cursor -> {
+            if (cursor.elementFound()) {
+                cursor.setValue(v);
+            } else {
+                insert(cursor, k, v);
+            }
+            return 0;
+        });
+    }
+
+    @Override
+    public void putAll(ShortCharMap map) {
+        map.forEachKeyValue(this::put);
+    }
+
+    @Override
+    public void updateValues(ShortCharToCharFunction function) {
+        long stamp = treeLock.writeLock();
+        try (BTree.Cursor cursor = bTree.allocateCursor()) {
+            cursor.descendToStart();
+            while (cursor.next()) {
+                char updated = function.valueOf(fromKey(cursor.getKey()), fromValue(cursor.getValue()));
+                cursor.setValue(toValue(updated));
+            }
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void removeKey(short key) {
+        write(toKey(key), cursor -> {
+            if (cursor.elementFound()) {
+                remove(cursor);
+            }
+            return 0;
+        });
+    }
+
+    @Override
+    public void remove(short key) {
+        removeKey(key);
+    }
+
+    @Override
+    public char removeKeyIfAbsent(short key, char value) {
+        return fromValue(write(toKey(key), cursor -> {
+            if (cursor.elementFound()) {
+                long v = cursor.getValue();
+                remove(cursor);
+                return v;
+            } else {
+                return toValue(value);
+            }
+        }));
+    }
+
+    @Override
+    public char getIfAbsentPut(short key, char value) {
+        long k = toKey(key);
+        return fromValue(write(k, cursor -> {
+            if (cursor.elementFound()) {
+                return cursor.getValue();
+            } else {
+                long v = toValue(value);
+                insert(cursor, k, v);
+                return v;
+            }
+        }));
+    }
+
+    @Override
+    public char getIfAbsentPut(short key, CharFunction0 function) {
+        long k = toKey(key);
+        return fromValue(write(k, cursor -> {
+            if (cursor.elementFound()) {
+                return cursor.getValue();
+            } else {
+                long v = toValue(function.value());
+                insert(cursor, k, v);
+                return v;
+            }
+        }));
+    }
+
+    @Override
+    public char getIfAbsentPutWithKey(short key, ShortToCharFunction function) {
+        long k = toKey(key);
+        return fromValue(write(k, cursor -> {
+            if (cursor.elementFound()) {
+                return cursor.getValue();
+            } else {
+                long v = toValue(function.valueOf(key));
+                insert(cursor, k, v);
+                return v;
+            }
+        }));
+    }
+
+    @Override
+    public <P> char getIfAbsentPutWith(short key, CharFunction<? super P> function, P parameter) {
+        long k = toKey(key);
+        return fromValue(write(k, cursor -> {
+            if (cursor.elementFound()) {
+                return cursor.getValue();
+            } else {
+                long v = toValue(function.charValueOf(parameter));
+                insert(cursor, k, v);
+                return v;
+            }
+        }));
+    }
+
+    @Override
+    public char updateValue(short key, char initialValueIfAbsent, CharToCharFunction function) {
+        long k = toKey(key);
+        return fromValue(write(k, cursor -> {
+            if (cursor.elementFound()) {
+                long updated = toValue(function.valueOf(fromValue(cursor.getValue())));
+                cursor.setValue(updated);
+                return updated;
+            } else {
+                long updated = toValue(function.valueOf(initialValueIfAbsent));
+                insert(cursor, k, updated);
+                return updated;
+            }
+        }));
+    }
+
+    @Override
+    public char addToValue(short key, char toBeAdded) {
+        long k = toKey(key);
+        return fromValue(write(k, cursor -> {
+            if (cursor.elementFound()) {
+                long updated = toValue((char) (fromValue(cursor.getValue()) + toBeAdded));
+                cursor.setValue(updated);
+                return updated;
+            } else {
+                long v = toValue(toBeAdded);
+                insert(cursor, k, v);
+                return v;
+            }
+        }));
+    }
+
+    @Override
+    public char merge(short key, char value, CharCharToCharFunction remappingFunction) {
+        long k = toKey(key);
+        return fromValue(write(k, cursor -> {
+            if (cursor.elementFound()) {
+                long merged = toValue(remappingFunction.valueOf(fromValue(cursor.getValue()), value));
+                cursor.setValue(merged);
+                return merged;
+            } else {
+                long v = toValue(value);
+                insert(cursor, k, v);
+                return v;
+            }
+        }));
+    }
+
+    @Override
+    public MutableShortCharMap withKeyValue(short key, char value) {
+        put(key, value);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap withoutKey(short key) {
+        removeKey(key);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap withoutAllKeys(ShortIterable keys) {
+        keys.forEach(this::removeKey);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap asUnmodifiable() {
+        throw new UnsupportedOperationException("ConcurrentShortCharBTreeMap.asUnmodifiable not implemented yet");
+    }
+
+    @Override
+    public ShortCharMapCursor cursor() {
+        throw new UnsupportedOperationException("ConcurrentShortCharBTreeMap.cursor not implemented yet");
+    }
+
+    @Override
+    public MutableShortCharMap asSynchronized() {
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        long stamp = treeLock.writeLock();
+        try {
+            bTree.clear();
+            count.reset();
+        } finally {
+            treeLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public MutableCharShortMap flipUniqueValues() {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.flipUniqueValues not implemented yet");
+    }
+
+    @Override
+    public MutableShortCharMap select(ShortCharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.select not implemented yet");
+    }
+
+    @Override
+    public MutableCharBag select(CharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.select not implemented yet");
+    }
+
+    @Override
+    public MutableShortCharMap reject(ShortCharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.reject not implemented yet");
+    }
+
+    @Override
+    public MutableCharBag reject(CharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.reject not implemented yet");
+    }
+
+    @Override
+    public <V> MutableBag<V> collect(CharToObjectFunction<? extends V> function) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.collect not implemented yet");
+    }
+
+    @Override
+    public MutableCharIterator charIterator() {
+        return super.charIterator();
+    }
+
+    /**
+     * Result of a single-key lookup, detached from the tree so that it stays valid after validation.
+     */
+    private static final class LookupCursor implements MapStoreCursor {
+        private static final LookupCursor NOT_FOUND = new LookupCursor(false, 0, 0);
+
+        private final boolean found;
+        private final long key;
+        private final long value;
+
+        private LookupCursor(boolean found, long key, long value) {
+            this.found = found;
+            this.key = key;
+            this.value = value;
+        }
+
+        static LookupCursor of(BTree.Cursor cursor) {
+            return cursor.elementFound() ?
+                    new LookupCursor(true, cursor.getKey(), cursor.getValue()) :
+                    NOT_FOUND;
+        }
+
+        @Override
+        public long getKey() {
+            return key;
+        }
+
+        @Override
+        public long getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean next() {
+            return false;
+        }
+
+        @Override
+        public boolean elementFound() {
+            return found;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Iterates in key order by copying up to {@link #ITERATION_BATCH} entries at a time under the exclusive tree lock,
+     * continuing after the last copied key.
+     */
+    private final class BatchCursor implements MapStoreCursor {
+        private final long[] keys = new long[ITERATION_BATCH];
+        private final long[] values = new long[ITERATION_BATCH];
+        private int batchSize = 0;
+        private int index = -1;
+        private boolean exhausted = false;
+
+        @Override
+        public long getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public long getValue() {
+            return values[index];
+        }
+
+        @Override
+        public boolean next() {
+            if (++index < batchSize) {
+                return true;
+            }
+            if (exhausted) {
+                index = batchSize;
+                return false;
+            }
+            fetch();
+            index = 0;
+            return batchSize != 0;
+        }
+
+        private void fetch() {
+            boolean first = batchSize == 0;
+            long lastKey = first ? 0 : keys[batchSize - 1];
+            long stamp = treeLock.writeLock();
+            try (BTree.Cursor cursor = bTree.allocateCursor()) {
+                if (first) {
+                    cursor.descendToStart();
+                } else {
+                    cursor.descendToAfterKey(lastKey);
+                }
+                batchSize = 0;
+                while (batchSize < ITERATION_BATCH) {
+                    if (!cursor.next()) {
+                        exhausted = true;
+                        break;
+                    }
+                    keys[batchSize] = cursor.getKey();
+                    values[batchSize] = cursor.getValue();
+                    batchSize++;
+                }
+            } finally {
+                treeLock.unlockWrite(stamp);
+            }
+        }
+
+        @Override
+        public boolean elementFound() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
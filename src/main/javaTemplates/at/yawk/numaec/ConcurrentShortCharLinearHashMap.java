@@ -0,0 +1,587 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+package at.yawk.numaec;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.api.bag.primitive.MutableCharBag;
+import org.eclipse.collections.api.block.function.primitive.CharCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction0;
+import org.eclipse.collections.api.block.function.primitive.CharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharToObjectFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortToCharFunction;
+import org.eclipse.collections.api.block.predicate.primitive.CharPredicate;
+import org.eclipse.collections.api.block.predicate.primitive.ShortCharPredicate;
+import org.eclipse.collections.api.iterator.MutableCharIterator;
+import org.eclipse.collections.api.map.primitive.MutableCharShortMap;
+import org.eclipse.collections.api.map.primitive.MutableShortCharMap;
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+/**
+ * Thread-safe hash map made up of independent {@link ShortCharLinearHashMap} segments. Keys are assigned to segments by
+ * a hash that is independent of the one used inside the segments, and each segment has its own {@link StampedLock} and
+ * pages, so writers (including bucket splits) only exclude each other when they hit the same segment.
+ * <p>
+ * Single-key lookups do not lock: they walk the segment and then validate the segment's lock stamp, only retrying
+ * under the read lock if a write intervened. Bulk reads and iterators are weakly consistent: they copy one segment at
+ * a time under its read lock and run callbacks without holding any lock.
+ * <p>
+ * Functions passed to the {@code getIfAbsentPut} and {@code update} methods run while the segment is write-locked and
+ * must not access this map.
+ */
+class ConcurrentShortCharLinearHashMap extends BaseShortCharMap implements MutableShortCharBufferMap {
+    private final long sipHashK0, sipHashK1;
+    private final int segmentShift;
+    private final Segment[] segments;
+
+    ConcurrentShortCharLinearHashMap(LargeByteBufferAllocator allocator, LinearHashMapConfig config) {
+        LargeByteBufferAllocator sharedAllocator = SynchronizedAllocator.wrap(allocator);
+        this.sipHashK0 = config.sipHashK0.getAsLong();
+        this.sipHashK1 = config.sipHashK1.getAsLong();
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(config.segmentCount);
+        this.segments = new Segment[config.segmentCount];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(new ShortCharLinearHashMap.Mutable(sharedAllocator, config));
+        }
+    }
+
+    private Segment segment(short key) {
+        return segments[segmentIndex(key)];
+    }
+
+    private int segmentIndex(short key) {
+        if (segments.length == 1) {
+            return 0;
+        }
+        return (int) (SipHash.sipHash2_4_8_to_8(sipHashK0, sipHashK1, toKey(key)) >>> segmentShift);
+    }
+
+    void ensureCapacity(int capacity) {
+        int perSegment = capacity / segments.length + 1;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.map.ensureCapacity(perSegment);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    protected MapStoreCursor iterationCursor() {
+        return new SnapshotCursor();
+    }
+
+    @Override
+    protected MapStoreCursor keyCursor(short key) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                LookupCursor cursor = segment.lookup(key);
+                if (segment.lock.validate(stamp)) {
+                    return cursor;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                // a concurrent write may have left the segment in an intermediate state, retry under lock below
+                if (segment.lock.validate(stamp)) { throw e; }
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return segment.lookup(key);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Keys are grouped by segment, so that each segment is locked once and can batch its own lookups.
+     */
+    @Override
+    public void getAll(short[] keys, char[] valuesOut, boolean[] found) {
+        checkBatchLength(keys.length, valuesOut.length, found.length);
+        // counting sort of the batch positions by segment
+        int[] segmentStart = new int[segments.length + 1];
+        int[] segmentIndices = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            segmentIndices[i] = segmentIndex(keys[i]);
+            segmentStart[segmentIndices[i] + 1]++;
+        }
+        for (int i = 0; i < segments.length; i++) {
+            segmentStart[i + 1] += segmentStart[i];
+        }
+        int[] positions = new int[keys.length];
+        int[] fill = Arrays.copyOf(segmentStart, segments.length);
+        for (int i = 0; i < keys.length; i++) {
+            positions[fill[segmentIndices[i]]++] = i;
+        }
+
+        for (int i = 0; i < segments.length; i++) {
+            int start = segmentStart[i];
+            int count = segmentStart[i + 1] - start;
+            if (count == 0) {
+                continue;
+            }
+            short[] segmentKeys = new short[count];
+            for (int j = 0; j < count; j++) {
+                segmentKeys[j] = keys[positions[start + j]];
+            }
+            char[] segmentValues = new char[count];
+            boolean[] segmentFound = new boolean[count];
+            Segment segment = segments[i];
+            long stamp = segment.lock.readLock();
+            try {
+                segment.map.getAll(segmentKeys, segmentValues, segmentFound);
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+            for (int j = 0; j < count; j++) {
+                int position = positions[start + j];
+                found[position] = segmentFound[j];
+                if (segmentFound[j]) {
+                    valuesOut[position] = segmentValues[j];
+                }
+            }
+        }
+    }
+
+    @Override
+    public char getIfAbsent(short key, char ifAbsent) {
+        // same as keyCursor, but without a cursor or lookup result
+        Segment segment = segment(key);
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                char value = segment.map.getIfAbsent(key, ifAbsent);
+                if (segment.lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                if (segment.lock.validate(stamp)) { throw e; }
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return segment.map.getIfAbsent(key, ifAbsent);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(short key) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean found = segment.map.containsKey(key);
+                if (segment.lock.validate(stamp)) {
+                    return found;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                if (segment.lock.validate(stamp)) { throw e; }
+            }
+        }
+        stamp = segment.lock.readLock();
+        try {
+            return segment.map.containsKey(key);
+        } finally {
+            segment.lock.unlockRead(stamp);
+        }
+    }
+
+    @DoNotMutate
+    @Override
+    void checkInvariants() {
+        super.checkInvariants();
+        for (Segment segment : segments) {
+            segment.map.checkInvariants();
+        }
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.tryOptimisticRead();
+            int segmentSize = segment.map.size();
+            if (!segment.lock.validate(stamp)) {
+                stamp = segment.lock.readLock();
+                try {
+                    segmentSize = segment.map.size();
+                } finally {
+                    segment.lock.unlockRead(stamp);
+                }
+            }
+            size += segmentSize;
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        MemoryFootprint footprint = MemoryFootprint.EMPTY;
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                footprint = footprint.plus(segment.map.memoryFootprint());
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return footprint;
+    }
+
+    @Override
+    public void close() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.map.close();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public void put(short key, char value) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            segment.map.put(key, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void putAll(ShortCharMap map) {
+        map.forEachKeyValue(this::put);
+    }
+
+    @Override
+    public void updateValues(ShortCharToCharFunction function) {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.map.updateValues(function);
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public void removeKey(short key) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            segment.map.removeKey(key);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void remove(short key) {
+        removeKey(key);
+    }
+
+    @Override
+    public char removeKeyIfAbsent(short key, char value) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.removeKeyIfAbsent(key, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char getIfAbsentPut(short key, char value) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.getIfAbsentPut(key, value);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char getIfAbsentPut(short key, CharFunction0 function) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.getIfAbsentPut(key, function);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char getIfAbsentPutWithKey(short key, ShortToCharFunction function) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.getIfAbsentPutWithKey(key, function);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public <P> char getIfAbsentPutWith(short key, CharFunction<? super P> function, P parameter) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.getIfAbsentPutWith(key, function, parameter);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char updateValue(short key, char initialValueIfAbsent, CharToCharFunction function) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.updateValue(key, initialValueIfAbsent, function);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char addToValue(short key, char toBeAdded) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.addToValue(key, toBeAdded);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char merge(short key, char value, CharCharToCharFunction remappingFunction) {
+        Segment segment = segment(key);
+        long stamp = segment.lock.writeLock();
+        try {
+            return segment.map.merge(key, value, remappingFunction);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public MutableShortCharMap withKeyValue(short key, char value) {
+        put(key, value);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap withoutKey(short key) {
+        removeKey(key);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap withoutAllKeys(ShortIterable keys) {
+        keys.forEach(this::removeKey);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap asUnmodifiable() {
+        throw new UnsupportedOperationException("ConcurrentShortCharLinearHashMap.asUnmodifiable not implemented yet");
+    }
+
+    @Override
+    public ShortCharMapCursor cursor() {
+        throw new UnsupportedOperationException("ConcurrentShortCharLinearHashMap.cursor not implemented yet");
+    }
+
+    @Override
+    public MutableShortCharMap asSynchronized() {
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : segments) {
+            long stamp = segment.lock.writeLock();
+            try {
+                segment.map.clear();
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public MutableCharShortMap flipUniqueValues() {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.flipUniqueValues not implemented yet");
+    }
+
+    @Override
+    public MutableShortCharMap select(ShortCharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.select not implemented yet");
+    }
+
+    @Override
+    public MutableCharBag select(CharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.select not implemented yet");
+    }
+
+    @Override
+    public MutableShortCharMap reject(ShortCharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.reject not implemented yet");
+    }
+
+    @Override
+    public MutableCharBag reject(CharPredicate predicate) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.reject not implemented yet");
+    }
+
+    @Override
+    public <V> MutableBag<V> collect(CharToObjectFunction<? extends V> function) {
+        throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.collect not implemented yet");
+    }
+
+    @Override
+    public MutableCharIterator charIterator() {
+        return super.charIterator();
+    }
+
+    private static final class Segment {
+        final StampedLock lock = new StampedLock();
+        final ShortCharLinearHashMap.Mutable map;
+
+        Segment(ShortCharLinearHashMap.Mutable map) {
+            this.map = map;
+        }
+
+        LookupCursor lookup(short key) {
+            try (MapStoreCursor cursor = map.keyCursor(key)) {
+                if (cursor.elementFound()) {
+                    return new LookupCursor(true, cursor.getKey(), cursor.getValue());
+                } else {
+                    return new LookupCursor(false, 0, 0);
+                }
+            }
+        }
+    }
+
+    /**
+     * Result of a single-key lookup, detached from the segment so that it stays valid after the lock is released.
+     */
+    private static final class LookupCursor implements MapStoreCursor {
+        private final boolean found;
+        private final long key;
+        private final long value;
+
+        LookupCursor(boolean found, long key, long value) {
+            this.found = found;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public long getKey() {
+            return key;
+        }
+
+        @Override
+        public long getValue() {
+            return value;
+        }
+
+        @Override
+        public boolean next() {
+            return false;
+        }
+
+        @Override
+        public boolean elementFound() {
+            return found;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /**
+     * Iterates over a copy of each segment in turn. The copy is taken under the segment's read lock when the cursor
+     * reaches it.
+     */
+    private final class SnapshotCursor implements MapStoreCursor {
+        private int segmentIndex = -1;
+        private long[] keys = new long[0];
+        private long[] values = new long[0];
+        private int count = 0;
+        private int index = -1;
+
+        @Override
+        public long getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public long getValue() {
+            return values[index];
+        }
+
+        @Override
+        public boolean next() {
+            while (++index >= count) {
+                if (segmentIndex + 1 >= segments.length) {
+                    index = count;
+                    return false;
+                }
+                copySegment(segments[++segmentIndex]);
+            }
+            return true;
+        }
+
+        private void copySegment(Segment segment) {
+            long stamp = segment.lock.readLock();
+            try {
+                int size = segment.map.size();
+                if (keys.length < size) {
+                    keys = new long[size];
+                    values = new long[size];
+                }
+                count = 0;
+                index = -1;
+                try (MapStoreCursor cursor = segment.map.iterationCursor()) {
+                    while (cursor.next()) {
+                        keys[count] = cursor.getKey();
+                        values[count] = cursor.getValue();
+                        count++;
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public boolean elementFound() {
+            return false;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,26 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+/**
+ * Read-only maps for data that is built once and then only queried.
+ * <p>
+ * A frozen map has no buckets, hashes or free space: keys are mapped to the positions of a dense entry array by a
+ * minimal perfect hash function taking about 4 bits per key. Most lookups need one access to the hash function and
+ * one to the entry array.
+ */
+public final class FrozenShortCharBufferMaps {
+    private FrozenShortCharBufferMaps() {
+    }
+
+    /**
+     * Copy the given map into a new read-only map. The source map is not modified and can be closed afterwards.
+     *
+     * @param allocator Allocator for the new map. Construction temporarily needs another 8 bytes per entry.
+     */
+    public static ShortCharBufferMap freeze(LargeByteBufferAllocator allocator, ShortCharMap map) {
+        return ShortCharFrozenMap.freeze(allocator, map);
+    }
+}
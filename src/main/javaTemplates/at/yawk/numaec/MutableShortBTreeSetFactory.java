@@ -0,0 +1,32 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+public final class MutableShortBTreeSetFactory implements MutableShortBufferSetFactory {
+    private final LargeByteBufferAllocator allocator;
+    private final BTreeConfig config;
+
+    private MutableShortBTreeSetFactory(LargeByteBufferAllocator allocator, BTreeConfig config) {
+        this.allocator = allocator;
+        this.config = config;
+    }
+
+    public static MutableShortBufferSetFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return withAllocatorAndConfig(allocator, BTreeConfig.builder().build());
+    }
+
+    public static MutableShortBufferSetFactory withAllocatorAndConfig(
+            LargeByteBufferAllocator allocator, BTreeConfig config
+    ) {
+        return new MutableShortBTreeSetFactory(allocator, config);
+    }
+
+    @Override
+    public MutableShortBufferSet empty() {
+        return new ShortBTreeSet.Mutable(allocator, config);
+    }
+
+    @Override
+    public MutableShortBufferSet ofInitialCapacity(int capacity) {
+        return empty();
+    }
+}
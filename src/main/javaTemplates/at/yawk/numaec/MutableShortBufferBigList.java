@@ -0,0 +1,46 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.iterator.MutableShortIterator;
+
+public interface MutableShortBufferBigList extends ShortBufferBigList {
+    boolean add(short element);
+
+    void addAtIndex(long index, short element) throws IndexOutOfBoundsException;
+
+    boolean addAll(short... source);
+
+    boolean addAll(ShortIterable source);
+
+    /**
+     * Insert {@code length} elements of {@code source}, starting at {@code offset}, at the given index.
+     */
+    void addElements(long index, short[] source, int offset, int length) throws IndexOutOfBoundsException;
+
+    /**
+     * Overwrite {@code length} elements starting at {@code index} with elements of {@code source}, starting at
+     * {@code offset}.
+     */
+    void setElements(long index, short[] source, int offset, int length) throws IndexOutOfBoundsException;
+
+    /**
+     * @return The old value at this index
+     */
+    short set(long index, short element) throws IndexOutOfBoundsException;
+
+    /**
+     * @return The removed value
+     */
+    short removeAtIndex(long index) throws IndexOutOfBoundsException;
+
+    /**
+     * Remove the elements from {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    void removeElements(long from, long to) throws IndexOutOfBoundsException;
+
+    void clear();
+
+    @Override
+    MutableShortIterator shortIterator();
+}
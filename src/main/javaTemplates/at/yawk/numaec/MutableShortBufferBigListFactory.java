@@ -0,0 +1,71 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.iterator.ShortIterator;
+
+public class MutableShortBufferBigListFactory {
+    private final LargeByteBufferAllocator allocator;
+
+    private MutableShortBufferBigListFactory(LargeByteBufferAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public static MutableShortBufferBigListFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return new MutableShortBufferBigListFactory(allocator);
+    }
+
+    public MutableShortBufferBigList empty() {
+        return new ShortBufferBigListImpl.Mutable(allocator);
+    }
+
+    public MutableShortBufferBigList emptyWithInitialCapacity(long initialCapacity) {
+        return new ShortBufferBigListImpl.Mutable(allocator, initialCapacity);
+    }
+
+    /**
+     * Create a list that uses the given buffer as its storage, without copying. The buffer must contain {@code size}
+     * elements back to back, starting at position 0, in the byte order of the buffer (see
+     * {@link ByteBufferBackedLargeByteBuffer#map}). Any remaining buffer space is used as spare capacity.
+     * <p>
+     * The list takes ownership of the buffer: if the list needs to grow, the buffer may be replaced by one from
+     * this factory's allocator and closed.
+     */
+    public MutableShortBufferBigList wrap(LargeByteBuffer buffer, long size) {
+        return new ShortBufferBigListImpl.Mutable(allocator, buffer, size);
+    }
+
+    /**
+     * Create a read-only view of the first {@code size} elements in the given buffer, without copying.
+     *
+     * @see #wrap(LargeByteBuffer, long)
+     */
+    public ShortBufferBigList wrapReadOnly(LargeByteBuffer buffer, long size) {
+        return new ShortBufferBigListImpl(allocator, buffer, size);
+    }
+
+    public MutableShortBufferBigList of() {
+        return empty();
+    }
+
+    public MutableShortBufferBigList of(short... items) {
+        MutableShortBufferBigList list = emptyWithInitialCapacity(items.length);
+        list.addAll(items);
+        return list;
+    }
+
+    public MutableShortBufferBigList ofAll(ShortIterable items) {
+        MutableShortBufferBigList list = emptyWithInitialCapacity(items.size());
+        list.addAll(items);
+        return list;
+    }
+
+    public MutableShortBufferBigList ofAll(ShortBufferBigList items) {
+        MutableShortBufferBigList list = emptyWithInitialCapacity(items.size64());
+        ShortIterator iterator = items.shortIterator();
+        while (iterator.hasNext()) {
+            list.add(iterator.next());
+        }
+        return list;
+    }
+}
@@ -28,6 +28,27 @@ public class MutableShortBufferListFactory implements MutableShortListFactory {
         return new ShortBufferListImpl.Mutable(allocator, initialCapacity);
     }
 
+    /**
+     * Create a list that uses the given buffer as its storage, without copying. The buffer must contain {@code size}
+     * elements back to back, starting at position 0, in the byte order of the buffer (see
+     * {@link ByteBufferBackedLargeByteBuffer#map}). Any remaining buffer space is used as spare capacity.
+     * <p>
+     * The list takes ownership of the buffer: if the list needs to grow, the buffer may be replaced by one from
+     * this factory's allocator and closed.
+     */
+    public MutableShortBufferList wrap(LargeByteBuffer buffer, int size) {
+        return new ShortBufferListImpl.Mutable(allocator, buffer, size);
+    }
+
+    /**
+     * Create a read-only view of the first {@code size} elements in the given buffer, without copying.
+     *
+     * @see #wrap(LargeByteBuffer, int)
+     */
+    public ShortBufferList wrapReadOnly(LargeByteBuffer buffer, int size) {
+        return new ShortBufferListImpl(allocator, buffer, size);
+    }
+
     @Override
     public MutableShortBufferList of() {
         return empty();
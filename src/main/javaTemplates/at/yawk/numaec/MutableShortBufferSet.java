@@ -0,0 +1,7 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.set.primitive.MutableShortSet;
+
+public interface MutableShortBufferSet extends MutableShortSet, ShortBufferSet {
+}
@@ -0,0 +1,81 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.factory.set.primitive.MutableShortSetFactory;
+
+/* if int|long|double element //
+import java.util.stream.ShortStream;
+// endif */
+
+public interface MutableShortBufferSetFactory extends MutableShortSetFactory {
+    @Override
+    MutableShortBufferSet empty();
+
+    /**
+     * @param capacity The expected number of elements. This is only a hint and may be ignored.
+     */
+    MutableShortBufferSet ofInitialCapacity(int capacity);
+
+    @Override
+    default MutableShortBufferSet of() {
+        return empty();
+    }
+
+    @Override
+    default MutableShortBufferSet with() {
+        return empty();
+    }
+
+    @Override
+    default MutableShortBufferSet of(short... items) {
+        MutableShortBufferSet set = ofInitialCapacity(items.length);
+        set.addAll(items);
+        return set;
+    }
+
+    @Override
+    default MutableShortBufferSet with(short... items) {
+        return of(items);
+    }
+
+    @Override
+    default MutableShortBufferSet ofAll(ShortIterable items) {
+        MutableShortBufferSet set = ofInitialCapacity(items.size());
+        set.addAll(items);
+        return set;
+    }
+
+    @Override
+    default MutableShortBufferSet withAll(ShortIterable items) {
+        return ofAll(items);
+    }
+
+    @Override
+    default MutableShortBufferSet ofAll(Iterable<Short> iterable) {
+        MutableShortBufferSet set = empty();
+        for (Short element : iterable) {
+            set.add(element);
+        }
+        return set;
+    }
+
+    @Override
+    default MutableShortBufferSet withAll(Iterable<Short> iterable) {
+        return ofAll(iterable);
+    }
+
+    /* if int|long|double element //
+    @Override
+    default MutableShortBufferSet ofAll(ShortStream stream) {
+        MutableShortBufferSet set = empty();
+        stream.forEach(set::add);
+        return set;
+    }
+
+    @Override
+    default MutableShortBufferSet withAll(ShortStream stream) {
+        return ofAll(stream);
+    }
+    // endif */
+}
@@ -2,7 +2,21 @@
         char|byte|short|int|long|float|double value */
 package at.yawk.numaec;
 
+import org.eclipse.collections.api.block.function.primitive.CharCharToCharFunction;
 import org.eclipse.collections.api.map.primitive.MutableShortCharMap;
 
 public interface MutableShortCharBufferMap extends MutableShortCharMap, ShortCharBufferMap {
+    /**
+     * If the key is absent, associate it with the given value. Otherwise, replace its value with the result of
+     * {@code remappingFunction.valueOf(oldValue, value)}. The key is only looked up once, which makes this cheaper
+     * than separate calls to {@link #containsKey} and {@link #put}.
+     *
+     * @return The new value associated with the key
+     */
+    char merge(short key, char value, CharCharToCharFunction remappingFunction);
+
+    /**
+     * Open a cursor over the entries of this map, positioned before the first entry.
+     */
+    ShortCharMapCursor cursor();
 }
@@ -0,0 +1,45 @@
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+/**
+ * Factory for thread-safe sorted maps that allow concurrent writers on different leaves.
+ */
+public final class MutableShortCharConcurrentBTreeMapFactory implements MutableShortCharBufferMapFactory {
+    private final LargeByteBufferAllocator allocator;
+    private final BTreeConfig config;
+
+    private MutableShortCharConcurrentBTreeMapFactory(
+            LargeByteBufferAllocator allocator, BTreeConfig config
+    ) {
+        this.allocator = allocator;
+        this.config = config;
+    }
+
+    public static MutableShortCharBufferMapFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return withAllocatorAndConfig(allocator, BTreeConfig.builder().build());
+    }
+
+    public static MutableShortCharBufferMapFactory withAllocatorAndConfig(
+            LargeByteBufferAllocator allocator, BTreeConfig config
+    ) {
+        return new MutableShortCharConcurrentBTreeMapFactory(allocator, config);
+    }
+
+    @Override
+    public MutableShortCharBufferMap empty() {
+        return new ConcurrentShortCharBTreeMap(allocator, config);
+    }
+
+    @Override
+    public MutableShortCharBufferMap ofInitialCapacity(int capacity) {
+        return empty();
+    }
+
+    @Override
+    public MutableShortCharBufferMap ofAll(ShortCharMap map) {
+        MutableShortCharBufferMap n = ofInitialCapacity(map.size());
+        n.putAll(map);
+        return n;
+    }
+}
@@ -0,0 +1,49 @@
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.factory.map.primitive.MutableShortCharMapFactory;
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+/**
+ * Factory for thread-safe hash maps that allow concurrent writers.
+ * See {@link LinearHashMapConfig.Builder#segmentCount}.
+ */
+public final class MutableShortCharConcurrentLinearHashMapFactory implements MutableShortCharBufferMapFactory {
+    private final LargeByteBufferAllocator allocator;
+    private final LinearHashMapConfig config;
+
+    private MutableShortCharConcurrentLinearHashMapFactory(
+            LargeByteBufferAllocator allocator, LinearHashMapConfig config
+    ) {
+        this.allocator = allocator;
+        this.config = config;
+    }
+
+    public static MutableShortCharMapFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return withAllocatorAndConfig(allocator, LinearHashMapConfig.builder().build());
+    }
+
+    public static MutableShortCharMapFactory withAllocatorAndConfig(
+            LargeByteBufferAllocator allocator, LinearHashMapConfig config
+    ) {
+        return new MutableShortCharConcurrentLinearHashMapFactory(allocator, config);
+    }
+
+    @Override
+    public MutableShortCharBufferMap empty() {
+        return new ConcurrentShortCharLinearHashMap(allocator, config);
+    }
+
+    @Override
+    public MutableShortCharBufferMap ofInitialCapacity(int capacity) {
+        ConcurrentShortCharLinearHashMap map = new ConcurrentShortCharLinearHashMap(allocator, config);
+        map.ensureCapacity(capacity);
+        return map;
+    }
+
+    @Override
+    public MutableShortCharBufferMap ofAll(ShortCharMap map) {
+        MutableShortCharBufferMap n = ofInitialCapacity(map.size());
+        n.putAll(map);
+        return n;
+    }
+}
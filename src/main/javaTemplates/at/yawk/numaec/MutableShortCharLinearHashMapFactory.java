@@ -22,6 +22,23 @@ public final class MutableShortCharLinearHashMapFactory implements MutableShortC
         return new MutableShortCharLinearHashMapFactory(allocator, config);
     }
 
+    /**
+     * Build a map from a known number of unsorted entries. For large maps this is much faster than putting the entries
+     * one by one, since the entries are sorted into bucket order first and buckets are never split.
+     *
+     * @param scratchAllocator Allocator for the temporary sort buffer, which needs room for {@code entryCount}
+     *                         entries. This can be a cheaper, e.g. file-backed, allocator than the one of the map.
+     * @param entryCount       Maximum number of entries that will be put into the loader
+     */
+    public static ShortCharBulkLoader bulkLoader(
+            LargeByteBufferAllocator allocator,
+            LinearHashMapConfig config,
+            LargeByteBufferAllocator scratchAllocator,
+            long entryCount
+    ) {
+        return new ShortCharLinearHashMap.BulkLoader(allocator, config, scratchAllocator, entryCount);
+    }
+
     @Override
     public MutableShortCharBufferMap empty() {
         return new ShortCharLinearHashMap.Mutable(allocator, config);
@@ -0,0 +1,43 @@
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.factory.map.primitive.MutableShortCharMapFactory;
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+public final class MutableShortCharOpenHashMapFactory implements MutableShortCharBufferMapFactory {
+    private final LargeByteBufferAllocator allocator;
+    private final OpenHashMapConfig config;
+
+    private MutableShortCharOpenHashMapFactory(LargeByteBufferAllocator allocator, OpenHashMapConfig config) {
+        this.allocator = allocator;
+        this.config = config;
+    }
+
+    public static MutableShortCharMapFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return withAllocatorAndConfig(allocator, OpenHashMapConfig.builder().build());
+    }
+
+    public static MutableShortCharMapFactory withAllocatorAndConfig(
+            LargeByteBufferAllocator allocator, OpenHashMapConfig config
+    ) {
+        return new MutableShortCharOpenHashMapFactory(allocator, config);
+    }
+
+    @Override
+    public MutableShortCharBufferMap empty() {
+        return new ShortCharOpenHashMap.Mutable(allocator, config);
+    }
+
+    @Override
+    public MutableShortCharBufferMap ofInitialCapacity(int capacity) {
+        ShortCharOpenHashMap.Mutable map = new ShortCharOpenHashMap.Mutable(allocator, config);
+        map.ensureCapacity(capacity);
+        return map;
+    }
+
+    @Override
+    public MutableShortCharBufferMap ofAll(ShortCharMap map) {
+        MutableShortCharBufferMap n = ofInitialCapacity(map.size());
+        n.putAll(map);
+        return n;
+    }
+}
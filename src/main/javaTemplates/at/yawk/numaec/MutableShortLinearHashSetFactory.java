@@ -0,0 +1,34 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+public final class MutableShortLinearHashSetFactory implements MutableShortBufferSetFactory {
+    private final LargeByteBufferAllocator allocator;
+    private final LinearHashMapConfig config;
+
+    private MutableShortLinearHashSetFactory(LargeByteBufferAllocator allocator, LinearHashMapConfig config) {
+        this.allocator = allocator;
+        this.config = config;
+    }
+
+    public static MutableShortBufferSetFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return withAllocatorAndConfig(allocator, LinearHashMapConfig.builder().build());
+    }
+
+    public static MutableShortBufferSetFactory withAllocatorAndConfig(
+            LargeByteBufferAllocator allocator, LinearHashMapConfig config
+    ) {
+        return new MutableShortLinearHashSetFactory(allocator, config);
+    }
+
+    @Override
+    public MutableShortBufferSet empty() {
+        return new ShortLinearHashSet.Mutable(allocator, config);
+    }
+
+    @Override
+    public MutableShortBufferSet ofInitialCapacity(int capacity) {
+        ShortLinearHashSet.Mutable set = new ShortLinearHashSet.Mutable(allocator, config);
+        set.ensureCapacity(capacity);
+        return set;
+    }
+}
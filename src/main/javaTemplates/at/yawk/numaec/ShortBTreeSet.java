@@ -0,0 +1,240 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.block.function.primitive.ShortToObjectFunction;
+import org.eclipse.collections.api.block.predicate.primitive.ShortPredicate;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.api.set.primitive.MutableShortSet;
+import org.eclipse.collections.impl.set.mutable.primitive.ShortHashSet;
+
+/**
+ * A set stored in a {@link BTree}. Entries only consist of the key, there is no value column.
+ */
+public class ShortBTreeSet extends BaseShortSet implements ShortBufferSet, BTreeStatistics.Source {
+    protected final BTree bTree;
+    protected int size = 0;
+
+    ShortBTreeSet(LargeByteBufferAllocator allocator, BTreeConfig config) {
+        super(allocator);
+        this.bTree = new BTree(allocator, config, Short.BYTES, Short.BYTES) {
+            @Override
+            protected void writeBranchEntry(LargeByteBuffer lbb, long address, long key, long value) {
+                lbb.setShort(address, fromKey(key));
+            }
+
+            @Override
+            protected void writeLeafEntry(LargeByteBuffer lbb, long address, long key, long value) {
+                lbb.setShort(address, fromKey(key));
+            }
+
+            @Override
+            protected long readBranchKey(LargeByteBuffer lbb, long address) {
+                return toKey(lbb.getShort(address));
+            }
+
+            @Override
+            protected long readBranchValue(LargeByteBuffer lbb, long address) {
+                return 0;
+            }
+
+            @Override
+            protected long readLeafKey(LargeByteBuffer lbb, long address) {
+                return toKey(lbb.getShort(address));
+            }
+
+            @Override
+            protected long readLeafValue(LargeByteBuffer lbb, long address) {
+                return 0;
+            }
+        };
+    }
+
+    @Override
+    protected MapStoreCursor iterationCursor() {
+        BTree.Cursor cursor = bTree.allocateCursor();
+        cursor.descendToStart();
+        return cursor;
+    }
+
+    @Override
+    protected MapStoreCursor keyCursor(short element) {
+        BTree.Cursor cursor = bTree.allocateCursor();
+        cursor.descendToKey(toKey(element));
+        return cursor;
+    }
+
+    @Override
+    public boolean contains(short value) {
+        return bTree.containsKey(toKey(value));
+    }
+
+    @DoNotMutate
+    @Override
+    void checkInvariants() {
+        super.checkInvariants();
+        bTree.checkInvariants();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return bTree.memoryFootprint((long) size() * Short.BYTES);
+    }
+
+    @Override
+    public BTreeStatistics bTreeStatistics() {
+        return bTree.statistics();
+    }
+
+    @Override
+    public void close() {
+        bTree.close();
+    }
+
+    public static class Mutable extends ShortBTreeSet implements MutableShortBufferSet {
+        Mutable(LargeByteBufferAllocator allocator, BTreeConfig config) {
+            super(allocator, config);
+        }
+
+        @Override
+        public boolean add(short element) {
+            long k = toKey(element);
+            try (BTree.Cursor cursor = bTree.allocateCursor()) {
+                cursor.descendToKey(k);
+                if (cursor.elementFound()) {
+                    return false;
+                } else {
+                    cursor.simpleInsert(k, 0);
+                    cursor.balance();
+                    size++;
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public boolean addAll(short... source) {
+            boolean changed = false;
+            for (short element : source) {
+                changed |= add(element);
+            }
+            return changed;
+        }
+
+        @Override
+        public boolean addAll(ShortIterable source) {
+            boolean[] changed = { false };
+            source.forEach(element -> changed[0] |= add(element));
+            return changed[0];
+        }
+
+        @Override
+        public boolean remove(short element) {
+            try (BTree.Cursor cursor = bTree.allocateCursor()) {
+                cursor.descendToKey(toKey(element));
+                if (cursor.elementFound()) {
+                    cursor.simpleRemove();
+                    cursor.balance();
+                    size--;
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public boolean removeAll(ShortIterable source) {
+            boolean[] changed = { false };
+            source.forEach(element -> changed[0] |= remove(element));
+            return changed[0];
+        }
+
+        @Override
+        public boolean removeAll(short... source) {
+            boolean changed = false;
+            for (short element : source) {
+                changed |= remove(element);
+            }
+            return changed;
+        }
+
+        @Override
+        public boolean removeIf(ShortPredicate predicate) {
+            try (MutableShortBufferList matching = collectMatching(predicate)) {
+                matching.forEach(this::remove);
+                return matching.notEmpty();
+            }
+        }
+
+        @Override
+        public boolean retainAll(ShortIterable elements) {
+            return removeIf(element -> !elements.contains(element));
+        }
+
+        @Override
+        public boolean retainAll(short... source) {
+            return retainAll(ShortHashSet.newSetWith(source));
+        }
+
+        @Override
+        public void clear() {
+            bTree.clear();
+            size = 0;
+        }
+
+        @Override
+        public MutableShortSet with(short element) {
+            add(element);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet without(short element) {
+            remove(element);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet withAll(ShortIterable elements) {
+            addAll(elements);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet withoutAll(ShortIterable elements) {
+            removeAll(elements);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet asUnmodifiable() {
+            throw new UnsupportedOperationException("Mutable.asUnmodifiable not implemented yet");
+        }
+
+        @Override
+        public MutableShortSet asSynchronized() {
+            throw new UnsupportedOperationException("Mutable.asSynchronized not implemented yet");
+        }
+
+        @Override
+        public MutableShortSet select(ShortPredicate predicate) {
+            throw new UnsupportedOperationException("ShortBufferSet.Mutable.select not implemented yet");
+        }
+
+        @Override
+        public MutableShortSet reject(ShortPredicate predicate) {
+            throw new UnsupportedOperationException("ShortBufferSet.Mutable.reject not implemented yet");
+        }
+
+        @Override
+        public <V> MutableSet<V> collect(ShortToObjectFunction<? extends V> function) {
+            throw new UnsupportedOperationException("ShortBufferSet.Mutable.collect not implemented yet");
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.block.procedure.primitive.ShortProcedure;
+import org.eclipse.collections.api.iterator.ShortIterator;
+
+/**
+ * A list that is stored in a {@link LargeByteBuffer} and indexed by {@code long}, so it is not limited to
+ * {@link Integer#MAX_VALUE} elements like {@link ShortBufferList} is.
+ */
+public interface ShortBufferBigList extends BufferBasedCollection {
+    long size64();
+
+    default boolean isEmpty() {
+        return size64() == 0;
+    }
+
+    short getShort(long index) throws IndexOutOfBoundsException;
+
+    /**
+     * Copy {@code length} elements starting at {@code from} into {@code destination}, starting at {@code offset}.
+     */
+    void getElements(long from, short[] destination, int offset, int length) throws IndexOutOfBoundsException;
+
+    boolean contains(short value);
+
+    long indexOf(short value);
+
+    long lastIndexOf(short value);
+
+    /**
+     * @return The binary search result as returned by {@link java.util.Arrays#binarySearch}, but long-indexed.
+     */
+    long binarySearch(short value);
+
+    void forEach(ShortProcedure procedure);
+
+    ShortIterator shortIterator();
+}
@@ -0,0 +1,333 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import java.util.ConcurrentModificationException;
+import java.util.NoSuchElementException;
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.block.procedure.primitive.ShortProcedure;
+import org.eclipse.collections.api.iterator.MutableShortIterator;
+import org.eclipse.collections.api.iterator.ShortIterator;
+
+class ShortBufferBigListImpl implements ShortBufferBigList {
+    private static final long INITIAL_CAPACITY = 16;
+
+    final LargeByteBufferAllocator allocator;
+    LargeByteBuffer buffer;
+    long size;
+    /**
+     * Whether {@link #buffer} was supplied by the caller instead of {@link #allocator}. Such a buffer may use a
+     * different byte order or layout, so it must not be bulk-copied to or from allocator buffers.
+     */
+    boolean wrapped;
+
+    ShortBufferBigListImpl(LargeByteBufferAllocator allocator) {
+        this.allocator = allocator;
+        buffer = LargeByteBuffer.EMPTY;
+    }
+
+    ShortBufferBigListImpl(LargeByteBufferAllocator allocator, long initialCapacity) {
+        this.allocator = allocator;
+        buffer = allocator.allocate(scale(initialCapacity));
+    }
+
+    /**
+     * Use an existing buffer that already contains {@code size} elements.
+     */
+    ShortBufferBigListImpl(LargeByteBufferAllocator allocator, LargeByteBuffer buffer, long size) {
+        if (size < 0 || scale(size) > buffer.size()) {
+            throw new IllegalArgumentException("Buffer too small for " + size + " elements");
+        }
+        this.allocator = allocator;
+        this.buffer = buffer;
+        this.size = size;
+        this.wrapped = true;
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return new MemoryFootprint(buffer.size(), scale(size), scale(size));
+    }
+
+    @Override
+    public void close() {
+        buffer.close();
+        buffer = null;
+    }
+
+    protected static long scale(long index) {
+        return Math.multiplyExact(index, (long) Short.BYTES);
+    }
+
+    void checkRange(long from, long length) {
+        if (from < 0 || length < 0 || from > size - length) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    @Override
+    public long size64() {
+        return size;
+    }
+
+    @Override
+    public short getShort(long index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        } else {
+            return buffer.getShort(scale(index));
+        }
+    }
+
+    @Override
+    public void getElements(long from, short[] destination, int offset, int length) {
+        checkRange(from, length);
+        if (offset < 0 || offset > destination.length - length) { throw new IndexOutOfBoundsException(); }
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = buffer.getShort(scale(from + i));
+        }
+    }
+
+    @Override
+    public boolean contains(short value) {
+        return indexOf(value) != -1;
+    }
+
+    @Override
+    public long indexOf(short value) {
+        for (long i = 0; i < size; i++) {
+            if (buffer.getShort(scale(i)) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long lastIndexOf(short value) {
+        for (long i = size - 1; i >= 0; i--) {
+            if (buffer.getShort(scale(i)) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public long binarySearch(short value) {
+        long low = 0;
+        long high = size - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            short pivot = buffer.getShort(scale(mid));
+            if (pivot < value) {
+                low = mid + 1;
+            } else if (pivot > value) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return ~low;
+    }
+
+    @Override
+    public void forEach(ShortProcedure procedure) {
+        for (long i = 0; i < size; i++) {
+            procedure.value(buffer.getShort(scale(i)));
+        }
+    }
+
+    @Override
+    public ShortIterator shortIterator() {
+        return new Itr();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (long i = 0; i < size; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+            builder.append(buffer.getShort(scale(i)));
+        }
+        return builder.append(']').toString();
+    }
+
+    class Itr implements ShortIterator {
+        long i;
+
+        @Override
+        public short next() {
+            if (!hasNext()) { throw new NoSuchElementException(); }
+            return getShort(i++);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return i < size;
+        }
+    }
+
+    public static class Mutable extends ShortBufferBigListImpl implements MutableShortBufferBigList {
+        Mutable(LargeByteBufferAllocator allocator) {
+            super(allocator);
+        }
+
+        Mutable(LargeByteBufferAllocator allocator, long initialCapacity) {
+            super(allocator, initialCapacity);
+        }
+
+        Mutable(LargeByteBufferAllocator allocator, LargeByteBuffer buffer, long size) {
+            super(allocator, buffer, size);
+        }
+
+        private void ensureCapacity(long capacity) {
+            long requiredCapacity = scale(capacity);
+            long currentCapacity = buffer.size();
+            if (requiredCapacity > currentCapacity) {
+                long newCapacity = currentCapacity == 0 ? scale(INITIAL_CAPACITY) : currentCapacity;
+                while (requiredCapacity > newCapacity) {
+                    newCapacity += newCapacity >> 1; // *= 1.5
+                }
+                LargeByteBuffer reallocated = buffer.reallocate(newCapacity);
+                if (reallocated != null) {
+                    this.buffer = reallocated;
+                } else {
+                    @SuppressWarnings("resource")
+                    LargeByteBuffer swap = allocator.allocate(newCapacity);
+                    try {
+                        if (wrapped) {
+                            for (long i = 0; i < size; i++) {
+                                swap.setShort(scale(i), buffer.getShort(scale(i)));
+                            }
+                            wrapped = false;
+                        } else {
+                            swap.copyFrom(buffer, 0, 0, scale(size));
+                        }
+
+                        LargeByteBuffer tmp = swap;
+                        swap = this.buffer; // old buffer will be closed
+                        this.buffer = tmp;
+                    } finally {
+                        swap.close();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Make room for {@code count} elements at {@code index}. The new elements are not initialized.
+         */
+        private void openGap(long index, long count) {
+            if (index < 0 || index > size) { throw new IndexOutOfBoundsException(); }
+            ensureCapacity(size + count);
+            buffer.copyFrom(buffer, scale(index), scale(index + count), scale(size - index));
+            size += count;
+        }
+
+        @Override
+        public boolean add(short element) {
+            ensureCapacity(size + 1);
+            buffer.setShort(scale(size), element);
+            size++;
+            return true;
+        }
+
+        @Override
+        public void addAtIndex(long index, short element) {
+            openGap(index, 1);
+            buffer.setShort(scale(index), element);
+        }
+
+        @Override
+        public boolean addAll(short... source) {
+            addElements(size, source, 0, source.length);
+            return source.length > 0;
+        }
+
+        @Override
+        public boolean addAll(ShortIterable source) {
+            int expectedSize = source.size();
+            ensureCapacity(size + expectedSize);
+            ShortIterator itr = source.shortIterator();
+            long i = 0;
+            while (itr.hasNext()) {
+                if (i >= expectedSize) {
+                    throw new ConcurrentModificationException();
+                }
+                buffer.setShort(scale(size + i), itr.next());
+                i++;
+            }
+            size += i;
+            return i > 0;
+        }
+
+        @Override
+        public void addElements(long index, short[] source, int offset, int length) {
+            if (offset < 0 || length < 0 || offset > source.length - length) { throw new IndexOutOfBoundsException(); }
+            openGap(index, length);
+            for (int i = 0; i < length; i++) {
+                buffer.setShort(scale(index + i), source[offset + i]);
+            }
+        }
+
+        @Override
+        public void setElements(long index, short[] source, int offset, int length) {
+            checkRange(index, length);
+            if (offset < 0 || offset > source.length - length) { throw new IndexOutOfBoundsException(); }
+            for (int i = 0; i < length; i++) {
+                buffer.setShort(scale(index + i), source[offset + i]);
+            }
+        }
+
+        @Override
+        public short set(long index, short element) {
+            short old = getShort(index);
+            buffer.setShort(scale(index), element);
+            return old;
+        }
+
+        @Override
+        public short removeAtIndex(long index) {
+            short value = getShort(index);
+            removeElements(index, index + 1);
+            return value;
+        }
+
+        @Override
+        public void removeElements(long from, long to) {
+            checkRange(from, to - from);
+            buffer.copyFrom(buffer, scale(to), scale(from), scale(size - to));
+            size -= to - from;
+        }
+
+        @Override
+        public void clear() {
+            size = 0;
+        }
+
+        @Override
+        public MutableShortIterator shortIterator() {
+            return new Itr();
+        }
+
+        class Itr extends ShortBufferBigListImpl.Itr implements MutableShortIterator {
+            long removalIndex = -1;
+
+            @Override
+            public short next() {
+                removalIndex = i;
+                return super.next();
+            }
+
+            @Override
+            public void remove() {
+                if (removalIndex == -1) { throw new IllegalStateException(); }
+                removeAtIndex(removalIndex);
+                i--;
+                removalIndex = -1;
+            }
+        }
+    }
+}
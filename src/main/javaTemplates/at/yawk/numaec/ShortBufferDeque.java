@@ -0,0 +1,91 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import java.util.NoSuchElementException;
+import org.eclipse.collections.api.block.procedure.primitive.ShortProcedure;
+import org.eclipse.collections.api.iterator.ShortIterator;
+
+/**
+ * A double-ended queue stored in a {@link LargeByteBuffer} as a ring buffer. Adding and removing at either end is
+ * O(1). The deque may be bounded, in which case the {@code offer} methods reject elements when it is full.
+ */
+public interface ShortBufferDeque extends BufferBasedCollection {
+    long size64();
+
+    default boolean isEmpty() {
+        return size64() == 0;
+    }
+
+    /**
+     * @return The maximum number of elements this deque can hold.
+     */
+    long maxCapacity();
+
+    /**
+     * @throws IllegalStateException if this deque is full
+     */
+    void addFirst(short element) throws IllegalStateException;
+
+    /**
+     * @throws IllegalStateException if this deque is full
+     */
+    void addLast(short element) throws IllegalStateException;
+
+    /**
+     * @return {@code false} if this deque is full
+     */
+    boolean offerFirst(short element);
+
+    /**
+     * @return {@code false} if this deque is full
+     */
+    boolean offerLast(short element);
+
+    short removeFirst() throws NoSuchElementException;
+
+    short removeLast() throws NoSuchElementException;
+
+    /**
+     * @return The removed first element, or {@code ifEmpty} if this deque is empty
+     */
+    short pollFirst(short ifEmpty);
+
+    /**
+     * @return The removed last element, or {@code ifEmpty} if this deque is empty
+     */
+    short pollLast(short ifEmpty);
+
+    short getFirst() throws NoSuchElementException;
+
+    short getLast() throws NoSuchElementException;
+
+    /**
+     * @return The first element, or {@code ifEmpty} if this deque is empty
+     */
+    short peekFirst(short ifEmpty);
+
+    /**
+     * @return The last element, or {@code ifEmpty} if this deque is empty
+     */
+    short peekLast(short ifEmpty);
+
+    /**
+     * Remove up to {@code length} elements from the front of this deque and write them to {@code destination},
+     * starting at {@code offset}.
+     *
+     * @return The number of elements that were removed
+     */
+    int drainTo(short[] destination, int offset, int length) throws IndexOutOfBoundsException;
+
+    void clear();
+
+    /**
+     * Iterate from first to last element.
+     */
+    void forEach(ShortProcedure procedure);
+
+    /**
+     * @return An iterator from first to last element.
+     */
+    ShortIterator shortIterator();
+}
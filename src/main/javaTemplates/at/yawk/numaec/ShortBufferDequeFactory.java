@@ -0,0 +1,39 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+public class ShortBufferDequeFactory {
+    private final LargeByteBufferAllocator allocator;
+
+    private ShortBufferDequeFactory(LargeByteBufferAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public static ShortBufferDequeFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return new ShortBufferDequeFactory(allocator);
+    }
+
+    public ShortBufferDeque empty() {
+        return new ShortBufferDequeImpl(allocator, 0, ShortBufferDequeImpl.MAX_CAPACITY);
+    }
+
+    public ShortBufferDeque emptyWithInitialCapacity(long initialCapacity) {
+        return new ShortBufferDequeImpl(allocator, initialCapacity, ShortBufferDequeImpl.MAX_CAPACITY);
+    }
+
+    /**
+     * @param maxCapacity The maximum number of elements the deque can hold. The deque grows on demand up to this
+     *                    size.
+     */
+    public ShortBufferDeque bounded(long maxCapacity) {
+        return new ShortBufferDequeImpl(allocator, 0, maxCapacity);
+    }
+
+    /**
+     * @param initialCapacity The number of elements to allocate space for initially
+     * @param maxCapacity     The maximum number of elements the deque can hold. The deque grows on demand up to this
+     *                        size.
+     */
+    public ShortBufferDeque bounded(long initialCapacity, long maxCapacity) {
+        return new ShortBufferDequeImpl(allocator, initialCapacity, maxCapacity);
+    }
+}
@@ -0,0 +1,273 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import java.util.NoSuchElementException;
+import org.eclipse.collections.api.block.procedure.primitive.ShortProcedure;
+import org.eclipse.collections.api.iterator.ShortIterator;
+
+class ShortBufferDequeImpl implements ShortBufferDeque {
+    static final long MAX_CAPACITY = Long.MAX_VALUE / Short.BYTES;
+    private static final long INITIAL_CAPACITY = 16;
+
+    private final LargeByteBufferAllocator allocator;
+    private final long maxCapacity;
+    private LargeByteBuffer buffer;
+    /**
+     * Number of elements that fit in {@link #buffer}.
+     */
+    private long capacity;
+    /**
+     * Ring index of the first element.
+     */
+    private long head;
+    private long size;
+
+    ShortBufferDequeImpl(LargeByteBufferAllocator allocator, long initialCapacity, long maxCapacity) {
+        if (maxCapacity <= 0 || maxCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Invalid max capacity");
+        }
+        if (initialCapacity < 0 || initialCapacity > maxCapacity) {
+            throw new IllegalArgumentException("Invalid initial capacity");
+        }
+        this.allocator = allocator;
+        this.maxCapacity = maxCapacity;
+        if (initialCapacity == 0) {
+            buffer = LargeByteBuffer.EMPTY;
+        } else {
+            buffer = allocator.allocate(scale(initialCapacity));
+            capacity = initialCapacity;
+        }
+    }
+
+    private static long scale(long index) {
+        return index * Short.BYTES;
+    }
+
+    /**
+     * @return The buffer position of the element at the given logical index.
+     */
+    private long position(long index) {
+        long ringIndex = head + index;
+        if (ringIndex >= capacity) {
+            ringIndex -= capacity;
+        }
+        return scale(ringIndex);
+    }
+
+    /**
+     * Make room for one more element.
+     *
+     * @return {@code false} if this deque is full
+     */
+    private boolean ensureSpace() {
+        if (size < capacity) {
+            return true;
+        }
+        if (capacity == maxCapacity) {
+            return false;
+        }
+        // *= 1.5, but grow by at least one element for tiny capacities
+        long newCapacity = capacity == 0 ? INITIAL_CAPACITY : Math.max(capacity + 1, capacity + (capacity >> 1));
+        if (newCapacity > maxCapacity || newCapacity < 0) {
+            newCapacity = maxCapacity;
+        }
+
+        LargeByteBuffer reallocated = buffer.reallocate(scale(newCapacity));
+        if (reallocated != null) {
+            // move the segment from head to the old end to the new end, so the ring is contiguous again
+            long newHead = head == 0 ? 0 : newCapacity - (capacity - head);
+            reallocated.copyFrom(reallocated, scale(head), scale(newHead), scale(capacity - head));
+            buffer = reallocated;
+            head = newHead;
+        } else {
+            @SuppressWarnings("resource")
+            LargeByteBuffer swap = allocator.allocate(scale(newCapacity));
+            try {
+                long firstSegment = Math.min(size, capacity - head);
+                swap.copyFrom(buffer, scale(head), 0, scale(firstSegment));
+                swap.copyFrom(buffer, 0, scale(firstSegment), scale(size - firstSegment));
+
+                LargeByteBuffer tmp = swap;
+                swap = this.buffer; // old buffer will be closed
+                this.buffer = tmp;
+            } finally {
+                swap.close();
+            }
+            head = 0;
+        }
+        capacity = newCapacity;
+        return true;
+    }
+
+    @Override
+    public long size64() {
+        return size;
+    }
+
+    @Override
+    public long maxCapacity() {
+        return maxCapacity;
+    }
+
+    @Override
+    public void addFirst(short element) throws IllegalStateException {
+        if (!offerFirst(element)) {
+            throw new IllegalStateException("Deque full");
+        }
+    }
+
+    @Override
+    public void addLast(short element) throws IllegalStateException {
+        if (!offerLast(element)) {
+            throw new IllegalStateException("Deque full");
+        }
+    }
+
+    @Override
+    public boolean offerFirst(short element) {
+        if (!ensureSpace()) {
+            return false;
+        }
+        head = head == 0 ? capacity - 1 : head - 1;
+        size++;
+        buffer.setShort(scale(head), element);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(short element) {
+        if (!ensureSpace()) {
+            return false;
+        }
+        buffer.setShort(position(size), element);
+        size++;
+        return true;
+    }
+
+    @Override
+    public short removeFirst() throws NoSuchElementException {
+        if (size == 0) { throw new NoSuchElementException(); }
+        short value = buffer.getShort(scale(head));
+        head++;
+        if (head == capacity) {
+            head = 0;
+        }
+        size--;
+        return value;
+    }
+
+    @Override
+    public short removeLast() throws NoSuchElementException {
+        if (size == 0) { throw new NoSuchElementException(); }
+        size--;
+        return buffer.getShort(position(size));
+    }
+
+    @Override
+    public short pollFirst(short ifEmpty) {
+        return size == 0 ? ifEmpty : removeFirst();
+    }
+
+    @Override
+    public short pollLast(short ifEmpty) {
+        return size == 0 ? ifEmpty : removeLast();
+    }
+
+    @Override
+    public short getFirst() throws NoSuchElementException {
+        if (size == 0) { throw new NoSuchElementException(); }
+        return buffer.getShort(scale(head));
+    }
+
+    @Override
+    public short getLast() throws NoSuchElementException {
+        if (size == 0) { throw new NoSuchElementException(); }
+        return buffer.getShort(position(size - 1));
+    }
+
+    @Override
+    public short peekFirst(short ifEmpty) {
+        return size == 0 ? ifEmpty : getFirst();
+    }
+
+    @Override
+    public short peekLast(short ifEmpty) {
+        return size == 0 ? ifEmpty : getLast();
+    }
+
+    @Override
+    public int drainTo(short[] destination, int offset, int length) throws IndexOutOfBoundsException {
+        if (offset < 0 || length < 0 || offset > destination.length - length) {
+            throw new IndexOutOfBoundsException();
+        }
+        int count = (int) Math.min(length, size);
+        // read up to the end of the ring first, then from its start
+        int firstSegment = (int) Math.min(count, capacity - head);
+        for (int i = 0; i < firstSegment; i++) {
+            destination[offset + i] = buffer.getShort(scale(head + i));
+        }
+        for (int i = firstSegment; i < count; i++) {
+            destination[offset + i] = buffer.getShort(scale(i - firstSegment));
+        }
+        size -= count;
+        head += count;
+        if (head >= capacity) {
+            head -= capacity;
+        }
+        return count;
+    }
+
+    @Override
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public void forEach(ShortProcedure procedure) {
+        for (long i = 0; i < size; i++) {
+            procedure.value(buffer.getShort(position(i)));
+        }
+    }
+
+    @Override
+    public ShortIterator shortIterator() {
+        return new ShortIterator() {
+            long i = 0;
+
+            @Override
+            public short next() {
+                if (!hasNext()) { throw new NoSuchElementException(); }
+                return buffer.getShort(position(i++));
+            }
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+        };
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return new MemoryFootprint(buffer.size(), scale(size), scale(size));
+    }
+
+    @Override
+    public void close() {
+        buffer.close();
+        buffer = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("[");
+        for (long i = 0; i < size; i++) {
+            if (i != 0) {
+                builder.append(", ");
+            }
+            builder.append(buffer.getShort(position(i)));
+        }
+        return builder.append(']').toString();
+    }
+}
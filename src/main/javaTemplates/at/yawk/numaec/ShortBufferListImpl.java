@@ -39,6 +39,11 @@ class ShortBufferListImpl extends AbstractShortIterable implements ShortBufferLi
     final LargeByteBufferAllocator allocator;
     LargeByteBuffer buffer;
     int size;
+    /**
+     * Whether {@link #buffer} was supplied by the caller instead of {@link #allocator}. Such a buffer may use a
+     * different byte order or layout, so it must not be bulk-copied to or from allocator buffers.
+     */
+    boolean wrapped;
 
     ShortBufferListImpl(LargeByteBufferAllocator allocator) {
         this.allocator = allocator;
@@ -50,6 +55,24 @@ class ShortBufferListImpl extends AbstractShortIterable implements ShortBufferLi
         buffer = allocator.allocate(scale(initialCapacity));
     }
 
+    /**
+     * Use an existing buffer that already contains {@code size} elements.
+     */
+    ShortBufferListImpl(LargeByteBufferAllocator allocator, LargeByteBuffer buffer, int size) {
+        if (size < 0 || scale(size) > buffer.size()) {
+            throw new IllegalArgumentException("Buffer too small for " + size + " elements");
+        }
+        this.allocator = allocator;
+        this.buffer = buffer;
+        this.size = size;
+        this.wrapped = true;
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return new MemoryFootprint(buffer.size(), scale(size), scale(size));
+    }
+
     @Override
     public void close() {
         buffer.close();
@@ -60,6 +83,14 @@ class ShortBufferListImpl extends AbstractShortIterable implements ShortBufferLi
         return ((long) index) * Short.BYTES;
     }
 
+    /**
+     * @return The buffer holding the elements of this list back to back, or {@code null} if this list uses a
+     * different storage layout.
+     */
+    LargeByteBuffer directBuffer() {
+        return buffer;
+    }
+
     @Override
     public ShortIterator shortIterator() {
         return new Itr();
@@ -396,6 +427,10 @@ class ShortBufferListImpl extends AbstractShortIterable implements ShortBufferLi
             super(allocator, initialCapacity);
         }
 
+        Mutable(LargeByteBufferAllocator allocator, LargeByteBuffer buffer, int size) {
+            super(allocator, buffer, size);
+        }
+
         private void ensureCapacity(int capacity) {
             long requiredCapacity = scale(capacity);
             long currentCapacity = buffer.size();
@@ -411,7 +446,14 @@ class ShortBufferListImpl extends AbstractShortIterable implements ShortBufferLi
                     @SuppressWarnings("resource")
                     LargeByteBuffer swap = allocator.allocate(newCapacity);
                     try {
-                        swap.copyFrom(buffer, 0, 0, scale(size));
+                        if (wrapped) {
+                            for (int i = 0; i < size; i++) {
+                                swap.setShort(scale(i), buffer.getShort(scale(i)));
+                            }
+                            wrapped = false;
+                        } else {
+                            swap.copyFrom(buffer, 0, 0, scale(size));
+                        }
 
                         LargeByteBuffer tmp = swap;
                         swap = this.buffer; // old buffer will be closed
@@ -423,6 +465,29 @@ class ShortBufferListImpl extends AbstractShortIterable implements ShortBufferLi
             }
         }
 
+        /**
+         * Append {@code length} elements of {@code source}, starting at {@code from}.
+         */
+        void addRange(ShortList source, int from, int length) {
+            ensureCapacity(size + length);
+            LargeByteBuffer direct = null;
+            if (source instanceof ShortBufferListImpl) {
+                ShortBufferListImpl list = (ShortBufferListImpl) source;
+                // copyFrom only supports buffers of the same allocator
+                if (list.allocator == allocator && !list.wrapped && !wrapped) {
+                    direct = list.directBuffer();
+                }
+            }
+            if (direct != null) {
+                buffer.copyFrom(direct, scale(from), scale(size), scale(length));
+            } else {
+                for (int i = 0; i < length; i++) {
+                    buffer.setShort(scale(size + i), source.get(from + i));
+                }
+            }
+            size += length;
+        }
+
         @Override
         public void addAtIndex(int index, short element) {
             if (index == size) {
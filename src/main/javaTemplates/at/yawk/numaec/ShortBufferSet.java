@@ -0,0 +1,7 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.set.primitive.ShortSet;
+
+public interface ShortBufferSet extends ShortSet, BufferBasedCollection {
+}
@@ -10,6 +10,7 @@ package at.yawk.numaec;
 import org.eclipse.collections.api.ShortIterable;
 import org.eclipse.collections.api.bag.MutableBag;
 import org.eclipse.collections.api.bag.primitive.MutableCharBag;
+import org.eclipse.collections.api.block.function.primitive.CharCharToCharFunction;
 import org.eclipse.collections.api.block.function.primitive.CharFunction;
 import org.eclipse.collections.api.block.function.primitive.CharFunction0;
 import org.eclipse.collections.api.block.function.primitive.CharToCharFunction;
@@ -23,7 +24,7 @@ import org.eclipse.collections.api.map.primitive.MutableCharShortMap;
 import org.eclipse.collections.api.map.primitive.MutableShortCharMap;
 import org.eclipse.collections.api.map.primitive.ShortCharMap;
 
-public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBufferMap {
+public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBufferMap, BTreeStatistics.Source {
     protected final BTree bTree;
     protected int size = 0;
 
@@ -85,6 +86,34 @@ public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBuff
         return cursor;
     }
 
+    @Override
+    public char getIfAbsent(short key, char ifAbsent) {
+        return fromValue(bTree.get(toKey(key), toValue(ifAbsent)));
+    }
+
+    @Override
+    public boolean containsKey(short key) {
+        return bTree.containsKey(toKey(key));
+    }
+
+    /**
+     * Variant of {@link #getAll} that reuses the search path from one key to the next, so that a batch of keys in
+     * ascending order is looked up in about the time of a leaf scan. Keys in any other order give correct results, but
+     * no speedup.
+     */
+    public void getAllSorted(short[] keys, char[] valuesOut, boolean[] found) {
+        checkBatchLength(keys.length, valuesOut.length, found.length);
+        try (BTree.Cursor cursor = bTree.allocateCursor()) {
+            for (int i = 0; i < keys.length; i++) {
+                cursor.seekKey(toKey(keys[i]));
+                found[i] = cursor.elementFound();
+                if (found[i]) {
+                    valuesOut[i] = fromValue(cursor.getValue());
+                }
+            }
+        }
+    }
+
     @DoNotMutate
     @Override
     void checkInvariants() {
@@ -97,11 +126,76 @@ public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBuff
         return size;
     }
 
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return bTree.memoryFootprint((long) size() * (Short.BYTES + Character.BYTES));
+    }
+
+    @Override
+    public BTreeStatistics bTreeStatistics() {
+        return bTree.statistics();
+    }
+
     @Override
     public void close() {
         bTree.close();
     }
 
+    /**
+     * Read-only view of a {@link BTree.Snapshot}. Closing this map only releases the snapshot.
+     */
+    private static final class Snapshot extends BaseShortCharMap implements ShortCharBufferMap {
+        private final BTree.Snapshot snapshot;
+        private final int size;
+
+        Snapshot(BTree.Snapshot snapshot, int size) {
+            this.snapshot = snapshot;
+            this.size = size;
+        }
+
+        @Override
+        protected MapStoreCursor iterationCursor() {
+            BTree.Cursor cursor = snapshot.allocateCursor();
+            cursor.descendToStart();
+            return cursor;
+        }
+
+        @Override
+        protected MapStoreCursor keyCursor(short key) {
+            BTree.Cursor cursor = snapshot.allocateCursor();
+            cursor.descendToKey(toKey(key));
+            return cursor;
+        }
+
+        @Override
+        public char getIfAbsent(short key, char ifAbsent) {
+            return fromValue(snapshot.get(toKey(key), toValue(ifAbsent)));
+        }
+
+        @Override
+        public boolean containsKey(short key) {
+            return snapshot.containsKey(toKey(key));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        /**
+         * The pages of a snapshot are shared with its map, and counted there.
+         */
+        @Override
+        public MemoryFootprint memoryFootprint() {
+            return MemoryFootprint.EMPTY;
+        }
+
+        @Override
+        public void close() {
+            snapshot.close();
+        }
+    }
+
     public static class Mutable extends ShortCharBTreeMap implements MutableShortCharBufferMap {
         Mutable(LargeByteBufferAllocator allocator, BTreeConfig config) {
             super(allocator, config);
@@ -128,6 +222,59 @@ public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBuff
             map.forEachKeyValue(this::put);
         }
 
+        /**
+         * Put all the given entries, reusing the search path from one key to the next like
+         * {@link #getAllSorted}. The tree is only rebalanced when a leaf overflows, so merging a sorted batch into this
+         * map costs about as much as a leaf scan.
+         *
+         * @throws IllegalArgumentException if {@code values} is shorter than {@code keys}
+         */
+        public void putAllSorted(short[] keys, char[] values) {
+            if (values.length < keys.length) {
+                throw new IllegalArgumentException("Value array is shorter than the key array");
+            }
+            try (BTree.Cursor cursor = bTree.allocateCursor()) {
+                for (int i = 0; i < keys.length; i++) {
+                    long k = toKey(keys[i]);
+                    long v = toValue(values[i]);
+                    cursor.seekKey(k);
+                    if (cursor.elementFound()) {
+                        cursor.setValue(v);
+                    } else {
+                        boolean split = !cursor.leafHasRoom();
+                        cursor.simpleInsert(k, v);
+                        size++;
+                        if (split) {
+                            cursor.balance();
+                            // the search path is lost, start the next key from the root
+                            cursor.reset();
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Remove all the given keys, reusing the search path from one key to the next like {@link #getAllSorted}. The
+         * tree is only rebalanced when a block underflows.
+         */
+        public void removeAllSorted(short[] keys) {
+            try (BTree.Cursor cursor = bTree.allocateCursor()) {
+                for (short key : keys) {
+                    cursor.seekKey(toKey(key));
+                    if (cursor.elementFound()) {
+                        boolean merge = !cursor.leafCanShrink();
+                        cursor.simpleRemove();
+                        size--;
+                        if (merge) {
+                            cursor.balance();
+                            cursor.reset();
+                        }
+                    }
+                }
+            }
+        }
+
         @Override
         public void updateValues(ShortCharToCharFunction function) {
             try (BTree.Cursor cursor = bTree.allocateCursor()) {
@@ -285,7 +432,16 @@ public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBuff
 
         @Override
         public MutableShortCharMap asSynchronized() {
-            throw new UnsupportedOperationException("Mutable.asSynchronized not implemented yet");
+            return new SynchronizedShortCharBufferMap(this);
+        }
+
+        /**
+         * Take an immutable snapshot of this map. The snapshot may be read from other threads without locking while
+         * this map is being modified, and must be closed to release the blocks only it still references. Requires a
+         * {@link BTreeConfig.Builder#copyOnWrite(boolean) copy-on-write} config.
+         */
+        public ShortCharBufferMap snapshot() {
+            return new Snapshot(bTree.snapshot(), size);
         }
 
         @Override
@@ -306,6 +462,24 @@ public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBuff
             }
         }
 
+        @Override
+        public char merge(short key, char value, CharCharToCharFunction remappingFunction) {
+            long k = toKey(key);
+            try (BTree.Cursor cursor = bTree.allocateCursor()) {
+                cursor.descendToKey(k);
+                if (cursor.elementFound()) {
+                    char merged = remappingFunction.valueOf(fromValue(cursor.getValue()), value);
+                    cursor.setValue(toValue(merged));
+                    return merged;
+                } else {
+                    cursor.simpleInsert(k, toValue(value));
+                    cursor.balance();
+                    size++;
+                    return value;
+                }
+            }
+        }
+
         @Override
         public void clear() {
             bTree.clear();
@@ -346,5 +520,74 @@ public class ShortCharBTreeMap extends BaseShortCharMap implements ShortCharBuff
         public MutableCharIterator charIterator() {
             return super.charIterator();
         }
+
+        @Override
+        public ShortCharMapCursor cursor() {
+            return new MapCursor();
+        }
+
+        private final class MapCursor implements ShortCharMapCursor {
+            private final BTree.Cursor cursor = bTree.allocateCursor();
+            private boolean positioned = false;
+
+            MapCursor() {
+                cursor.descendToStart();
+            }
+
+            private void checkPositioned() {
+                if (!positioned) { throw new IllegalStateException("Cursor not positioned on an entry"); }
+            }
+
+            @Override
+            public boolean next() {
+                positioned = cursor.next();
+                return positioned;
+            }
+
+            @Override
+            public boolean seek(short key) {
+                cursor.reset();
+                positioned = cursor.descendToAfterKey(toKey(key));
+                return positioned;
+            }
+
+            @Override
+            public void reset() {
+                cursor.reset();
+                cursor.descendToStart();
+                positioned = false;
+            }
+
+            @Override
+            public short key() {
+                checkPositioned();
+                return fromKey(cursor.getKey());
+            }
+
+            @Override
+            public char value() {
+                checkPositioned();
+                return fromValue(cursor.getValue());
+            }
+
+            @Override
+            public void setValue(char value) {
+                checkPositioned();
+                cursor.setValue(toValue(value));
+            }
+
+            @Override
+            public void remove() {
+                checkPositioned();
+                cursor.removeAndContinue();
+                size--;
+                positioned = false;
+            }
+
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        }
     }
 }
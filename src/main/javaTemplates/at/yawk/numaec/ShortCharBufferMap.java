@@ -5,4 +5,15 @@ package at.yawk.numaec;
 import org.eclipse.collections.api.map.primitive.ShortCharMap;
 
 public interface ShortCharBufferMap extends ShortCharMap, BufferBasedCollection {
+    /**
+     * Look up many keys at once. For every index {@code i} of {@code keys}, {@code found[i]} is set to whether the key
+     * is present and, if it is, {@code valuesOut[i]} to its value. Indices of {@code valuesOut} for absent keys are
+     * left untouched.
+     * <p>
+     * Implementations may reorder the lookups for better locality, so for large batches this is cheaper than separate
+     * calls to {@link #get}.
+     *
+     * @throws IllegalArgumentException if one of the output arrays is shorter than {@code keys}
+     */
+    void getAll(short[] keys, char[] valuesOut, boolean[] found);
 }
@@ -0,0 +1,29 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+package at.yawk.numaec;
+
+/**
+ * One-shot loader that builds a map from a known number of unsorted entries, returned by
+ * {@link MutableShortCharLinearHashMapFactory#bulkLoader}.
+ */
+public interface ShortCharBulkLoader extends AutoCloseable {
+    /**
+     * Add an entry. If a key is added more than once, the last value wins.
+     *
+     * @throws IllegalStateException if more entries are added than were announced
+     */
+    void put(short key, char value);
+
+    /**
+     * Build the map and release the scratch space. This loader can't be used afterwards. If building fails, the
+     * partially built map is closed as well.
+     */
+    MutableShortCharBufferMap build();
+
+    /**
+     * Abort the load and release the scratch space and the map. After a successful {@link #build()}, the map belongs
+     * to the caller and is left open.
+     */
+    @Override
+    void close();
+}
@@ -0,0 +1,141 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+/**
+ * Read-only map indexed by a {@link MinimalPerfectHash}. Entries are stored in a dense array in hash index order, and
+ * the key stored at the index is compared on lookup to reject absent keys.
+ */
+final class ShortCharFrozenMap extends BaseShortCharMap implements ShortCharBufferMap {
+    private static final int ENTRY_SIZE = Short.BYTES + Character.BYTES;
+
+    private final MinimalPerfectHash hash;
+    private final int size;
+    private LargeByteBuffer entries;
+
+    private ShortCharFrozenMap(MinimalPerfectHash hash, int size, LargeByteBuffer entries) {
+        this.hash = hash;
+        this.size = size;
+        this.entries = entries;
+    }
+
+    static ShortCharFrozenMap freeze(LargeByteBufferAllocator allocator, ShortCharMap map) {
+        int size = map.size();
+        MinimalPerfectHash hash;
+        try (LargeByteBuffer keys = allocator.allocate(Math.max(size, 1) * (long) Long.BYTES)) {
+            long[] i = { 0 };
+            map.forEachKey(key -> {
+                if (i[0] >= size) { throw new IllegalArgumentException("Map was modified during freeze"); }
+                keys.setLong(i[0]++ * Long.BYTES, toKey(key));
+            });
+            if (i[0] != size) { throw new IllegalArgumentException("Map was modified during freeze"); }
+            hash = MinimalPerfectHash.build(allocator, keys, size);
+        }
+        LargeByteBuffer entries = null;
+        try {
+            entries = allocator.allocate(Math.max(size, 1) * (long) ENTRY_SIZE);
+            LargeByteBuffer target = entries;
+            map.forEachKeyValue((key, value) -> {
+                long address = hash.index(toKey(key)) * ENTRY_SIZE;
+                target.setShort(address, key);
+                target.setChar(address + Short.BYTES, value);
+            });
+            return new ShortCharFrozenMap(hash, size, entries);
+        } catch (RuntimeException | Error e) {
+            hash.close();
+            if (entries != null) { entries.close(); }
+            throw e;
+        }
+    }
+
+    /**
+     * @return The entry index of the given key, or {@code -1} if it is absent
+     */
+    private long find(short key) {
+        long index = hash.index(toKey(key));
+        if (index == -1 || toKey(entries.getShort(index * ENTRY_SIZE)) != toKey(key)) {
+            return -1;
+        }
+        return index;
+    }
+
+    @Override
+    protected MapStoreCursor iterationCursor() {
+        return new Cursor(-1, false);
+    }
+
+    @Override
+    protected MapStoreCursor keyCursor(short key) {
+        long index = find(key);
+        return new Cursor(index, index != -1);
+    }
+
+    @Override
+    public char getIfAbsent(short key, char ifAbsent) {
+        long index = find(key);
+        return index == -1 ? ifAbsent : entries.getChar(index * ENTRY_SIZE + Short.BYTES);
+    }
+
+    @Override
+    public boolean containsKey(short key) {
+        return find(key) != -1;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        if (entries == null) { return MemoryFootprint.EMPTY; }
+        return new MemoryFootprint(entries.size(), entries.size(), (long) size * ENTRY_SIZE)
+                .plus(hash.memoryFootprint());
+    }
+
+    @Override
+    public void close() {
+        if (entries == null) { return; }
+        hash.close();
+        entries.close();
+        entries = null;
+    }
+
+    private final class Cursor implements MapStoreCursor {
+        private long index;
+        private final boolean found;
+
+        Cursor(long index, boolean found) {
+            this.index = index;
+            this.found = found;
+        }
+
+        @Override
+        public long getKey() {
+            return toKey(entries.getShort(index * ENTRY_SIZE));
+        }
+
+        @Override
+        public long getValue() {
+            return toValue(entries.getChar(index * ENTRY_SIZE + Short.BYTES));
+        }
+
+        @Override
+        public boolean next() {
+            if (index + 1 >= size) { return false; }
+            index++;
+            return true;
+        }
+
+        @Override
+        public boolean elementFound() {
+            return found;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
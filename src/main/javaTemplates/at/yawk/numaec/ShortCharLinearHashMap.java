@@ -3,6 +3,7 @@ package at.yawk.numaec;
 import org.eclipse.collections.api.ShortIterable;
 import org.eclipse.collections.api.bag.MutableBag;
 import org.eclipse.collections.api.bag.primitive.MutableCharBag;
+import org.eclipse.collections.api.block.function.primitive.CharCharToCharFunction;
 import org.eclipse.collections.api.block.function.primitive.CharFunction;
 import org.eclipse.collections.api.block.function.primitive.CharFunction0;
 import org.eclipse.collections.api.block.function.primitive.CharToCharFunction;
@@ -16,56 +17,86 @@ import org.eclipse.collections.api.map.primitive.MutableCharShortMap;
 import org.eclipse.collections.api.map.primitive.MutableShortCharMap;
 import org.eclipse.collections.api.map.primitive.ShortCharMap;
 
-class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBufferMap {
+class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBufferMap, LinearHashStatistics.Source {
     private final float loadFactor;
+    private final float shrinkLoadFactor;
     private final long sipHashK0, sipHashK1;
     private final long hashMask;
 
     protected final LinearHashTable table;
     protected int size;
+    /**
+     * Size up to which no buckets need to be split, so that inserts can skip {@link #ensureCapacity(int)}.
+     */
+    private long growThreshold = 0;
 
     ShortCharLinearHashMap(LargeByteBufferAllocator allocator, LinearHashMapConfig config) {
         this.sipHashK0 = config.sipHashK0.getAsLong();
         this.sipHashK1 = config.sipHashK1.getAsLong();
         this.loadFactor = config.loadFactor;
+        this.shrinkLoadFactor = config.shrinkLoadFactor;
         int hashLength = config.hashLength;
         this.hashMask = hashLength == 0 ? -1L : ~(-1L >>> hashLength);
-        this.table = new LinearHashTable(allocator, config, hashLength + Short.BYTES + Character.BYTES) {
+        this.table = new LinearHashTable(allocator, config, hashLength, Short.BYTES, Character.BYTES) {
             @Override
-            protected void write(LargeByteBuffer lbb, long address, long hash, long key, long value) {
-                if (hashLength != 0) {
-                    if ((hash & ~hashMask) != 0) {
-                        throw new AssertionError();
-                    }
-                    BTree.uset(lbb, address, hashLength, Long.reverse(hash));
+            protected void writeHash(LargeByteBuffer lbb, long address, long hash) {
+                if ((hash & ~hashMask) != 0) {
+                    throw new AssertionError();
                 }
-                lbb.setShort(address + hashLength, fromKey(key));
-                lbb.setChar(address + hashLength + Short.BYTES, fromValue(value));
+                BTree.uset(lbb, address, hashLength, Long.reverse(hash));
+            }
+
+            @Override
+            protected void writeKey(LargeByteBuffer lbb, long address, long key) {
+                lbb.setShort(address, fromKey(key));
+            }
+
+            @Override
+            protected void writeValue(LargeByteBuffer lbb, long address, long value) {
+                lbb.setChar(address, fromValue(value));
             }
 
             @Override
             protected long readHash(LargeByteBuffer lbb, long address) {
-                if (hashLength == 0) {
-                    return hash(fromKey(readKey(lbb, address)));
-                } else {
-                    return Long.reverse(BTree.uget(lbb, address, hashLength));
-                }
+                return Long.reverse(BTree.uget(lbb, address, hashLength));
             }
 
             @Override
             protected long readKey(LargeByteBuffer lbb, long address) {
-                return toKey(lbb.getShort(address + hashLength));
+                return toKey(lbb.getShort(address));
             }
 
             @Override
             protected long readValue(LargeByteBuffer lbb, long address) {
-                return toValue(lbb.getChar(address + hashLength + Short.BYTES));
+                return toValue(lbb.getChar(address));
+            }
+
+            @Override
+            protected long hashOfKey(long key) {
+                return hash(fromKey(key));
             }
         };
     }
 
     protected void ensureCapacity(int capacity) {
-        table.expandToFullLoadCapacity((long) (capacity / loadFactor));
+        if (capacity > growThreshold) {
+            table.expandToFullLoadCapacity((long) (capacity / loadFactor));
+            updateGrowThreshold();
+        }
+    }
+
+    protected void updateGrowThreshold() {
+        growThreshold = (long) (table.fullLoadCapacity() * (double) loadFactor);
+    }
+
+    /**
+     * Merge buckets if the map has become sparse after removals.
+     */
+    protected void trimCapacity(int capacity) {
+        if (shrinkLoadFactor != 0) {
+            table.contractToFullLoadCapacity((long) (capacity / shrinkLoadFactor));
+            updateGrowThreshold();
+        }
     }
 
     @Override
@@ -80,6 +111,34 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
         return cursor;
     }
 
+    @Override
+    public char getIfAbsent(short key, char ifAbsent) {
+        return fromValue(table.get(hash(key), toKey(key), toValue(ifAbsent)));
+    }
+
+    @Override
+    public boolean containsKey(short key) {
+        return table.containsKey(hash(key), toKey(key));
+    }
+
+    @Override
+    public void getAll(short[] keys, char[] valuesOut, boolean[] found) {
+        checkBatchLength(keys.length, valuesOut.length, found.length);
+        long[] hashes = new long[keys.length];
+        long[] tableKeys = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(keys[i]);
+            tableKeys[i] = toKey(keys[i]);
+        }
+        long[] values = new long[keys.length];
+        table.getAll(hashes, tableKeys, values, found);
+        for (int i = 0; i < keys.length; i++) {
+            if (found[i]) {
+                valuesOut[i] = fromValue(values[i]);
+            }
+        }
+    }
+
     @DoNotMutate
     @Override
     void checkInvariants() {
@@ -91,6 +150,16 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
         return SipHash.sipHash2_4_8_to_8(sipHashK0, sipHashK1, toKey(key)) & hashMask;
     }
 
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return table.memoryFootprint((long) size() * (Short.BYTES + Character.BYTES));
+    }
+
+    @Override
+    public LinearHashStatistics linearHashStatistics() {
+        return table.statistics();
+    }
+
     @Override
     public void close() {
         table.close();
@@ -101,6 +170,57 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
         return size;
     }
 
+    static final class BulkLoader implements ShortCharBulkLoader {
+        private final Mutable map;
+        private final LinearHashTable.BulkLoader loader;
+        /**
+         * Whether {@link #map} was returned by {@link #build()} or closed, so that this loader no longer owns it.
+         */
+        private boolean released = false;
+
+        BulkLoader(
+                LargeByteBufferAllocator allocator,
+                LinearHashMapConfig config,
+                LargeByteBufferAllocator scratchAllocator,
+                long entryCount
+        ) {
+            this.map = new Mutable(allocator, config);
+            try {
+                this.loader = map.table.bulkLoader(
+                        scratchAllocator, entryCount, (long) (entryCount / (double) config.loadFactor));
+            } catch (RuntimeException | Error e) {
+                map.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void put(short key, char value) {
+            loader.add(map.hash(key), toKey(key), toValue(value));
+        }
+
+        @Override
+        public MutableShortCharBufferMap build() {
+            try {
+                map.size = Math.toIntExact(loader.finish());
+            } catch (RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+            released = true;
+            return map;
+        }
+
+        @Override
+        public void close() {
+            loader.close();
+            if (!released) {
+                released = true;
+                map.close();
+            }
+        }
+    }
+
     public static class Mutable extends ShortCharLinearHashMap implements MutableShortCharBufferMap {
 
         Mutable(LargeByteBufferAllocator allocator, LinearHashMapConfig config) {
@@ -109,7 +229,6 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
 
         @Override
         public void put(short key, char value) {
-            ensureCapacity(1);
             long h = hash(key);
             long k = toKey(key);
             long v = toValue(value);
@@ -150,6 +269,7 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
                 if (cursor.elementFound()) {
                     cursor.remove();
                     size--;
+                    trimCapacity(size);
                 }
             }
         }
@@ -167,6 +287,7 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
                     char v = fromValue(cursor.getValue());
                     cursor.remove();
                     size--;
+                    trimCapacity(size);
                     return v;
                 } else {
                     return value;
@@ -176,8 +297,6 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
 
         @Override
         public char getIfAbsentPut(short key, char value) {
-            // only resize map if we really need to down below
-            ensureCapacity(1);
             try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
                 long hash = hash(key);
                 cursor.seek(hash, toKey(key));
@@ -194,8 +313,6 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
 
         @Override
         public char getIfAbsentPut(short key, CharFunction0 function) {
-            // only resize map if we really need to down below
-            ensureCapacity(1);
             try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
                 long hash = hash(key);
                 cursor.seek(hash, toKey(key));
@@ -213,8 +330,6 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
 
         @Override
         public char getIfAbsentPutWithKey(short key, ShortToCharFunction function) {
-            // only resize map if we really need to down below
-            ensureCapacity(1);
             try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
                 long hash = hash(key);
                 cursor.seek(hash, toKey(key));
@@ -232,8 +347,6 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
 
         @Override
         public <P> char getIfAbsentPutWith(short key, CharFunction<? super P> function, P parameter) {
-            // only resize map if we really need to down below
-            ensureCapacity(1);
             try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
                 long hash = hash(key);
                 cursor.seek(hash, toKey(key));
@@ -251,8 +364,6 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
 
         @Override
         public char updateValue(short key, char initialValueIfAbsent, CharToCharFunction function) {
-            // only resize map if we really need to down below
-            ensureCapacity(1);
             try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
                 long hash = hash(key);
                 cursor.seek(hash, toKey(key));
@@ -270,6 +381,24 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
             }
         }
 
+        @Override
+        public char merge(short key, char value, CharCharToCharFunction remappingFunction) {
+            try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
+                long hash = hash(key);
+                cursor.seek(hash, toKey(key));
+                if (cursor.elementFound()) {
+                    char merged = remappingFunction.valueOf(fromValue(cursor.getValue()), value);
+                    cursor.setValue(toValue(merged));
+                    return merged;
+                } else {
+                    cursor.insert(hash, toKey(key), toValue(value));
+                    size++;
+                    ensureCapacity(size);
+                    return value;
+                }
+            }
+        }
+
         @Override
         public MutableShortCharMap withKeyValue(short key, char value) {
             put(key, value);
@@ -295,13 +424,11 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
 
         @Override
         public MutableShortCharMap asSynchronized() {
-            throw new UnsupportedOperationException("Mutable.asSynchronized not implemented yet");
+            return new SynchronizedShortCharBufferMap(this);
         }
 
         @Override
         public char addToValue(short key, char toBeAdded) {
-            // only resize map if we really need to down below
-            ensureCapacity(1);
             try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
                 long hash = hash(key);
                 cursor.seek(hash, toKey(key));
@@ -322,6 +449,7 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
         public void clear() {
             table.clear();
             size = 0;
+            updateGrowThreshold();
         }
 
         @Override
@@ -358,5 +486,70 @@ class ShortCharLinearHashMap extends BaseShortCharMap implements ShortCharBuffer
         public MutableCharIterator charIterator() {
             return super.charIterator();
         }
+
+        @Override
+        public ShortCharMapCursor cursor() {
+            return new MapCursor();
+        }
+
+        private final class MapCursor implements ShortCharMapCursor {
+            private final LinearHashTable.Cursor cursor = table.allocateCursor();
+            private boolean positioned = false;
+
+            private void checkPositioned() {
+                if (!positioned) { throw new IllegalStateException("Cursor not positioned on an entry"); }
+            }
+
+            @Override
+            public boolean next() {
+                positioned = cursor.next();
+                return positioned;
+            }
+
+            @Override
+            public boolean seek(short key) {
+                positioned = cursor.seekAfter(hash(key), toKey(key));
+                return positioned;
+            }
+
+            @Override
+            public void reset() {
+                cursor.init();
+                positioned = false;
+            }
+
+            @Override
+            public short key() {
+                checkPositioned();
+                return fromKey(cursor.getKey());
+            }
+
+            @Override
+            public char value() {
+                checkPositioned();
+                return fromValue(cursor.getValue());
+            }
+
+            @Override
+            public void setValue(char value) {
+                checkPositioned();
+                cursor.setValue(toValue(value));
+            }
+
+            @Override
+            public void remove() {
+                checkPositioned();
+                cursor.removeAndContinue();
+                size--;
+                positioned = false;
+            }
+
+            @Override
+            public void close() {
+                cursor.close();
+                // merging buckets would move entries behind the cursor, so only shrink once iteration is done
+                trimCapacity(size);
+            }
+        }
     }
 }
@@ -0,0 +1,59 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+package at.yawk.numaec;
+
+/**
+ * Cursor over the entries of a {@link MutableShortCharBufferMap}. Moving the cursor and accessing, updating or
+ * removing entries does not allocate, and the cursor can be reused through {@link #seek} and {@link #reset()}.
+ * <p>
+ * A new cursor is positioned before the first entry. Entries are visited in the iteration order of the map. The map
+ * must not be modified other than through this cursor while it is open, and the cursor must be closed after use.
+ */
+public interface ShortCharMapCursor extends AutoCloseable {
+    /**
+     * Move to the next entry.
+     *
+     * @return {@code true} iff there was a next entry
+     */
+    boolean next();
+
+    /**
+     * Move to the given key. If the key is not present, the next call to {@link #next()} moves to the entry that would
+     * follow it.
+     *
+     * @return {@code true} iff the key is present
+     */
+    boolean seek(short key);
+
+    /**
+     * Move back to before the first entry.
+     */
+    void reset();
+
+    /**
+     * @throws IllegalStateException if the cursor is not positioned on an entry
+     */
+    short key();
+
+    /**
+     * @throws IllegalStateException if the cursor is not positioned on an entry
+     */
+    char value();
+
+    /**
+     * Replace the value of the current entry.
+     *
+     * @throws IllegalStateException if the cursor is not positioned on an entry
+     */
+    void setValue(char value);
+
+    /**
+     * Remove the current entry. The next call to {@link #next()} moves to the entry that followed it.
+     *
+     * @throws IllegalStateException if the cursor is not positioned on an entry
+     */
+    void remove();
+
+    @Override
+    void close();
+}
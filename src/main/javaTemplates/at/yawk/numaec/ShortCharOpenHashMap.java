@@ -0,0 +1,373 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.api.bag.primitive.MutableCharBag;
+import org.eclipse.collections.api.block.function.primitive.CharCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction0;
+import org.eclipse.collections.api.block.function.primitive.CharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharToObjectFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortToCharFunction;
+import org.eclipse.collections.api.block.predicate.primitive.CharPredicate;
+import org.eclipse.collections.api.block.predicate.primitive.ShortCharPredicate;
+import org.eclipse.collections.api.iterator.MutableCharIterator;
+import org.eclipse.collections.api.map.primitive.MutableCharShortMap;
+import org.eclipse.collections.api.map.primitive.MutableShortCharMap;
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+
+class ShortCharOpenHashMap extends BaseShortCharMap implements ShortCharBufferMap {
+    private final long sipHashK0, sipHashK1;
+
+    protected final RobinHoodHashTable table;
+
+    ShortCharOpenHashMap(LargeByteBufferAllocator allocator, OpenHashMapConfig config) {
+        this.sipHashK0 = config.sipHashK0.getAsLong();
+        this.sipHashK1 = config.sipHashK1.getAsLong();
+        this.table = new RobinHoodHashTable(allocator, config, Short.BYTES + Character.BYTES) {
+            @Override
+            protected long hash(long key) {
+                return ShortCharOpenHashMap.this.hash(fromKey(key));
+            }
+
+            @Override
+            protected void write(LargeByteBuffer lbb, long address, long key, long value) {
+                lbb.setShort(address, fromKey(key));
+                lbb.setChar(address + Short.BYTES, fromValue(value));
+            }
+
+            @Override
+            protected long readKey(LargeByteBuffer lbb, long address) {
+                return toKey(lbb.getShort(address));
+            }
+
+            @Override
+            protected long readValue(LargeByteBuffer lbb, long address) {
+                return toValue(lbb.getChar(address + Short.BYTES));
+            }
+        };
+    }
+
+    protected void ensureCapacity(int capacity) {
+        table.ensureCapacity(capacity);
+    }
+
+    @Override
+    protected MapStoreCursor iterationCursor() {
+        return table.allocateCursor();
+    }
+
+    @Override
+    protected MapStoreCursor keyCursor(short key) {
+        RobinHoodHashTable.Cursor cursor = table.allocateCursor();
+        cursor.find(hash(key), toKey(key));
+        return cursor;
+    }
+
+    @Override
+    public char getIfAbsent(short key, char ifAbsent) {
+        return fromValue(table.get(hash(key), toKey(key), toValue(ifAbsent)));
+    }
+
+    @Override
+    public boolean containsKey(short key) {
+        return table.containsKey(hash(key), toKey(key));
+    }
+
+    @DoNotMutate
+    @Override
+    void checkInvariants() {
+        super.checkInvariants();
+        table.checkInvariants();
+    }
+
+    protected long hash(short key) {
+        return SipHash.sipHash2_4_8_to_8(sipHashK0, sipHashK1, toKey(key));
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return table.memoryFootprint();
+    }
+
+    @Override
+    public void close() {
+        table.close();
+    }
+
+    @Override
+    public int size() {
+        return (int) table.size();
+    }
+
+    public static class Mutable extends ShortCharOpenHashMap implements MutableShortCharBufferMap {
+
+        Mutable(LargeByteBufferAllocator allocator, OpenHashMapConfig config) {
+            super(allocator, config);
+        }
+
+        @Override
+        public void put(short key, char value) {
+            table.put(hash(key), toKey(key), toValue(value));
+        }
+
+        @Override
+        public void putAll(ShortCharMap map) {
+            // this is too pessimistic when the given map's keys overlap with outs but probably covers the main use
+            // cases just fine
+            ensureCapacity(size() + map.size());
+            map.forEachKeyValue(this::put);
+        }
+
+        @Override
+        public void updateValues(ShortCharToCharFunction function) {
+            try (RobinHoodHashTable.Cursor cursor = table.allocateCursor()) {
+                while (cursor.next()) {
+                    char updated = function.valueOf(fromKey(cursor.getKey()), fromValue(cursor.getValue()));
+                    cursor.setValue(toValue(updated));
+                }
+            }
+        }
+
+        @Override
+        public void removeKey(short key) {
+            table.remove(hash(key), toKey(key));
+        }
+
+        @Override
+        public void remove(short key) {
+            removeKey(key);
+        }
+
+        @Override
+        public char removeKeyIfAbsent(short key, char value) {
+            long slot = table.find(hash(key), toKey(key));
+            if (slot == -1) {
+                return value;
+            }
+            char v = fromValue(table.valueAt(slot));
+            table.removeAt(slot);
+            return v;
+        }
+
+        @Override
+        public char getIfAbsentPut(short key, char value) {
+            long hash = hash(key);
+            long slot = table.find(hash, toKey(key));
+            if (slot != -1) {
+                return fromValue(table.valueAt(slot));
+            }
+            table.insert(hash, toKey(key), toValue(value));
+            return value;
+        }
+
+        @Override
+        public char getIfAbsentPut(short key, CharFunction0 function) {
+            long hash = hash(key);
+            long slot = table.find(hash, toKey(key));
+            if (slot != -1) {
+                return fromValue(table.valueAt(slot));
+            }
+            char v = function.value();
+            table.insert(hash, toKey(key), toValue(v));
+            return v;
+        }
+
+        @Override
+        public char getIfAbsentPutWithKey(short key, ShortToCharFunction function) {
+            long hash = hash(key);
+            long slot = table.find(hash, toKey(key));
+            if (slot != -1) {
+                return fromValue(table.valueAt(slot));
+            }
+            char v = function.valueOf(key);
+            table.insert(hash, toKey(key), toValue(v));
+            return v;
+        }
+
+        @Override
+        public <P> char getIfAbsentPutWith(short key, CharFunction<? super P> function, P parameter) {
+            long hash = hash(key);
+            long slot = table.find(hash, toKey(key));
+            if (slot != -1) {
+                return fromValue(table.valueAt(slot));
+            }
+            char v = function.charValueOf(parameter);
+            table.insert(hash, toKey(key), toValue(v));
+            return v;
+        }
+
+        @Override
+        public char updateValue(short key, char initialValueIfAbsent, CharToCharFunction function) {
+            long hash = hash(key);
+            long slot = table.find(hash, toKey(key));
+            if (slot != -1) {
+                char updated = function.valueOf(fromValue(table.valueAt(slot)));
+                table.setValueAt(slot, toValue(updated));
+                return updated;
+            }
+            char updated = function.valueOf(initialValueIfAbsent);
+            table.insert(hash, toKey(key), toValue(updated));
+            return updated;
+        }
+
+        @Override
+        public char merge(short key, char value, CharCharToCharFunction remappingFunction) {
+            long hash = hash(key);
+            long slot = table.find(hash, toKey(key));
+            if (slot != -1) {
+                char merged = remappingFunction.valueOf(fromValue(table.valueAt(slot)), value);
+                table.setValueAt(slot, toValue(merged));
+                return merged;
+            }
+            table.insert(hash, toKey(key), toValue(value));
+            return value;
+        }
+
+        @Override
+        public MutableShortCharMap withKeyValue(short key, char value) {
+            put(key, value);
+            return this;
+        }
+
+        @Override
+        public MutableShortCharMap withoutKey(short key) {
+            removeKey(key);
+            return this;
+        }
+
+        @Override
+        public MutableShortCharMap withoutAllKeys(ShortIterable keys) {
+            keys.forEach(this::removeKey);
+            return this;
+        }
+
+        @Override
+        public MutableShortCharMap asUnmodifiable() {
+            throw new UnsupportedOperationException("Mutable.asUnmodifiable not implemented yet");
+        }
+
+        @Override
+        public MutableShortCharMap asSynchronized() {
+            return new SynchronizedShortCharBufferMap(this);
+        }
+
+        @Override
+        public char addToValue(short key, char toBeAdded) {
+            long hash = hash(key);
+            long slot = table.find(hash, toKey(key));
+            if (slot != -1) {
+                char updated = (char) (fromValue(table.valueAt(slot)) + toBeAdded);
+                table.setValueAt(slot, toValue(updated));
+                return updated;
+            }
+            table.insert(hash, toKey(key), toValue(toBeAdded));
+            return toBeAdded;
+        }
+
+        @Override
+        public void clear() {
+            table.clear();
+        }
+
+        @Override
+        public MutableCharShortMap flipUniqueValues() {
+            throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.flipUniqueValues not implemented yet");
+        }
+
+        @Override
+        public MutableShortCharMap select(ShortCharPredicate predicate) {
+            throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.select not implemented yet");
+        }
+
+        @Override
+        public MutableCharBag select(CharPredicate predicate) {
+            throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.select not implemented yet");
+        }
+
+        @Override
+        public MutableShortCharMap reject(ShortCharPredicate predicate) {
+            throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.reject not implemented yet");
+        }
+
+        @Override
+        public MutableCharBag reject(CharPredicate predicate) {
+            throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.reject not implemented yet");
+        }
+
+        @Override
+        public <V> MutableBag<V> collect(CharToObjectFunction<? extends V> function) {
+            throw new UnsupportedOperationException("ShortCharBufferMap.Mutable.collect not implemented yet");
+        }
+
+        @Override
+        public MutableCharIterator charIterator() {
+            return super.charIterator();
+        }
+
+        @Override
+        public ShortCharMapCursor cursor() {
+            return new MapCursor();
+        }
+
+        private final class MapCursor implements ShortCharMapCursor {
+            private final RobinHoodHashTable.Cursor cursor = table.allocateCursor();
+            private boolean positioned = false;
+
+            private void checkPositioned() {
+                if (!positioned) { throw new IllegalStateException("Cursor not positioned on an entry"); }
+            }
+
+            @Override
+            public boolean next() {
+                positioned = cursor.next();
+                return positioned;
+            }
+
+            @Override
+            public boolean seek(short key) {
+                positioned = cursor.seek(hash(key), toKey(key));
+                return positioned;
+            }
+
+            @Override
+            public void reset() {
+                cursor.init();
+                positioned = false;
+            }
+
+            @Override
+            public short key() {
+                checkPositioned();
+                return fromKey(cursor.getKey());
+            }
+
+            @Override
+            public char value() {
+                checkPositioned();
+                return fromValue(cursor.getValue());
+            }
+
+            @Override
+            public void setValue(char value) {
+                checkPositioned();
+                cursor.setValue(toValue(value));
+            }
+
+            @Override
+            public void remove() {
+                checkPositioned();
+                cursor.removeAndContinue();
+                positioned = false;
+            }
+
+            @Override
+            public void close() {
+                cursor.close();
+            }
+        }
+    }
+}
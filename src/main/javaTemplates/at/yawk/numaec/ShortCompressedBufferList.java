@@ -0,0 +1,19 @@
+/* with short|byte|char|int|long element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+
+/**
+ * A list that stores its values in compressed blocks: values are delta-coded, offset by the smallest delta of their
+ * block (frame of reference) and bit-packed. This works well for small or sorted values. Elements can only be
+ * appended, all other modification is unsupported.
+ * <p>
+ * Reads decode whole blocks into a reusable on-heap buffer, so this list is not safe for concurrent reads.
+ */
+public interface ShortCompressedBufferList extends ShortBufferList {
+    boolean add(short element);
+
+    boolean addAll(short... source);
+
+    boolean addAll(ShortIterable source);
+}
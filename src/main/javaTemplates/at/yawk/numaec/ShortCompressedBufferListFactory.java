@@ -0,0 +1,36 @@
+/* with short|byte|char|int|long element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+
+public class ShortCompressedBufferListFactory {
+    private final LargeByteBufferAllocator allocator;
+
+    private ShortCompressedBufferListFactory(LargeByteBufferAllocator allocator) {
+        this.allocator = allocator;
+    }
+
+    public static ShortCompressedBufferListFactory withAllocator(LargeByteBufferAllocator allocator) {
+        return new ShortCompressedBufferListFactory(allocator);
+    }
+
+    public ShortCompressedBufferList empty() {
+        return new ShortCompressedBufferListImpl(allocator);
+    }
+
+    public ShortCompressedBufferList of() {
+        return empty();
+    }
+
+    public ShortCompressedBufferList of(short... items) {
+        ShortCompressedBufferList list = empty();
+        list.addAll(items);
+        return list;
+    }
+
+    public ShortCompressedBufferList ofAll(ShortIterable items) {
+        ShortCompressedBufferList list = empty();
+        list.addAll(items);
+        return list;
+    }
+}
@@ -0,0 +1,234 @@
+/* with short|byte|char|int|long element */
+package at.yawk.numaec;
+
+import java.util.ConcurrentModificationException;
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.iterator.ShortIterator;
+
+/**
+ * Block layout in {@link #buffer}: the first value and the minimum delta as two longs, followed by the remaining
+ * {@code BLOCK_SIZE - 1} deltas minus the minimum delta, bit-packed into longs. The block index stores one long per
+ * block, containing the block offset shifted left by {@link #WIDTH_BITS} and the bit width of the packed deltas.
+ * <p>
+ * Only full blocks are encoded, the last {@code size % BLOCK_SIZE} elements are kept on-heap in {@link #tail}.
+ */
+class ShortCompressedBufferListImpl extends ShortBufferListImpl implements ShortCompressedBufferList {
+    private static final int BLOCK_SHIFT = 7;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int BLOCK_MASK = BLOCK_SIZE - 1;
+    private static final int WIDTH_BITS = 7;
+    private static final long WIDTH_MASK = (1 << WIDTH_BITS) - 1;
+    private static final long INITIAL_CAPACITY = 1024;
+
+    private LargeByteBuffer index = LargeByteBuffer.EMPTY;
+    /**
+     * Bytes used in {@link #buffer}.
+     */
+    private long dataSize;
+
+    private final long[] tail = new long[BLOCK_SIZE];
+
+    /**
+     * Cache of the last block that was decoded, to make sequential reads decode each block only once. A decoded block
+     * is never modified after it is published, so concurrent readers at worst replace each other's cache entry.
+     */
+    private DecodedBlock decoded;
+    /**
+     * Scratch space for packed words when encoding.
+     */
+    private final long[] words = new long[BLOCK_SIZE];
+
+    ShortCompressedBufferListImpl(LargeByteBufferAllocator allocator) {
+        super(allocator);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        index.close();
+        index = null;
+    }
+
+    /**
+     * The payload is the size of the elements before compression. Elements in the on-heap tail are not counted as
+     * used.
+     */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        long indexSize = (long) (size >>> BLOCK_SHIFT) * Long.BYTES;
+        return new MemoryFootprint(buffer.size() + index.size(), dataSize + indexSize, (long) size * Short.BYTES);
+    }
+
+    @Override
+    LargeByteBuffer directBuffer() {
+        return null;
+    }
+
+    @Override
+    public short get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+        int block = index >>> BLOCK_SHIFT;
+        if (block == size >>> BLOCK_SHIFT) {
+            return (short) tail[index & BLOCK_MASK];
+        }
+        DecodedBlock decoded = this.decoded;
+        if (decoded == null || decoded.block != block) {
+            decoded = decodeBlock(block);
+            this.decoded = decoded;
+        }
+        return (short) decoded.values[index & BLOCK_MASK];
+    }
+
+    private static int packedWords(int width) {
+        return ((BLOCK_SIZE - 1) * width + 63) >>> 6;
+    }
+
+    private DecodedBlock decodeBlock(int block) {
+        long indexEntry = index.getLong((long) block * Long.BYTES);
+        long offset = indexEntry >>> WIDTH_BITS;
+        int width = (int) (indexEntry & WIDTH_MASK);
+        long value = buffer.getLong(offset);
+        long minDelta = buffer.getLong(offset + Long.BYTES);
+        int wordCount = packedWords(width);
+        long[] words = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            words[i] = buffer.getLong(offset + (2 + i) * Long.BYTES);
+        }
+
+        long[] values = new long[BLOCK_SIZE];
+        values[0] = value;
+        long mask = width == 64 ? -1L : (1L << width) - 1;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            long delta = 0;
+            if (width != 0) {
+                int bit = (i - 1) * width;
+                int word = bit >>> 6;
+                int shift = bit & 63;
+                delta = words[word] >>> shift;
+                if (shift + width > 64) {
+                    delta |= words[word + 1] << (64 - shift);
+                }
+                delta &= mask;
+            }
+            value += minDelta + delta;
+            values[i] = value;
+        }
+        return new DecodedBlock(block, values);
+    }
+
+    /**
+     * Encode the full {@link #tail} as a new block.
+     */
+    private void flushTail() {
+        long minDelta = Long.MAX_VALUE;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            minDelta = Math.min(minDelta, tail[i] - tail[i - 1]);
+        }
+        long union = 0;
+        for (int i = 1; i < BLOCK_SIZE; i++) {
+            union |= tail[i] - tail[i - 1] - minDelta;
+        }
+        int width = 64 - Long.numberOfLeadingZeros(union);
+        int wordCount = packedWords(width);
+        if (width != 0) {
+            for (int i = 0; i < wordCount; i++) {
+                words[i] = 0;
+            }
+            for (int i = 1; i < BLOCK_SIZE; i++) {
+                long delta = tail[i] - tail[i - 1] - minDelta;
+                int bit = (i - 1) * width;
+                int word = bit >>> 6;
+                int shift = bit & 63;
+                words[word] |= delta << shift;
+                if (shift + width > 64) {
+                    words[word + 1] |= delta >>> (64 - shift);
+                }
+            }
+        }
+
+        int block = size >>> BLOCK_SHIFT;
+        long offset = dataSize;
+        long blockSize = (2 + wordCount) * (long) Long.BYTES;
+        buffer = ensureCapacity(buffer, dataSize, dataSize + blockSize);
+        buffer.setLong(offset, tail[0]);
+        buffer.setLong(offset + Long.BYTES, minDelta);
+        for (int i = 0; i < wordCount; i++) {
+            buffer.setLong(offset + (2 + i) * Long.BYTES, words[i]);
+        }
+        dataSize += blockSize;
+
+        long indexPosition = (long) block * Long.BYTES;
+        index = ensureCapacity(index, indexPosition, indexPosition + Long.BYTES);
+        index.setLong(indexPosition, (offset << WIDTH_BITS) | width);
+    }
+
+    private LargeByteBuffer ensureCapacity(LargeByteBuffer target, long used, long requiredCapacity) {
+        long currentCapacity = target.size();
+        if (requiredCapacity <= currentCapacity) {
+            return target;
+        }
+        long newCapacity = currentCapacity == 0 ? INITIAL_CAPACITY : currentCapacity;
+        while (requiredCapacity > newCapacity) {
+            newCapacity += newCapacity >> 1; // *= 1.5
+        }
+        LargeByteBuffer reallocated = target.reallocate(newCapacity);
+        if (reallocated != null) {
+            return reallocated;
+        }
+        LargeByteBuffer swap = allocator.allocate(newCapacity);
+        try {
+            swap.copyFrom(target, 0, 0, used);
+
+            LargeByteBuffer tmp = swap;
+            swap = target; // old buffer will be closed
+            return tmp;
+        } finally {
+            swap.close();
+        }
+    }
+
+    @Override
+    public boolean add(short element) {
+        if (size == Integer.MAX_VALUE) { throw new IllegalStateException("List is full"); }
+        tail[size & BLOCK_MASK] = element;
+        if ((size & BLOCK_MASK) == BLOCK_MASK) {
+            flushTail();
+        }
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(short... source) {
+        for (short element : source) {
+            add(element);
+        }
+        return source.length > 0;
+    }
+
+    @Override
+    public boolean addAll(ShortIterable source) {
+        int expectedSize = source.size();
+        ShortIterator itr = source.shortIterator();
+        int i = 0;
+        while (itr.hasNext()) {
+            if (i++ >= expectedSize) {
+                throw new ConcurrentModificationException();
+            }
+            add(itr.next());
+        }
+        return i > 0;
+    }
+
+    private static final class DecodedBlock {
+        final int block;
+        final long[] values;
+
+        DecodedBlock(int block, long[] values) {
+            this.block = block;
+            this.values = values;
+        }
+    }
+}
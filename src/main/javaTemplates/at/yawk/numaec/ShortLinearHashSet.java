@@ -0,0 +1,292 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.block.function.primitive.ShortToObjectFunction;
+import org.eclipse.collections.api.block.predicate.primitive.ShortPredicate;
+import org.eclipse.collections.api.set.MutableSet;
+import org.eclipse.collections.api.set.primitive.MutableShortSet;
+import org.eclipse.collections.impl.set.mutable.primitive.ShortHashSet;
+
+/**
+ * A set stored in a {@link LinearHashTable}. Entries only consist of the key (and hash, if configured), there is no
+ * value column.
+ */
+class ShortLinearHashSet extends BaseShortSet implements ShortBufferSet, LinearHashStatistics.Source {
+    private final float loadFactor;
+    private final float shrinkLoadFactor;
+    private final long sipHashK0, sipHashK1;
+    private final long hashMask;
+
+    protected final LinearHashTable table;
+    protected int size;
+    /**
+     * Size up to which no buckets need to be split, so that inserts can skip {@link #ensureCapacity(int)}.
+     */
+    private long growThreshold = 0;
+
+    ShortLinearHashSet(LargeByteBufferAllocator allocator, LinearHashMapConfig config) {
+        super(allocator);
+        this.sipHashK0 = config.sipHashK0.getAsLong();
+        this.sipHashK1 = config.sipHashK1.getAsLong();
+        this.loadFactor = config.loadFactor;
+        this.shrinkLoadFactor = config.shrinkLoadFactor;
+        int hashLength = config.hashLength;
+        this.hashMask = hashLength == 0 ? -1L : ~(-1L >>> hashLength);
+        this.table = new LinearHashTable(allocator, config, hashLength, Short.BYTES, 0) {
+            @Override
+            protected void writeHash(LargeByteBuffer lbb, long address, long hash) {
+                if ((hash & ~hashMask) != 0) {
+                    throw new AssertionError();
+                }
+                BTree.uset(lbb, address, hashLength, Long.reverse(hash));
+            }
+
+            @Override
+            protected void writeKey(LargeByteBuffer lbb, long address, long key) {
+                lbb.setShort(address, fromKey(key));
+            }
+
+            @Override
+            protected void writeValue(LargeByteBuffer lbb, long address, long value) {
+            }
+
+            @Override
+            protected long readHash(LargeByteBuffer lbb, long address) {
+                return Long.reverse(BTree.uget(lbb, address, hashLength));
+            }
+
+            @Override
+            protected long readKey(LargeByteBuffer lbb, long address) {
+                return toKey(lbb.getShort(address));
+            }
+
+            @Override
+            protected long readValue(LargeByteBuffer lbb, long address) {
+                return 0;
+            }
+
+            @Override
+            protected long hashOfKey(long key) {
+                return hash(fromKey(key));
+            }
+        };
+    }
+
+    protected void ensureCapacity(int capacity) {
+        if (capacity > growThreshold) {
+            table.expandToFullLoadCapacity((long) (capacity / loadFactor));
+            updateGrowThreshold();
+        }
+    }
+
+    protected void updateGrowThreshold() {
+        growThreshold = (long) (table.fullLoadCapacity() * (double) loadFactor);
+    }
+
+    /**
+     * Merge buckets if the set has become sparse after removals.
+     */
+    protected void trimCapacity(int capacity) {
+        if (shrinkLoadFactor != 0) {
+            table.contractToFullLoadCapacity((long) (capacity / shrinkLoadFactor));
+            updateGrowThreshold();
+        }
+    }
+
+    @Override
+    protected MapStoreCursor iterationCursor() {
+        return table.allocateCursor();
+    }
+
+    @Override
+    protected MapStoreCursor keyCursor(short element) {
+        LinearHashTable.Cursor cursor = table.allocateCursor();
+        cursor.seek(hash(element), toKey(element));
+        return cursor;
+    }
+
+    @Override
+    public boolean contains(short value) {
+        return table.containsKey(hash(value), toKey(value));
+    }
+
+    @DoNotMutate
+    @Override
+    void checkInvariants() {
+        super.checkInvariants();
+        table.checkInvariants();
+    }
+
+    protected long hash(short element) {
+        return SipHash.sipHash2_4_8_to_8(sipHashK0, sipHashK1, toKey(element)) & hashMask;
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return table.memoryFootprint((long) size() * Short.BYTES);
+    }
+
+    @Override
+    public LinearHashStatistics linearHashStatistics() {
+        return table.statistics();
+    }
+
+    @Override
+    public void close() {
+        table.close();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public static class Mutable extends ShortLinearHashSet implements MutableShortBufferSet {
+        Mutable(LargeByteBufferAllocator allocator, LinearHashMapConfig config) {
+            super(allocator, config);
+        }
+
+        @Override
+        public boolean add(short element) {
+            long h = hash(element);
+            long k = toKey(element);
+            try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
+                cursor.seek(h, k);
+                if (cursor.elementFound()) {
+                    return false;
+                } else {
+                    cursor.insert(h, k, 0);
+                    size++;
+                    ensureCapacity(size);
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public boolean addAll(short... source) {
+            ensureCapacity(size + source.length);
+            boolean changed = false;
+            for (short element : source) {
+                changed |= add(element);
+            }
+            return changed;
+        }
+
+        @Override
+        public boolean addAll(ShortIterable source) {
+            // this is too pessimistic when the given elements overlap with ours but probably covers the main use
+            // cases just fine
+            ensureCapacity(size + source.size());
+            boolean[] changed = { false };
+            source.forEach(element -> changed[0] |= add(element));
+            return changed[0];
+        }
+
+        @Override
+        public boolean remove(short element) {
+            try (LinearHashTable.Cursor cursor = table.allocateCursor()) {
+                cursor.seek(hash(element), toKey(element));
+                if (cursor.elementFound()) {
+                    cursor.remove();
+                    size--;
+                    trimCapacity(size);
+                    return true;
+                } else {
+                    return false;
+                }
+            }
+        }
+
+        @Override
+        public boolean removeAll(ShortIterable source) {
+            boolean[] changed = { false };
+            source.forEach(element -> changed[0] |= remove(element));
+            return changed[0];
+        }
+
+        @Override
+        public boolean removeAll(short... source) {
+            boolean changed = false;
+            for (short element : source) {
+                changed |= remove(element);
+            }
+            return changed;
+        }
+
+        @Override
+        public boolean removeIf(ShortPredicate predicate) {
+            try (MutableShortBufferList matching = collectMatching(predicate)) {
+                matching.forEach(this::remove);
+                return matching.notEmpty();
+            }
+        }
+
+        @Override
+        public boolean retainAll(ShortIterable elements) {
+            return removeIf(element -> !elements.contains(element));
+        }
+
+        @Override
+        public boolean retainAll(short... source) {
+            return retainAll(ShortHashSet.newSetWith(source));
+        }
+
+        @Override
+        public void clear() {
+            table.clear();
+            size = 0;
+            updateGrowThreshold();
+        }
+
+        @Override
+        public MutableShortSet with(short element) {
+            add(element);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet without(short element) {
+            remove(element);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet withAll(ShortIterable elements) {
+            addAll(elements);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet withoutAll(ShortIterable elements) {
+            removeAll(elements);
+            return this;
+        }
+
+        @Override
+        public MutableShortSet asUnmodifiable() {
+            throw new UnsupportedOperationException("Mutable.asUnmodifiable not implemented yet");
+        }
+
+        @Override
+        public MutableShortSet asSynchronized() {
+            throw new UnsupportedOperationException("Mutable.asSynchronized not implemented yet");
+        }
+
+        @Override
+        public MutableShortSet select(ShortPredicate predicate) {
+            throw new UnsupportedOperationException("ShortBufferSet.Mutable.select not implemented yet");
+        }
+
+        @Override
+        public MutableShortSet reject(ShortPredicate predicate) {
+            throw new UnsupportedOperationException("ShortBufferSet.Mutable.reject not implemented yet");
+        }
+
+        @Override
+        public <V> MutableSet<V> collect(ShortToObjectFunction<? extends V> function) {
+            throw new UnsupportedOperationException("ShortBufferSet.Mutable.collect not implemented yet");
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/* with short|byte|char|int|long|float|double element */
+package at.yawk.numaec;
+
+import org.eclipse.collections.api.list.primitive.ShortList;
+
+/**
+ * Set operations on sorted lists. Inputs must be sorted in ascending order, duplicate elements are treated as a
+ * multiset. Results are written to a new list allocated from the given allocator.
+ * <p>
+ * Long runs that do not contribute to a result, or that are copied to it unchanged, are skipped using exponential
+ * search, so the cost for lists of very different sizes is logarithmic in the size of the larger list. Lists
+ * created by {@link MutableShortBufferListFactory} are read directly from their buffer without bounds checks.
+ */
+public final class SortedShortBufferLists {
+    private SortedShortBufferLists() {
+    }
+
+    /**
+     * @return The elements contained in both lists.
+     */
+    public static MutableShortBufferList intersect(LargeByteBufferAllocator allocator, ShortList a, ShortList b) {
+        ShortBufferListImpl.Mutable result = newList(allocator);
+        Input left = new Input(a);
+        Input right = new Input(b);
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            short x = left.get(i);
+            short y = right.get(j);
+            if (x < y) {
+                i = left.gallop(i + 1, y);
+            } else if (x > y) {
+                j = right.gallop(j + 1, x);
+            } else {
+                result.add(x);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return The elements contained in either list.
+     */
+    public static MutableShortBufferList union(LargeByteBufferAllocator allocator, ShortList a, ShortList b) {
+        ShortBufferListImpl.Mutable result = newList(allocator);
+        Input left = new Input(a);
+        Input right = new Input(b);
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            short x = left.get(i);
+            short y = right.get(j);
+            if (x < y) {
+                int end = left.gallop(i + 1, y);
+                result.addRange(a, i, end - i);
+                i = end;
+            } else if (x > y) {
+                int end = right.gallop(j + 1, x);
+                result.addRange(b, j, end - j);
+                j = end;
+            } else {
+                result.add(x);
+                i++;
+                j++;
+            }
+        }
+        result.addRange(a, i, left.size - i);
+        result.addRange(b, j, right.size - j);
+        return result;
+    }
+
+    /**
+     * @return The elements of {@code a} that are not contained in {@code b}.
+     */
+    public static MutableShortBufferList difference(LargeByteBufferAllocator allocator, ShortList a, ShortList b) {
+        ShortBufferListImpl.Mutable result = newList(allocator);
+        Input left = new Input(a);
+        Input right = new Input(b);
+        int i = 0;
+        int j = 0;
+        while (i < left.size && j < right.size) {
+            short x = left.get(i);
+            short y = right.get(j);
+            if (x < y) {
+                int end = left.gallop(i + 1, y);
+                result.addRange(a, i, end - i);
+                i = end;
+            } else if (x > y) {
+                j = right.gallop(j + 1, x);
+            } else {
+                i++;
+                j++;
+            }
+        }
+        result.addRange(a, i, left.size - i);
+        return result;
+    }
+
+    /**
+     * Merge any number of sorted lists into one sorted list, keeping all elements.
+     */
+    public static MutableShortBufferList merge(LargeByteBufferAllocator allocator, ShortList... lists) {
+        ShortBufferListImpl.Mutable result = newList(allocator);
+        Input[] inputs = new Input[lists.length];
+        int[] positions = new int[lists.length];
+        // binary min-heap of input indices, ordered by the current element of each input
+        int[] heap = new int[lists.length];
+        int heapSize = 0;
+        for (int k = 0; k < lists.length; k++) {
+            inputs[k] = new Input(lists[k]);
+            if (inputs[k].size > 0) {
+                heap[heapSize] = k;
+                siftUp(inputs, positions, heap, heapSize++);
+            }
+        }
+        while (heapSize > 1) {
+            int k = heap[0];
+            // the smallest element of the other inputs is one of the two children of the root
+            short limit = inputs[heap[1]].get(positions[heap[1]]);
+            if (heapSize > 2) {
+                short other = inputs[heap[2]].get(positions[heap[2]]);
+                if (other < limit) {
+                    limit = other;
+                }
+            }
+            int start = positions[k];
+            int end = inputs[k].gallopPast(start + 1, limit);
+            result.addRange(lists[k], start, end - start);
+            if (end == inputs[k].size) {
+                heap[0] = heap[--heapSize];
+            } else {
+                positions[k] = end;
+            }
+            siftDown(inputs, positions, heap, heapSize);
+        }
+        if (heapSize == 1) {
+            int k = heap[0];
+            result.addRange(lists[k], positions[k], inputs[k].size - positions[k]);
+        }
+        return result;
+    }
+
+    private static boolean lessThan(Input[] inputs, int[] positions, int a, int b) {
+        return inputs[a].get(positions[a]) < inputs[b].get(positions[b]);
+    }
+
+    private static void siftUp(Input[] inputs, int[] positions, int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!lessThan(inputs, positions, heap[i], heap[parent])) {
+                break;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = tmp;
+            i = parent;
+        }
+    }
+
+    private static void siftDown(Input[] inputs, int[] positions, int[] heap, int heapSize) {
+        int i = 0;
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < heapSize && lessThan(inputs, positions, heap[left], heap[smallest])) {
+                smallest = left;
+            }
+            if (right < heapSize && lessThan(inputs, positions, heap[right], heap[smallest])) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                break;
+            }
+            int tmp = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = tmp;
+            i = smallest;
+        }
+    }
+
+    private static ShortBufferListImpl.Mutable newList(LargeByteBufferAllocator allocator) {
+        return new ShortBufferListImpl.Mutable(allocator);
+    }
+
+    private static final class Input {
+        final ShortList list;
+        /**
+         * The backing buffer if the list is a plain buffer list, for unchecked access.
+         */
+        final LargeByteBuffer buffer;
+        final int size;
+
+        Input(ShortList list) {
+            this.list = list;
+            this.buffer = list instanceof ShortBufferListImpl ? ((ShortBufferListImpl) list).directBuffer() : null;
+            this.size = list.size();
+        }
+
+        short get(int index) {
+            if (buffer != null) {
+                return buffer.getShort(((long) index) * Short.BYTES);
+            } else {
+                return list.get(index);
+            }
+        }
+
+        /**
+         * @return The first index at or after {@code from} whose element is not less than {@code key}, or
+         * {@link #size} if there is none.
+         */
+        int gallop(int from, short key) {
+            int low = from;
+            int step = 1;
+            // find an upper bound by exponential search
+            while (low < size && get(low) < key) {
+                int next = (int) Math.min((long) low + step, size);
+                if (next == size || !(get(next) < key)) {
+                    return binarySearch(low + 1, next, key, false);
+                }
+                low = next + 1;
+                step <<= 1;
+            }
+            return low;
+        }
+
+        /**
+         * @return The first index at or after {@code from} whose element is greater than {@code key}, or
+         * {@link #size} if there is none.
+         */
+        int gallopPast(int from, short key) {
+            int low = from;
+            int step = 1;
+            while (low < size && !(get(low) > key)) {
+                int next = (int) Math.min((long) low + step, size);
+                if (next == size || get(next) > key) {
+                    return binarySearch(low + 1, next, key, true);
+                }
+                low = next + 1;
+                step <<= 1;
+            }
+            return low;
+        }
+
+        /**
+         * Find the first index in {@code [low, high)} whose element is greater than ({@code inclusive}) or not less
+         * than ({@code !inclusive}) the key, or {@code high} if there is none.
+         */
+        private int binarySearch(int low, int high, short key, boolean inclusive) {
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                short value = get(mid);
+                boolean before = inclusive ? !(value > key) : value < key;
+                if (before) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
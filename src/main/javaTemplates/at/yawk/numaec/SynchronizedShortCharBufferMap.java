@@ -0,0 +1,626 @@
+/* with short|byte|char|int|long|float|double key
+        char|byte|short|int|long|float|double value */
+/* define aggregate //
+// if double|float value //double
+// elif short|byte|char|int|long value //long
+// endif //
+// enddefine*/
+package at.yawk.numaec;
+
+import java.util.Iterator;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import org.eclipse.collections.api.CharIterable;
+import org.eclipse.collections.api.LazyCharIterable;
+import org.eclipse.collections.api.LazyShortIterable;
+import org.eclipse.collections.api.RichIterable;
+import org.eclipse.collections.api.ShortIterable;
+import org.eclipse.collections.api.bag.MutableBag;
+import org.eclipse.collections.api.bag.primitive.MutableCharBag;
+import org.eclipse.collections.api.block.function.primitive.CharCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharFunction0;
+import org.eclipse.collections.api.block.function.primitive.CharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.CharToObjectFunction;
+import org.eclipse.collections.api.block.function.primitive.ObjectCharToObjectFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortCharToCharFunction;
+import org.eclipse.collections.api.block.function.primitive.ShortToCharFunction;
+import org.eclipse.collections.api.block.predicate.primitive.CharPredicate;
+import org.eclipse.collections.api.block.predicate.primitive.ShortCharPredicate;
+import org.eclipse.collections.api.block.procedure.Procedure;
+import org.eclipse.collections.api.block.procedure.primitive.CharProcedure;
+import org.eclipse.collections.api.block.procedure.primitive.ShortCharProcedure;
+import org.eclipse.collections.api.block.procedure.primitive.ShortProcedure;
+import org.eclipse.collections.api.collection.primitive.MutableCharCollection;
+import org.eclipse.collections.api.iterator.MutableCharIterator;
+import org.eclipse.collections.api.iterator.ShortIterator;
+import org.eclipse.collections.api.list.primitive.MutableCharList;
+import org.eclipse.collections.api.map.primitive.ImmutableShortCharMap;
+import org.eclipse.collections.api.map.primitive.MutableCharShortMap;
+import org.eclipse.collections.api.map.primitive.MutableShortCharMap;
+import org.eclipse.collections.api.map.primitive.ShortCharMap;
+import org.eclipse.collections.api.set.primitive.MutableCharSet;
+import org.eclipse.collections.api.set.primitive.MutableShortSet;
+import org.eclipse.collections.api.tuple.primitive.ShortCharPair;
+import org.eclipse.collections.impl.lazy.AbstractLazyIterable;
+import org.eclipse.collections.impl.lazy.primitive.AbstractLazyShortIterable;
+import org.eclipse.collections.impl.lazy.primitive.LazyCharIterableAdapter;
+
+/**
+ * Thread-safe view of a {@link MutableShortCharBufferMap}, returned by {@code asSynchronized()}.
+ * <p>
+ * Writes hold the write lock of a {@link StampedLock}. Bulk reads hold the read lock, so any number of them can run in
+ * parallel. Single-key lookups first walk the underlying structure without locking and only fall back to the read lock
+ * if a write happened in the meantime. Bulk reads are never attempted optimistically since they may pass inconsistent
+ * data to user callbacks.
+ * <p>
+ * Callbacks passed to this map run while the lock is held, and must not access this map again. {@link #charIterator()}
+ * and the iterators of {@link #keysView()} and {@link #keyValuesView()} are not guarded and must not be used while
+ * another thread writes to the map.
+ */
+final class SynchronizedShortCharBufferMap
+        implements MutableShortCharBufferMap, BTreeStatistics.Source, LinearHashStatistics.Source {
+    private final MutableShortCharBufferMap delegate;
+    private final StampedLock lock = new StampedLock();
+
+    SynchronizedShortCharBufferMap(MutableShortCharBufferMap delegate) {
+        this.delegate = delegate;
+    }
+
+    private <R> R read(Supplier<R> action) {
+        long stamp = lock.readLock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <R> R write(Supplier<R> action) {
+        long stamp = lock.writeLock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void write(Runnable action) {
+        long stamp = lock.writeLock();
+        try {
+            action.run();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char get(short key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                char value = delegate.get(key);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                // a concurrent write may have left the structure in an intermediate state, retry under lock below
+                if (lock.validate(stamp)) { throw e; }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return delegate.get(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public char getIfAbsent(short key, char ifAbsent) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                char value = delegate.getIfAbsent(key, ifAbsent);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                if (lock.validate(stamp)) { throw e; }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return delegate.getIfAbsent(key, ifAbsent);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public char getOrThrow(short key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                char value = delegate.getOrThrow(key);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                // this also covers the IllegalStateException for absent keys
+                if (lock.validate(stamp)) { throw e; }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return delegate.getOrThrow(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public boolean containsKey(short key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                boolean found = delegate.containsKey(key);
+                if (lock.validate(stamp)) {
+                    return found;
+                }
+            } catch (RuntimeException | AssertionError e) {
+                if (lock.validate(stamp)) { throw e; }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return delegate.containsKey(key);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void getAll(short[] keys, char[] valuesOut, boolean[] found) {
+        read(() -> {
+            delegate.getAll(keys, valuesOut, found);
+            return null;
+        });
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int size = delegate.size();
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                size = delegate.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean notEmpty() {
+        return size() != 0;
+    }
+
+    @Override
+    public boolean containsValue(char value) {
+        return read(() -> delegate.containsValue(value));
+    }
+
+    @Override
+    public boolean contains(char value) {
+        return read(() -> delegate.contains(value));
+    }
+
+    @Override
+    public boolean containsAll(char... source) {
+        return read(() -> delegate.containsAll(source));
+    }
+
+    @Override
+    public boolean containsAll(CharIterable source) {
+        return read(() -> delegate.containsAll(source));
+    }
+
+    @Override
+    public void forEachKey(ShortProcedure procedure) {
+        read(() -> {
+            delegate.forEachKey(procedure);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachValue(CharProcedure procedure) {
+        read(() -> {
+            delegate.forEachValue(procedure);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachKeyValue(ShortCharProcedure procedure) {
+        read(() -> {
+            delegate.forEachKeyValue(procedure);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEach(CharProcedure procedure) {
+        each(procedure);
+    }
+
+    @Override
+    public void each(CharProcedure procedure) {
+        read(() -> {
+            delegate.each(procedure);
+            return null;
+        });
+    }
+
+    @Override
+    public LazyShortIterable keysView() {
+        return new AbstractLazyShortIterable() {
+            @Override
+            public ShortIterator shortIterator() {
+                return delegate.keysView().shortIterator();
+            }
+
+            @Override
+            public void each(ShortProcedure procedure) {
+                forEachKey(procedure);
+            }
+        };
+    }
+
+    @Override
+    public RichIterable<ShortCharPair> keyValuesView() {
+        return new AbstractLazyIterable<ShortCharPair>() {
+            @Override
+            public Iterator<ShortCharPair> iterator() {
+                return delegate.keyValuesView().iterator();
+            }
+
+            @Override
+            public void each(Procedure<? super ShortCharPair> procedure) {
+                read(() -> {
+                    delegate.keyValuesView().each(procedure);
+                    return null;
+                });
+            }
+        };
+    }
+
+    @Override
+    public MutableCharIterator charIterator() {
+        return delegate.charIterator();
+    }
+
+    @Override
+    public LazyCharIterable asLazy() {
+        return new LazyCharIterableAdapter(this);
+    }
+
+    @Override
+    public char[] toArray() {
+        return read(delegate::toArray);
+    }
+
+    @Override
+    public char[] toSortedArray() {
+        return read(delegate::toSortedArray);
+    }
+
+    @Override
+    public MutableCharList toList() {
+        return read(delegate::toList);
+    }
+
+    @Override
+    public MutableCharList toSortedList() {
+        return read(delegate::toSortedList);
+    }
+
+    @Override
+    public MutableCharSet toSet() {
+        return read(delegate::toSet);
+    }
+
+    @Override
+    public MutableCharBag toBag() {
+        return read(delegate::toBag);
+    }
+
+    @Override
+    public ImmutableShortCharMap toImmutable() {
+        return read(delegate::toImmutable);
+    }
+
+    @Override
+    public char detectIfNone(CharPredicate predicate, char ifNone) {
+        return read(() -> delegate.detectIfNone(predicate, ifNone));
+    }
+
+    @Override
+    public int count(CharPredicate predicate) {
+        return read(() -> delegate.count(predicate));
+    }
+
+    @Override
+    public boolean anySatisfy(CharPredicate predicate) {
+        return read(() -> delegate.anySatisfy(predicate));
+    }
+
+    @Override
+    public boolean allSatisfy(CharPredicate predicate) {
+        return read(() -> delegate.allSatisfy(predicate));
+    }
+
+    @Override
+    public boolean noneSatisfy(CharPredicate predicate) {
+        return read(() -> delegate.noneSatisfy(predicate));
+    }
+
+    @Override
+    public <T> T injectInto(T injectedValue, ObjectCharToObjectFunction<? super T, ? extends T> function) {
+        return read(() -> delegate.injectInto(injectedValue, function));
+    }
+
+    @Override
+    public /*aggregate*/long/**/ sum() {
+        return read(delegate::sum);
+    }
+
+    @Override
+    public char max() {
+        return read(delegate::max);
+    }
+
+    @Override
+    public char min() {
+        return read(delegate::min);
+    }
+
+    @Override
+    public char maxIfEmpty(char defaultValue) {
+        return read(() -> delegate.maxIfEmpty(defaultValue));
+    }
+
+    @Override
+    public char minIfEmpty(char defaultValue) {
+        return read(() -> delegate.minIfEmpty(defaultValue));
+    }
+
+    @Override
+    public double average() {
+        return read(delegate::average);
+    }
+
+    @Override
+    public double median() {
+        return read(delegate::median);
+    }
+
+    @Override
+    public void appendString(Appendable appendable, String start, String separator, String end) {
+        read(() -> {
+            delegate.appendString(appendable, start, separator, end);
+            return null;
+        });
+    }
+
+    @Override
+    public MutableShortCharMap select(ShortCharPredicate predicate) {
+        return read(() -> delegate.select(predicate));
+    }
+
+    @Override
+    public MutableShortCharMap reject(ShortCharPredicate predicate) {
+        return read(() -> delegate.reject(predicate));
+    }
+
+    @Override
+    public MutableCharBag select(CharPredicate predicate) {
+        return read(() -> delegate.select(predicate));
+    }
+
+    @Override
+    public MutableCharBag reject(CharPredicate predicate) {
+        return read(() -> delegate.reject(predicate));
+    }
+
+    @Override
+    public <V> MutableBag<V> collect(CharToObjectFunction<? extends V> function) {
+        return read(() -> delegate.collect(function));
+    }
+
+    @Override
+    public MutableCharShortMap flipUniqueValues() {
+        return read(delegate::flipUniqueValues);
+    }
+
+    @Override
+    public MutableShortSet keySet() {
+        throw new UnsupportedOperationException("SynchronizedShortCharBufferMap.keySet not implemented yet");
+    }
+
+    @Override
+    public MutableCharCollection values() {
+        throw new UnsupportedOperationException("SynchronizedShortCharBufferMap.values not implemented yet");
+    }
+
+    @Override
+    public void put(short key, char value) {
+        long stamp = lock.writeLock();
+        try {
+            delegate.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void putAll(ShortCharMap map) {
+        write(() -> delegate.putAll(map));
+    }
+
+    @Override
+    public void updateValues(ShortCharToCharFunction function) {
+        write(() -> delegate.updateValues(function));
+    }
+
+    @Override
+    public void removeKey(short key) {
+        long stamp = lock.writeLock();
+        try {
+            delegate.removeKey(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void remove(short key) {
+        removeKey(key);
+    }
+
+    @Override
+    public char removeKeyIfAbsent(short key, char value) {
+        long stamp = lock.writeLock();
+        try {
+            return delegate.removeKeyIfAbsent(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char getIfAbsentPut(short key, char value) {
+        long stamp = lock.writeLock();
+        try {
+            return delegate.getIfAbsentPut(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char getIfAbsentPut(short key, CharFunction0 function) {
+        return write(() -> delegate.getIfAbsentPut(key, function));
+    }
+
+    @Override
+    public char getIfAbsentPutWithKey(short key, ShortToCharFunction function) {
+        return write(() -> delegate.getIfAbsentPutWithKey(key, function));
+    }
+
+    @Override
+    public <P> char getIfAbsentPutWith(short key, CharFunction<? super P> function, P parameter) {
+        return write(() -> delegate.getIfAbsentPutWith(key, function, parameter));
+    }
+
+    @Override
+    public char updateValue(short key, char initialValueIfAbsent, CharToCharFunction function) {
+        return write(() -> delegate.updateValue(key, initialValueIfAbsent, function));
+    }
+
+    @Override
+    public char addToValue(short key, char toBeAdded) {
+        long stamp = lock.writeLock();
+        try {
+            return delegate.addToValue(key, toBeAdded);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public char merge(short key, char value, CharCharToCharFunction remappingFunction) {
+        return write(() -> delegate.merge(key, value, remappingFunction));
+    }
+
+    @Override
+    public MutableShortCharMap withKeyValue(short key, char value) {
+        put(key, value);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap withoutKey(short key) {
+        removeKey(key);
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap withoutAllKeys(ShortIterable keys) {
+        write(() -> delegate.withoutAllKeys(keys));
+        return this;
+    }
+
+    @Override
+    public MutableShortCharMap asUnmodifiable() {
+        throw new UnsupportedOperationException("SynchronizedShortCharBufferMap.asUnmodifiable not implemented yet");
+    }
+
+    @Override
+    public ShortCharMapCursor cursor() {
+        throw new UnsupportedOperationException("SynchronizedShortCharBufferMap.cursor not implemented yet");
+    }
+
+    @Override
+    public MutableShortCharMap asSynchronized() {
+        return this;
+    }
+
+    @Override
+    public void clear() {
+        write(delegate::clear);
+    }
+
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return read(delegate::memoryFootprint);
+    }
+
+    @Override
+    public BTreeStatistics bTreeStatistics() {
+        return read(() -> BTreeStatistics.of(delegate));
+    }
+
+    @Override
+    public LinearHashStatistics linearHashStatistics() {
+        return read(() -> LinearHashStatistics.of(delegate));
+    }
+
+    @Override
+    public void close() {
+        write(delegate::close);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o == this || read(() -> delegate.equals(o));
+    }
+
+    @Override
+    public int hashCode() {
+        return read(delegate::hashCode);
+    }
+
+    @Override
+    public String toString() {
+        return read(delegate::toString);
+    }
+}
@@ -3,8 +3,12 @@ package at.yawk.numaec;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.TreeMap;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.LongSupplier;
@@ -163,6 +167,31 @@ public final class BTreeTest {
         }
     }
 
+    @Test(dataProvider = "config")
+    public void statistics(BTreeConfig config) {
+        BTree bTree = new BTreeImpl(config);
+        BTreeStatistics empty = bTree.statistics();
+        Assert.assertEquals(empty.levelCount(), 0);
+        Assert.assertEquals(empty.leafCount(), 0);
+        Assert.assertEquals(empty.leafSequentiality(), 1.0);
+
+        for (int i = 0; i < 1000; i++) {
+            insert(bTree, i, i & 0xff);
+        }
+        BTreeStatistics statistics = bTree.statistics();
+        Assert.assertEquals(statistics.levelCount(), bTree.levelCount);
+        Assert.assertEquals(statistics.nodeCount(0), 1);
+        long branchCount = 0;
+        for (int level = 0; level < statistics.levelCount() - 1; level++) {
+            Assert.assertTrue(statistics.nodeCount(level) < statistics.nodeCount(level + 1));
+            branchCount += statistics.nodeCount(level);
+        }
+        Assert.assertEquals(Arrays.stream(statistics.leafFillHistogram()).sum(), statistics.leafCount());
+        Assert.assertEquals(Arrays.stream(statistics.branchFillHistogram()).sum(), branchCount);
+        Assert.assertTrue(statistics.sequentialLeafCount() < statistics.leafCount());
+        Assert.assertTrue(statistics.leafSequentiality() >= 0 && statistics.leafSequentiality() <= 1);
+    }
+
     @Test(dataProvider = "config")
     public void find(BTreeConfig config) {
         BTree bTree = new BTreeImpl(config);
@@ -181,6 +210,19 @@ public final class BTreeTest {
         }
     }
 
+    @Test(dataProvider = "config")
+    public void findWithoutCursor(BTreeConfig config) {
+        BTree bTree = new BTreeImpl(config);
+        Assert.assertFalse(bTree.containsKey(0));
+        for (int i = 0; i < 1000; i += 2) {
+            insert(bTree, i, i / 2);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(bTree.containsKey(i), i % 2 == 0);
+            Assert.assertEquals(bTree.get(i, -1), i % 2 == 0 ? i / 2 : -1);
+        }
+    }
+
     @Test(dataProvider = "config")
     public void iterate(BTreeConfig config) {
         BTree bTree = new BTreeImpl(config);
@@ -306,6 +348,110 @@ public final class BTreeTest {
         }
     }
 
+    @DataProvider
+    public Object[][] copyOnWriteRandom() {
+        List<BTreeConfig> configs = Arrays.asList(
+                BTreeConfig.builder().blockSize(64).entryMustBeInLeaf(true).copyOnWrite(true).build(),
+                BTreeConfig.builder().blockSize(64).entryMustBeInLeaf(false).copyOnWrite(true).build(),
+                BTreeConfig.builder().blockSize(128).entryMustBeInLeaf(true).copyOnWrite(true).build(),
+                BTreeConfig.builder().blockSize(128).entryMustBeInLeaf(false).copyOnWrite(true).build()
+        );
+        return configs.stream()
+                .flatMap(c -> IntStream.range(0, 5).mapToObj(seed -> new Object[]{ c, new Random(seed) }))
+                .toArray(Object[][]::new);
+    }
+
+    private static Map<Long, Long> snapshotToMap(BTree.Snapshot snapshot) {
+        Map<Long, Long> map = new TreeMap<>();
+        try (BTree.Cursor cursor = snapshot.allocateCursor()) {
+            cursor.descendToStart();
+            while (cursor.next()) {
+                map.put(cursor.getKey(), cursor.getValue());
+            }
+        }
+        return map;
+    }
+
+    @Test(dataProvider = "copyOnWriteRandom")
+    public void copyOnWriteSnapshots(BTreeConfig config, Random rng) {
+        BTree bTree = new BTreeImpl(config);
+        Map<Long, Long> live = new TreeMap<>();
+        Map<BTree.Snapshot, Map<Long, Long>> snapshots = new LinkedHashMap<>();
+        for (int op = 0; op < 3000; op++) {
+            long key = rng.nextInt(500);
+            long value = rng.nextInt(0x10000);
+            if (live.containsKey(key)) {
+                if (rng.nextBoolean()) {
+                    replace(bTree, key, value);
+                    live.put(key, value);
+                } else {
+                    Assert.assertEquals(remove(bTree, key), (long) live.remove(key));
+                }
+            } else {
+                insert(bTree, key, value);
+                live.put(key, value);
+            }
+            bTree.checkInvariants();
+
+            if (op % 100 == 0) {
+                snapshots.put(bTree.snapshot(), new TreeMap<>(live));
+            }
+            if (op % 150 == 0 && !snapshots.isEmpty()) {
+                // close a random snapshot
+                Iterator<BTree.Snapshot> itr = snapshots.keySet().iterator();
+                BTree.Snapshot victim = itr.next();
+                for (int i = rng.nextInt(snapshots.size()); i > 0; i--) {
+                    victim = itr.next();
+                }
+                Assert.assertEquals(snapshotToMap(victim), snapshots.remove(victim));
+                victim.close();
+            }
+        }
+        for (Map.Entry<BTree.Snapshot, Map<Long, Long>> entry : snapshots.entrySet()) {
+            Assert.assertEquals(snapshotToMap(entry.getKey()), entry.getValue());
+            for (Map.Entry<Long, Long> e : entry.getValue().entrySet()) {
+                try (BTree.Cursor cursor = entry.getKey().allocateCursor()) {
+                    cursor.descendToKey(e.getKey());
+                    Assert.assertTrue(cursor.elementFound());
+                    Assert.assertEquals(cursor.getValue(), (long) e.getValue());
+                }
+            }
+            entry.getKey().close();
+        }
+        Assert.assertEquals(keysToList(bTree), LongLists.mutable.withAll(live.keySet().stream().mapToLong(l -> l)));
+    }
+
+    @Test(dataProvider = "copyOnWriteRandom")
+    public void copyOnWriteReclaimsPages(BTreeConfig config, Random rng) {
+        BTree bTree = new BTreeImpl(config);
+        for (int i = 0; i < 1000; i++) {
+            insert(bTree, i, i);
+        }
+        int initialPages = bTree.toStringBlocksHex().length;
+        for (int round = 0; round < 50; round++) {
+            try (BTree.Snapshot snapshot = bTree.snapshot()) {
+                for (int i = 0; i < 1000; i++) {
+                    replace(bTree, i, (i + round + rng.nextInt(10)) & 0xffff);
+                }
+                Assert.assertEquals(snapshotToMap(snapshot).size(), 1000);
+            }
+        }
+        bTree.checkInvariants();
+        // every round copies the whole tree once, but the copies of the previous round must have been reused
+        Assert.assertTrue(bTree.toStringBlocksHex().length <= initialPages * 3);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void snapshotIsReadOnly() {
+        BTree bTree = new BTreeImpl(BTreeConfig.builder().blockSize(64).copyOnWrite(true).build());
+        insert(bTree, 1, 2);
+        try (BTree.Snapshot snapshot = bTree.snapshot();
+             BTree.Cursor cursor = snapshot.allocateCursor()) {
+            cursor.descendToKey(1);
+            cursor.setValue(3);
+        }
+    }
+
     @Test(expectedExceptions = IllegalStateException.class,
             // check exact message so we don't run into one of the other ISEs
             expectedExceptionsMessageRegExp = BTree.MESSAGE_POINTER_TOO_SMALL)
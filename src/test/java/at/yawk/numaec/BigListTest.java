@@ -0,0 +1,146 @@
+package at.yawk.numaec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.eclipse.collections.api.iterator.MutableLongIterator;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("resource")
+public final class BigListTest {
+    private static MutableLongBufferBigList newMutable(LargeByteBufferAllocator allocator) {
+        return MutableLongBufferBigListFactory.withAllocator(allocator).empty();
+    }
+
+    private static long[] toArray(LongBufferBigList list) {
+        long[] array = new long[Math.toIntExact(list.size64())];
+        list.getElements(0, array, 0, array.length);
+        return array;
+    }
+
+    @DataProvider
+    public Object[][] allocator() {
+        return new ListTest().allocator();
+    }
+
+    @Test(dataProvider = "allocator")
+    public void addAndGet(LargeByteBufferAllocator allocator) {
+        MutableLongBufferBigList list = newMutable(allocator);
+        MutableLongList reference = LongLists.mutable.empty();
+        for (long i = 0; i < 1000; i++) {
+            list.add(i * 3);
+            reference.add(i * 3);
+        }
+        Assert.assertEquals(list.size64(), 1000);
+        Assert.assertEquals(toArray(list), reference.toArray());
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(list.getLong(i), reference.get(i));
+        }
+        ListTest.assertThrows(IndexOutOfBoundsException.class, () -> list.getLong(1000));
+        ListTest.assertThrows(IndexOutOfBoundsException.class, () -> list.getLong(-1));
+    }
+
+    @Test(dataProvider = "allocator")
+    public void insertAndRemove(LargeByteBufferAllocator allocator) {
+        MutableLongBufferBigList list = newMutable(allocator);
+        MutableLongList reference = LongLists.mutable.empty();
+        list.addAll(1, 2, 3, 4, 5);
+        reference.addAll(1, 2, 3, 4, 5);
+
+        list.addAtIndex(2, 10);
+        reference.addAtIndex(2, 10);
+        Assert.assertEquals(toArray(list), reference.toArray());
+
+        list.addElements(1, new long[]{ 7, 8, 9 }, 1, 2);
+        reference.addAllAtIndex(1, 8, 9);
+        Assert.assertEquals(toArray(list), reference.toArray());
+
+        Assert.assertEquals(list.removeAtIndex(0), reference.removeAtIndex(0));
+        Assert.assertEquals(toArray(list), reference.toArray());
+
+        list.removeElements(1, 4);
+        reference.removeAtIndex(1);
+        reference.removeAtIndex(1);
+        reference.removeAtIndex(1);
+        Assert.assertEquals(toArray(list), reference.toArray());
+
+        Assert.assertEquals(list.set(0, 42), reference.set(0, 42));
+        list.setElements(1, new long[]{ 5, 6 }, 0, 2);
+        reference.set(1, 5);
+        reference.set(2, 6);
+        Assert.assertEquals(toArray(list), reference.toArray());
+
+        ListTest.assertThrows(IndexOutOfBoundsException.class, () -> list.removeElements(2, 10));
+        ListTest.assertThrows(IndexOutOfBoundsException.class, () -> list.addAtIndex(10, 1));
+
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test(dataProvider = "allocator")
+    public void iterateRemove(LargeByteBufferAllocator allocator) {
+        MutableLongBufferBigList list = newMutable(allocator);
+        list.addAll(1, 2, 3, 4);
+
+        MutableLongIterator itr = list.longIterator();
+        while (itr.hasNext()) {
+            if (itr.next() % 2 == 0) {
+                itr.remove();
+            }
+        }
+        Assert.assertEquals(toArray(list), new long[]{ 1, 3 });
+    }
+
+    @Test(dataProvider = "allocator")
+    public void search(LargeByteBufferAllocator allocator) {
+        MutableLongBufferBigList list = MutableLongBufferBigListFactory.withAllocator(allocator)
+                .of(1, 3, 3, 5, 7);
+        Assert.assertEquals(list.indexOf(3), 1);
+        Assert.assertEquals(list.lastIndexOf(3), 2);
+        Assert.assertEquals(list.indexOf(4), -1);
+        Assert.assertTrue(list.contains(7));
+        Assert.assertEquals(list.binarySearch(5), 3);
+        Assert.assertEquals(list.binarySearch(4), ~3);
+        Assert.assertEquals(list.binarySearch(0), ~0);
+        Assert.assertEquals(list.binarySearch(8), ~5);
+    }
+
+    @Test
+    public void wrap() {
+        LargeByteBuffer buffer = BTreeTest.SIMPLE_ALLOCATOR.allocate(3 * Long.BYTES);
+        buffer.setLong(0, 5);
+        buffer.setLong(Long.BYTES, 6);
+        MutableLongBufferBigListFactory factory = MutableLongBufferBigListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR);
+        Assert.assertEquals(toArray(factory.wrapReadOnly(buffer, 2)), new long[]{ 5, 6 });
+        MutableLongBufferBigList list = factory.wrap(buffer, 2);
+        list.add(7);
+        list.add(8);
+        Assert.assertEquals(toArray(list), new long[]{ 5, 6, 7, 8 });
+    }
+
+    @Test
+    public void wrapLittleEndianGrows() {
+        LargeByteBuffer buffer = new ByteBufferBackedLargeByteBuffer(
+                new ByteBuffer[]{ ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN) }, 0x1000000);
+        buffer.setLong(0, 1);
+        buffer.setLong(Long.BYTES, 2);
+        MutableLongBufferBigList list = MutableLongBufferBigListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR)
+                .wrap(buffer, 2);
+        list.add(3);
+        Assert.assertEquals(toArray(list), new long[]{ 1, 2, 3 });
+    }
+
+    @Test
+    public void wrapIncompatibleGrows() {
+        LargeByteBuffer buffer = BTreeTest.SIMPLE_ALLOCATOR.allocate(2 * Long.BYTES);
+        buffer.setLong(0, 1);
+        buffer.setLong(Long.BYTES, 2);
+        LargeByteBufferAllocator chunked = (LargeByteBufferAllocator) allocator()[0][0];
+        MutableLongBufferBigList list = MutableLongBufferBigListFactory.withAllocator(chunked).wrap(buffer, 2);
+        list.add(3);
+        Assert.assertEquals(toArray(list), new long[]{ 1, 2, 3 });
+    }
+}
@@ -2,7 +2,10 @@ package at.yawk.numaec;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -47,4 +50,40 @@ public class BumpPointerRegionAllocatorTest {
             }
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void synchronizedClose() throws InterruptedException {
+        Set<LargeByteBuffer> open = ConcurrentHashMap.newKeySet();
+        LargeByteBufferAllocator allocator = SynchronizedAllocator.wrap(BumpPointerRegionAllocator.builder(s -> {
+            LargeByteBuffer region = new BufferSlice(
+                    new ByteBufferBackedLargeByteBuffer(new ByteBuffer[]{ ByteBuffer.allocate((int) s) }, 0x1000),
+                    0, s) {
+                @Override
+                public void close() {
+                    open.remove(this);
+                }
+            };
+            open.add(region);
+            return region;
+        }).regionSize(0x1000).build());
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                List<LargeByteBuffer> held = new ArrayList<>();
+                for (int j = 0; j < 200; j++) {
+                    for (int k = 0; k < 64; k++) {
+                        held.add(allocator.allocate(8));
+                    }
+                    held.forEach(LargeByteBuffer::close);
+                    held.clear();
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(open, Collections.emptySet());
+    }
+}
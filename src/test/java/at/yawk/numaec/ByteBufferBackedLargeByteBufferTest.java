@@ -184,6 +184,54 @@ public class ByteBufferBackedLargeByteBufferTest {
         }
     }
 
+    @DataProvider
+    public Object[][] directCopyIndices() {
+        List<Object[]> out = new ArrayList<>();
+        for (int length : new int[]{ 1, 8, 16, 17, 40 }) {
+            for (int[] offsets : new int[][]{ { 0, 0 }, { 0, 3 }, { 3, 0 }, { 5, 20 }, { 20, 5 } }) {
+                out.add(new Object[]{ offsets[0], offsets[1], length });
+            }
+        }
+        return out.toArray(new Object[0][]);
+    }
+
+    private static LargeByteBuffer makeDirectBuffer(boolean fill) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        if (fill) {
+            for (int i = 0; i < 64; i++) {
+                buffer.put(i, (byte) i);
+            }
+        }
+        return new ByteBufferBackedLargeByteBuffer(new ByteBuffer[]{ buffer }, 64);
+    }
+
+    @Test(dataProvider = "directCopyIndices")
+    public void copyDirect(int srcOffset, int dstOffset, int length) {
+        LargeByteBuffer src = makeDirectBuffer(true);
+        LargeByteBuffer dest = makeDirectBuffer(false);
+        dest.copyFrom(src, srcOffset, dstOffset, length);
+        for (int i = 0; i < 64; i++) {
+            if (i < dstOffset || i >= dstOffset + length) {
+                Assert.assertEquals(dest.getByte(i), 0);
+            } else {
+                Assert.assertEquals(dest.getByte(i), i - dstOffset + srcOffset);
+            }
+        }
+    }
+
+    @Test(dataProvider = "directCopyIndices")
+    public void copySameDirect(int srcOffset, int dstOffset, int length) {
+        LargeByteBuffer bb = makeDirectBuffer(true);
+        bb.copyFrom(bb, srcOffset, dstOffset, length);
+        for (int i = 0; i < 64; i++) {
+            if (i < dstOffset || i >= dstOffset + length) {
+                Assert.assertEquals(bb.getByte(i), i);
+            } else {
+                Assert.assertEquals(bb.getByte(i), i - dstOffset + srcOffset);
+            }
+        }
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void weirdBufferSize3() {
         new ByteBufferBackedLargeByteBuffer(new ByteBuffer[0], 3);
@@ -0,0 +1,80 @@
+package at.yawk.numaec;
+
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public final class CollectionMetricsTest {
+    @Test
+    public void btree() {
+        CollectionMetrics metrics = new CollectionMetrics();
+        try (MutableIntDoubleBufferMap map = MutableIntDoubleBTreeMapFactory
+                .withAllocatorAndConfig(BTreeTest.SIMPLE_ALLOCATOR,
+                                        BTreeConfig.builder().blockSize(64).metrics(metrics).build())
+                .empty()) {
+            for (int i = 0; i < 1000; i++) {
+                map.put(i, i);
+            }
+            Assert.assertTrue(metrics.getBTreeSplits() > 0);
+            Assert.assertTrue(metrics.getPagesAllocated() > metrics.getBTreeSplits());
+            Assert.assertTrue(metrics.getCursorAllocations() > 0);
+            Assert.assertEquals(metrics.getBTreeMerges(), 0);
+
+            for (int i = 0; i < 1000; i++) {
+                map.remove(i);
+            }
+            Assert.assertTrue(metrics.getBTreeMerges() > 0);
+            Assert.assertEquals(metrics.getPagesFreed(), metrics.getPagesAllocated());
+        }
+    }
+
+    @Test
+    public void linearHash() {
+        CollectionMetrics metrics = new CollectionMetrics();
+        try (MutableIntDoubleBufferMap map = (MutableIntDoubleBufferMap) MutableIntDoubleLinearHashMapFactory
+                .withAllocatorAndConfig(BTreeTest.SIMPLE_ALLOCATOR,
+                                        LinearHashMapConfig.builder().bucketSize(64).metrics(metrics).build())
+                .empty()) {
+            for (int i = 0; i < 1000; i++) {
+                map.put(i, i);
+            }
+            for (int i = 0; i < 1000; i++) {
+                Assert.assertEquals(map.get(i), i, 0);
+            }
+            Assert.assertTrue(metrics.getLinearHashSplits() > 0);
+            Assert.assertTrue(metrics.getOverflowBucketsAllocated() > 0);
+            Assert.assertTrue(metrics.getOverflowBucketsVisited() > 0);
+
+            for (int i = 0; i < 1000; i++) {
+                map.remove(i);
+            }
+            Assert.assertTrue(metrics.getLinearHashMerges() > 0);
+        }
+    }
+
+    @Test
+    public void meter() {
+        CollectionMetrics metrics = new CollectionMetrics();
+        LargeByteBufferAllocator allocator = metrics.meter(BTreeTest.SIMPLE_ALLOCATOR);
+        allocator.allocate(100).close();
+        allocator.allocate(28).close();
+        Assert.assertEquals(metrics.getAllocations(), 2);
+        Assert.assertEquals(metrics.getBytesAllocated(), 128);
+    }
+
+    @Test
+    public void register() throws JMException {
+        CollectionMetrics metrics = new CollectionMetrics();
+        metrics.meter(BTreeTest.SIMPLE_ALLOCATOR).allocate(16).close();
+        ObjectName name = metrics.register("test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Assert.assertEquals(server.getAttribute(name, "BytesAllocated"), 16L);
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package at.yawk.numaec;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("resource")
+public final class CompressedListTest {
+    @DataProvider
+    public Object[][] allocator() {
+        return new ListTest().allocator();
+    }
+
+    private static void check(LongCompressedBufferList list, MutableLongList reference) {
+        Assert.assertEquals(list.size(), reference.size());
+        Assert.assertEquals(list, reference);
+        // random access, out of order
+        for (int i = reference.size() - 1; i >= 0; i--) {
+            Assert.assertEquals(list.get(i), reference.get(i));
+        }
+        LongIterator itr = list.longIterator();
+        for (int i = 0; i < reference.size(); i++) {
+            Assert.assertTrue(itr.hasNext());
+            Assert.assertEquals(itr.next(), reference.get(i));
+        }
+        Assert.assertFalse(itr.hasNext());
+    }
+
+    @Test(dataProvider = "allocator")
+    public void sorted(LargeByteBufferAllocator allocator) {
+        LongCompressedBufferList list = LongCompressedBufferListFactory.withAllocator(allocator).empty();
+        MutableLongList reference = LongLists.mutable.empty();
+        Random random = new Random(0);
+        long value = 1000;
+        for (int i = 0; i < 1000; i++) {
+            value += random.nextInt(20);
+            list.add(value);
+            reference.add(value);
+        }
+        check(list, reference);
+        Assert.assertEquals(list.binarySearch(reference.get(500)), reference.binarySearch(reference.get(500)));
+    }
+
+    @Test(dataProvider = "allocator")
+    public void constant(LargeByteBufferAllocator allocator) {
+        MutableLongList reference = LongLists.mutable.empty();
+        for (int i = 0; i < 300; i++) {
+            reference.add(-5);
+        }
+        LongCompressedBufferList list = LongCompressedBufferListFactory.withAllocator(allocator).ofAll(reference);
+        check(list, reference);
+    }
+
+    @Test(dataProvider = "allocator")
+    public void memoryFootprint(LargeByteBufferAllocator allocator) {
+        LongCompressedBufferList list = LongCompressedBufferListFactory.withAllocator(allocator).empty();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i);
+        }
+        MemoryFootprint footprint = list.memoryFootprint();
+        Assert.assertEquals(footprint.payload(), 1000L * Long.BYTES);
+        Assert.assertTrue(footprint.used() < footprint.payload() / 4);
+        Assert.assertTrue(footprint.reserved() >= footprint.used());
+    }
+
+    @Test(dataProvider = "allocator")
+    public void extremes(LargeByteBufferAllocator allocator) {
+        LongCompressedBufferList list = LongCompressedBufferListFactory.withAllocator(allocator).empty();
+        MutableLongList reference = LongLists.mutable.empty();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            long value;
+            switch (i % 4) {
+                case 0:
+                    value = Long.MIN_VALUE;
+                    break;
+                case 1:
+                    value = Long.MAX_VALUE;
+                    break;
+                default:
+                    value = random.nextLong();
+                    break;
+            }
+            list.add(value);
+            reference.add(value);
+        }
+        check(list, reference);
+    }
+
+    @Test(dataProvider = "allocator")
+    public void containsAndBounds(LargeByteBufferAllocator allocator) {
+        LongCompressedBufferList list = LongCompressedBufferListFactory.withAllocator(allocator).of(1, 2, 3);
+        ListTest.assertThrows(IndexOutOfBoundsException.class, () -> list.get(3));
+        Assert.assertTrue(list.contains(2));
+        Assert.assertFalse(list.contains(4));
+    }
+
+    @Test
+    public void intList() {
+        IntCompressedBufferList list = IntCompressedBufferListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).empty();
+        for (int i = 0; i < 1000; i++) {
+            list.add(i * i - 500);
+        }
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(list.get(i), i * i - 500);
+        }
+    }
+
+    @Test
+    public void concurrentReads() throws InterruptedException {
+        LongCompressedBufferList list = LongCompressedBufferListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR)
+                .empty();
+        for (int i = 0; i < 128 * 64; i++) {
+            list.add(i * 3L);
+        }
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            int seed = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int j = 0; j < 100000; j++) {
+                    int index = random.nextInt(list.size());
+                    if (list.get(index) != index * 3L) {
+                        failures.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(failures.get(), 0);
+    }
+}
@@ -0,0 +1,147 @@
+package at.yawk.numaec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("resource")
+public final class DequeTest {
+    private static final class ReallocatingBuffer extends ByteBufferBackedLargeByteBuffer {
+        ReallocatingBuffer(int size) {
+            super(new ByteBuffer[]{ ByteBuffer.allocate(size) }, 0x1000000);
+        }
+
+        @Override
+        public LargeByteBuffer reallocate(long newSize) {
+            ReallocatingBuffer reallocated = new ReallocatingBuffer(Math.toIntExact(newSize));
+            reallocated.copyFrom(this, 0, 0, size());
+            return reallocated;
+        }
+    }
+
+    @DataProvider
+    public Object[][] allocator() {
+        Object[][] chunkAllocators = new ListTest().allocator();
+        Object[][] data = new Object[chunkAllocators.length + 1][];
+        System.arraycopy(chunkAllocators, 0, data, 0, chunkAllocators.length);
+        data[chunkAllocators.length] = new Object[]{
+                (LargeByteBufferAllocator) size -> new ReallocatingBuffer(Math.toIntExact(size))
+        };
+        return data;
+    }
+
+    private static void check(LongBufferDeque deque, ArrayDeque<Long> reference) {
+        Assert.assertEquals(deque.size64(), reference.size());
+        LongIterator itr = deque.longIterator();
+        for (Long expected : reference) {
+            Assert.assertEquals(itr.next(), (long) expected);
+        }
+        Assert.assertFalse(itr.hasNext());
+    }
+
+    @Test(dataProvider = "allocator")
+    public void randomOperations(LargeByteBufferAllocator allocator) {
+        LongBufferDeque deque = LongBufferDequeFactory.withAllocator(allocator).empty();
+        ArrayDeque<Long> reference = new ArrayDeque<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; i++) {
+            switch (random.nextInt(6)) {
+                case 0:
+                case 1:
+                    deque.addLast(i);
+                    reference.addLast((long) i);
+                    break;
+                case 2:
+                    deque.addFirst(i);
+                    reference.addFirst((long) i);
+                    break;
+                case 3:
+                    Assert.assertEquals(deque.pollFirst(-1), reference.isEmpty() ? -1 : reference.pollFirst());
+                    break;
+                case 4:
+                    Assert.assertEquals(deque.pollLast(-1), reference.isEmpty() ? -1 : reference.pollLast());
+                    break;
+                case 5:
+                    long[] drained = new long[random.nextInt(5)];
+                    int count = deque.drainTo(drained, 0, drained.length);
+                    Assert.assertEquals(count, Math.min(drained.length, reference.size()));
+                    for (int j = 0; j < count; j++) {
+                        Assert.assertEquals(drained[j], (long) reference.pollFirst());
+                    }
+                    break;
+            }
+            if (!reference.isEmpty()) {
+                Assert.assertEquals(deque.getFirst(), (long) reference.getFirst());
+                Assert.assertEquals(deque.peekLast(-1), (long) reference.getLast());
+            }
+        }
+        check(deque, reference);
+    }
+
+    @Test(dataProvider = "allocator")
+    public void growWrapped(LargeByteBufferAllocator allocator) {
+        LongBufferDeque deque = LongBufferDequeFactory.withAllocator(allocator).emptyWithInitialCapacity(8);
+        ArrayDeque<Long> reference = new ArrayDeque<>();
+        for (long i = 0; i < 6; i++) {
+            deque.addLast(i);
+            reference.addLast(i);
+        }
+        for (long i = 0; i < 4; i++) {
+            Assert.assertEquals(deque.removeFirst(), (long) reference.removeFirst());
+        }
+        for (long i = 0; i < 100; i++) {
+            deque.addLast(i);
+            reference.addLast(i);
+        }
+        check(deque, reference);
+    }
+
+    @Test(dataProvider = "allocator")
+    public void growFromCapacityOne(LargeByteBufferAllocator allocator) {
+        LongBufferDeque deque = LongBufferDequeFactory.withAllocator(allocator).emptyWithInitialCapacity(1);
+        ArrayDeque<Long> reference = new ArrayDeque<>();
+        for (long i = 0; i < 10; i++) {
+            if (i % 2 == 0) {
+                deque.addLast(i);
+                reference.addLast(i);
+            } else {
+                deque.addFirst(i);
+                reference.addFirst(i);
+            }
+        }
+        check(deque, reference);
+
+        LongBufferDeque bounded = LongBufferDequeFactory.withAllocator(allocator).bounded(1, 3);
+        Assert.assertTrue(bounded.offerLast(0));
+        Assert.assertTrue(bounded.offerFirst(1));
+        Assert.assertTrue(bounded.offerLast(2));
+        Assert.assertFalse(bounded.offerLast(3));
+        Assert.assertEquals(bounded.removeFirst(), 1);
+        Assert.assertEquals(bounded.removeFirst(), 0);
+        Assert.assertEquals(bounded.removeFirst(), 2);
+    }
+
+    @Test
+    public void bounded() {
+        LongBufferDeque deque = LongBufferDequeFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).bounded(20);
+        for (long i = 0; i < 20; i++) {
+            Assert.assertTrue(deque.offerLast(i));
+        }
+        Assert.assertFalse(deque.offerLast(20));
+        Assert.assertFalse(deque.offerFirst(20));
+        ListTest.assertThrows(IllegalStateException.class, () -> deque.addLast(20));
+        Assert.assertEquals(deque.removeLast(), 19);
+        Assert.assertTrue(deque.offerFirst(-1));
+        Assert.assertEquals(deque.getFirst(), -1);
+        deque.clear();
+        Assert.assertTrue(deque.isEmpty());
+        ListTest.assertThrows(NoSuchElementException.class, deque::removeFirst);
+        ListTest.assertThrows(NoSuchElementException.class, deque::getLast);
+        Assert.assertEquals(deque.peekFirst(5), 5);
+    }
+}
@@ -0,0 +1,223 @@
+package at.yawk.numaec;
+
+import java.util.Random;
+import org.eclipse.collections.api.iterator.IntIterator;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class IntBitmapSetTest {
+    private static IntBitmapSet empty() {
+        return MutableIntBitmapSetFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).empty();
+    }
+
+    private static void check(IntBitmapSet set, MutableIntSet reference) {
+        set.checkInvariants();
+        Assert.assertEquals(set.size64(), reference.size());
+        Assert.assertEquals(set, reference);
+
+        MutableIntSet iterated = IntSets.mutable.empty();
+        IntIterator itr = set.intIterator();
+        int previous = 0;
+        boolean first = true;
+        while (itr.hasNext()) {
+            int next = itr.next();
+            // iteration is in unsigned order
+            Assert.assertTrue(first || Integer.compareUnsigned(previous, next) < 0);
+            first = false;
+            previous = next;
+            Assert.assertTrue(iterated.add(next));
+        }
+        Assert.assertEquals(iterated, reference);
+    }
+
+    @Test
+    public void addRemove() {
+        try (IntBitmapSet set = empty()) {
+            Assert.assertTrue(set.add(1));
+            Assert.assertFalse(set.add(1));
+            Assert.assertTrue(set.add(-5));
+            Assert.assertTrue(set.add(0x10000));
+            Assert.assertTrue(set.contains(-5));
+            Assert.assertFalse(set.contains(5));
+            Assert.assertTrue(set.remove(1));
+            Assert.assertFalse(set.remove(1));
+            check(set, IntSets.mutable.with(-5, 0x10000));
+            Assert.assertEquals(set.hashCode(), IntSets.mutable.with(-5, 0x10000).hashCode());
+        }
+    }
+
+    @Test
+    public void random() {
+        try (IntBitmapSet set = empty()) {
+            MutableIntSet reference = IntSets.mutable.empty();
+            Random random = new Random(0);
+            for (int i = 0; i < 50000; i++) {
+                // mostly in a few containers, so that they grow into bitmaps and shrink back
+                int element = random.nextInt(4) == 0 ? random.nextInt() : random.nextInt(0x30000);
+                if (random.nextInt(3) == 0) {
+                    Assert.assertEquals(set.remove(element), reference.remove(element));
+                } else {
+                    Assert.assertEquals(set.add(element), reference.add(element));
+                }
+            }
+            check(set, reference);
+            for (int element : reference.toArray()) {
+                if (random.nextBoolean()) {
+                    Assert.assertTrue(set.remove(element));
+                    reference.remove(element);
+                }
+            }
+            check(set, reference);
+        }
+    }
+
+    @Test
+    public void denseRange() {
+        try (IntBitmapSet set = empty()) {
+            MutableIntSet reference = IntSets.mutable.empty();
+            for (int i = 0x20000; i < 0x38000; i++) {
+                set.add(i);
+                reference.add(i);
+            }
+            check(set, reference);
+            for (int i = 0x20000; i < 0x38000; i += 3) {
+                set.remove(i);
+                reference.remove(i);
+            }
+            check(set, reference);
+        }
+    }
+
+    @Test
+    public void runOptimize() {
+        try (IntBitmapSet set = empty()) {
+            MutableIntSet reference = IntSets.mutable.empty();
+            for (int i = 0; i < 0x30000; i++) {
+                if ((i / 1000) % 2 == 0) {
+                    set.add(i);
+                    reference.add(i);
+                }
+            }
+            set.add(0x50000);
+            reference.add(0x50000);
+            set.runOptimize();
+            check(set, reference);
+            Assert.assertTrue(set.contains(999));
+            Assert.assertFalse(set.contains(1000));
+
+            // modifying run containers converts them back
+            Assert.assertFalse(set.add(0));
+            Assert.assertTrue(set.add(1000));
+            Assert.assertTrue(set.remove(132000));
+            Assert.assertFalse(set.remove(133000));
+            reference.add(1000);
+            reference.remove(132000);
+            check(set, reference);
+        }
+    }
+
+    @Test
+    public void algebra() {
+        Random random = new Random(0);
+        MutableIntSet referenceA = IntSets.mutable.empty();
+        MutableIntSet referenceB = IntSets.mutable.empty();
+        for (int i = 0; i < 20000; i++) {
+            referenceA.add(random.nextInt(0x40000));
+            referenceB.add(random.nextInt(0x40000) + 0x10000);
+        }
+        for (int i = 0; i < 0x10000; i++) {
+            referenceB.add(0x60000 + i);
+        }
+
+        try (IntBitmapSet a = empty(); IntBitmapSet b = empty()) {
+            a.addAll(referenceA);
+            b.addAll(referenceB);
+            b.runOptimize();
+            a.or(b);
+            check(a, IntSets.mutable.withAll(referenceA).withAll(referenceB));
+        }
+        try (IntBitmapSet a = empty(); IntBitmapSet b = empty()) {
+            a.addAll(referenceA);
+            b.addAll(referenceB);
+            a.and(b);
+            check(a, IntSets.mutable.withAll(referenceA).select(referenceB::contains));
+        }
+        try (IntBitmapSet a = empty(); IntBitmapSet b = empty()) {
+            a.addAll(referenceA);
+            b.addAll(referenceB);
+            a.andNot(b);
+            check(a, IntSets.mutable.withAll(referenceA).withoutAll(referenceB));
+        }
+    }
+
+    @Test
+    public void clear() {
+        try (IntBitmapSet set = empty()) {
+            for (int i = 0; i < 10000; i++) {
+                set.add(i * 7);
+            }
+            set.clear();
+            check(set, IntSets.mutable.empty());
+            set.add(5);
+            check(set, IntSets.mutable.with(5));
+        }
+    }
+
+    @Test
+    public void containersSizedByCardinality() {
+        try (IntBitmapSet set = empty()) {
+            MutableIntSet reference = IntSets.mutable.empty();
+            for (int i = 0; i < 1000; i++) {
+                set.add(i << 16);
+                reference.add(i << 16);
+            }
+            check(set, reference);
+            long singletons = set.memoryFootprint().used();
+            // one minimal page per container, plus the directory
+            Assert.assertTrue(singletons < 1000 * 4 * IntBitmapSet.MIN_PAGE_SIZE);
+
+            for (int i = 1; i < 1000; i++) {
+                set.add(i);
+                reference.add(i);
+            }
+            check(set, reference);
+            for (int i = 1; i < 1000; i++) {
+                set.remove(i);
+                reference.remove(i);
+            }
+            check(set, reference);
+            Assert.assertEquals(set.memoryFootprint().used(), singletons);
+        }
+    }
+
+    @Test
+    public void algebraKeepsUnchangedContainers() {
+        try (IntBitmapSet a = empty(); IntBitmapSet b = empty(); IntBitmapSet c = empty()) {
+            MutableIntSet reference = IntSets.mutable.empty();
+            for (int i = 0; i < 0x10000; i++) {
+                a.add(i);
+                b.add(i);
+                reference.add(i);
+            }
+            b.add(0x10000);
+            c.add(0x10000);
+            // a single run, which would need a bitmap if it was encoded again
+            a.runOptimize();
+            long optimized = a.memoryFootprint().used();
+
+            a.and(b);
+            a.andNot(c);
+            a.or(a);
+            check(a, reference);
+            Assert.assertEquals(a.memoryFootprint().used(), optimized);
+
+            // containers missing from this set are copied as they are
+            c.clear();
+            c.or(a);
+            check(c, reference);
+            Assert.assertEquals(c.memoryFootprint().used(), optimized);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package at.yawk.numaec;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("resource")
+public final class LargeBitSetTest {
+    private static final LargeByteBufferAllocator ALLOCATOR = BTreeTest.SIMPLE_ALLOCATOR;
+
+    @DataProvider
+    public Object[][] sizes() {
+        return new Object[][]{ { 0 }, { 1 }, { 63 }, { 64 }, { 65 }, { 1000 } };
+    }
+
+    private static LargeBitSet random(Random random, int size, BitSet reference) {
+        LargeBitSet set = LargeBitSet.create(ALLOCATOR, size);
+        for (int i = 0; i < size; i++) {
+            if (random.nextBoolean()) {
+                set.set(i);
+                reference.set(i);
+            }
+        }
+        return set;
+    }
+
+    private static void check(LargeBitSet set, BitSet reference, int size) {
+        Assert.assertEquals(set.cardinality(), reference.cardinality());
+        for (int i = 0; i < size; i++) {
+            Assert.assertEquals(set.get(i), reference.get(i));
+            Assert.assertEquals(set.nextSetBit(i), reference.nextSetBit(i));
+            int nextClear = reference.nextClearBit(i);
+            Assert.assertEquals(set.nextClearBit(i), nextClear >= size ? -1 : nextClear);
+        }
+        Assert.assertEquals(set.nextSetBit(size), -1);
+        Assert.assertEquals(set.nextClearBit(size), -1);
+    }
+
+    @Test(dataProvider = "sizes")
+    public void singleBits(int size) {
+        LargeBitSet set = LargeBitSet.create(ALLOCATOR, size);
+        BitSet reference = new BitSet();
+        check(set, reference, size);
+        Random random = new Random(0);
+        for (int i = 0; i < size * 2; i++) {
+            int index = random.nextInt(size);
+            boolean value = random.nextBoolean();
+            set.set(index, value);
+            reference.set(index, value);
+        }
+        check(set, reference, size);
+        ListTest.assertThrows(IndexOutOfBoundsException.class, () -> set.get(size));
+        ListTest.assertThrows(IndexOutOfBoundsException.class, () -> set.set(-1));
+        set.clearAll();
+        check(set, new BitSet(), size);
+    }
+
+    @Test(dataProvider = "sizes")
+    public void bulk(int size) {
+        Random random = new Random(size);
+        BitSet referenceA = new BitSet();
+        BitSet referenceB = new BitSet();
+        LargeBitSet a = random(random, size, referenceA);
+        LargeBitSet b = random(random, size, referenceB);
+
+        a.and(b);
+        referenceA.and(referenceB);
+        check(a, referenceA, size);
+
+        a.or(b);
+        referenceA.or(referenceB);
+        check(a, referenceA, size);
+
+        referenceB = new BitSet();
+        b = random(random, size, referenceB);
+        a.xor(b);
+        referenceA.xor(referenceB);
+        check(a, referenceA, size);
+
+        a.andNot(b);
+        referenceA.andNot(referenceB);
+        check(a, referenceA, size);
+
+        LargeBitSet other = LargeBitSet.create(ALLOCATOR, size + 1);
+        ListTest.assertThrows(IllegalArgumentException.class, () -> a.and(other));
+    }
+}
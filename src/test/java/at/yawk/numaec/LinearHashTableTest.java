@@ -2,6 +2,7 @@ package at.yawk.numaec;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import org.eclipse.collections.api.block.function.primitive.LongToLongFunction;
 import org.eclipse.collections.api.map.primitive.MutableLongLongMap;
@@ -14,7 +15,8 @@ public final class LinearHashTableTest {
     static List<LinearHashMapConfig.Builder> configList() {
         return Arrays.asList(
                 LinearHashMapConfig.builder().bucketSize(32),
-                LinearHashMapConfig.builder().bucketSize(64)
+                LinearHashMapConfig.builder().bucketSize(64),
+                LinearHashMapConfig.builder().bucketSize(64).columnarBuckets(true)
         );
     }
 
@@ -70,6 +72,59 @@ public final class LinearHashTableTest {
         Assert.assertEquals(lht.toStringFlat(), "[1->2]");
     }
 
+    @Test(dataProvider = "config")
+    public void statistics(LinearHashMapConfig config) {
+        LinearHashTable lht = new LHTImpl(config);
+        LinearHashStatistics empty = lht.statistics();
+        Assert.assertEquals(empty.bucketCount(), 1);
+        Assert.assertEquals(empty.chainLengthHistogram()[0], 1);
+        Assert.assertEquals(empty.loadFactor(), 0.0);
+
+        lht.expandToFullLoadCapacity(450);
+        for (int i = 0; i < 300; i++) {
+            insert(lht, 0, i, i);
+        }
+        LinearHashStatistics statistics = lht.statistics();
+        Assert.assertEquals(statistics.entryCount(), 300);
+        Assert.assertEquals(statistics.bucketCount(), (1L << statistics.lowDepth()) + statistics.splitIndex());
+        // all entries share a hash, so they are in a single chain
+        long[] chainLengths = statistics.chainLengthHistogram();
+        Assert.assertEquals(chainLengths[chainLengths.length - 1], 1);
+        Assert.assertEquals(chainLengths[0], statistics.bucketCount() - 1);
+        Assert.assertEquals(statistics.overflowBucketCount(), chainLengths.length - 2);
+        Assert.assertTrue(statistics.loadFactor() > 0 && statistics.loadFactor() < 1);
+    }
+
+    @Test(dataProvider = "config")
+    public void getAllOverflowChain(LinearHashMapConfig config) {
+        LinearHashTable lht = new LHTImpl(config);
+        // most entries share a hash and end up in one long chain, the rest spread over the other buckets
+        for (int i = 0; i < 300; i++) {
+            long hash = i % 5 == 0 ? (long) i << 40 : 0;
+            insert(lht, hash, i, ~i & 0xffff);
+        }
+        lht.checkInvariants();
+
+        Random rng = new Random(0);
+        int batch = 400;
+        long[] hashes = new long[batch];
+        long[] keys = new long[batch];
+        for (int j = 0; j < batch; j++) {
+            int i = rng.nextInt(350);
+            keys[j] = i;
+            hashes[j] = i % 5 == 0 ? (long) i << 40 : 0;
+        }
+        long[] values = new long[batch];
+        boolean[] found = new boolean[batch];
+        lht.getAll(hashes, keys, values, found);
+        for (int j = 0; j < batch; j++) {
+            Assert.assertEquals(found[j], keys[j] < 300);
+            if (found[j]) {
+                Assert.assertEquals(values[j], ~keys[j] & 0xffff);
+            }
+        }
+    }
+
     @Test(dataProvider = "config")
     public void manyItemsSameHash(LinearHashMapConfig config) {
         long hash = 0x0000000000000000L;
@@ -154,7 +209,11 @@ public final class LinearHashTableTest {
                     Assert.assertTrue(cursor.elementFound());
                     Assert.assertEquals(cursor.getValue(), v);
                 }
+                Assert.assertTrue(lht.containsKey(hash, k));
+                Assert.assertEquals(lht.get(hash, k, -1), v);
             });
+            Assert.assertFalse(lht.containsKey(hash, 1000));
+            Assert.assertEquals(lht.get(hash, 1000, -1), -1);
         }
     }
 
@@ -220,6 +279,91 @@ public final class LinearHashTableTest {
         }
     }
 
+    @Test(dataProvider = "config")
+    public void contract(LinearHashMapConfig config) {
+        Random rng = new Random(0);
+        long[] hashes = rng.longs(500).toArray();
+        LinearHashTable lht = new LHTImpl(config);
+        for (int i = 0; i < hashes.length; i++) {
+            lht.expandToFullLoadCapacity(i + 1);
+            insert(lht, hashes[i], i, i);
+        }
+        lht.checkInvariants();
+        int peakBuckets = lht.toStringBlocks().length;
+
+        MutableLongLongMap map = LongLongMaps.mutable.empty();
+        for (int i = 0; i < hashes.length; i++) {
+            map.put(i, i);
+        }
+        for (int i = hashes.length - 1; i >= 0; i--) {
+            int key = (i * 7) % hashes.length;
+            try (LinearHashTable.Cursor cursor = lht.allocateCursor()) {
+                cursor.seek(hashes[key], key);
+                Assert.assertTrue(cursor.elementFound());
+                cursor.remove();
+            }
+            map.remove(key);
+            lht.contractToFullLoadCapacity(map.size() * 2);
+            lht.checkInvariants();
+
+            if (i % 50 == 0) {
+                map.forEachKeyValue((k, v) -> Assert.assertEquals(lht.get(hashes[(int) k], k, -1), v));
+                Assert.assertFalse(lht.containsKey(hashes[key], key));
+                try (LinearHashTable.Cursor cursor = lht.allocateCursor()) {
+                    int count = 0;
+                    while (cursor.next()) {
+                        count++;
+                    }
+                    Assert.assertEquals(count, map.size());
+                }
+            }
+            if (i == hashes.length / 10) {
+                Assert.assertTrue(lht.toStringBlocks().length < peakBuckets / 2);
+            }
+        }
+        Assert.assertEquals(lht.toStringBlocks().length, 1);
+        Assert.assertEquals(lht.toStringFlat(), "[]");
+    }
+
+    @Test(dataProvider = "config")
+    public void bulkLoad(LinearHashMapConfig config) {
+        Random rng = new Random(0);
+        MutableLongLongMap expected = LongLongMaps.mutable.empty();
+        LinearHashTable lht = new LHTImpl(config);
+        int count = 1000;
+        long[] hashes = rng.longs(count / 2).toArray();
+        try (LinearHashTable.BulkLoader loader = lht.bulkLoader(BTreeTest.SIMPLE_ALLOCATOR, count, count * 2)) {
+            loader.runLength = 64;
+            for (int i = 0; i < count; i++) {
+                // half of the keys are duplicates
+                int key = rng.nextInt(hashes.length);
+                loader.add(hashes[key], key, i);
+                expected.put(key, i);
+            }
+            Assert.assertEquals(loader.finish(), expected.size());
+        }
+        lht.checkInvariants();
+        expected.forEachKeyValue((k, v) -> Assert.assertEquals(lht.get(hashes[(int) k], k, -1), v));
+        try (LinearHashTable.Cursor cursor = lht.allocateCursor()) {
+            int n = 0;
+            while (cursor.next()) {
+                n++;
+            }
+            Assert.assertEquals(n, expected.size());
+        }
+
+        // the table must behave normally afterwards
+        for (int i = 0; i < hashes.length; i++) {
+            lht.expandToFullLoadCapacity(expected.size() * 2L);
+            if (!lht.containsKey(hashes[i], i)) {
+                insert(lht, hashes[i], i, 0);
+                expected.put(i, 0);
+            }
+        }
+        lht.checkInvariants();
+        expected.forEachKeyValue((k, v) -> Assert.assertEquals(lht.get(hashes[(int) k], k, -1), v));
+    }
+
     @Test(dataProvider = "config")
     public void splitMid(LinearHashMapConfig config) {
         LinearHashTable lht = new LHTImpl(config);
@@ -250,18 +394,26 @@ public final class LinearHashTableTest {
         private final short valueMask = (short) mask();
 
         LHTImpl(LinearHashMapConfig config) {
-            super(BTreeTest.SIMPLE_ALLOCATOR, config, 8 + 4 + 2);
+            super(BTreeTest.SIMPLE_ALLOCATOR, config, 8, 4, 2);
+        }
+
+        @Override
+        protected void writeHash(LargeByteBuffer lbb, long address, long hash) {
+            lbb.setLong(address, hash ^ hashMask);
         }
 
         @Override
-        protected void write(LargeByteBuffer lbb, long address, long hash, long key, long value) {
+        protected void writeKey(LargeByteBuffer lbb, long address, long key) {
             Assert.assertTrue(key >= 0);
             Assert.assertTrue(key < 0x100000000L);
+            lbb.setInt(address, (int) key ^ keyMask);
+        }
+
+        @Override
+        protected void writeValue(LargeByteBuffer lbb, long address, long value) {
             Assert.assertTrue(value >= 0);
             Assert.assertTrue(value < 0x10000L);
-            lbb.setLong(address, hash ^ hashMask);
-            lbb.setInt(address + 8, (int) key ^ keyMask);
-            lbb.setShort(address + 12, (short) (value ^ valueMask));
+            lbb.setShort(address, (short) (value ^ valueMask));
         }
 
         @Override
@@ -271,12 +423,17 @@ public final class LinearHashTableTest {
 
         @Override
         protected long readKey(LargeByteBuffer lbb, long address) {
-            return Integer.toUnsignedLong(lbb.getInt(address + 8) ^ keyMask);
+            return Integer.toUnsignedLong(lbb.getInt(address) ^ keyMask);
         }
 
         @Override
         protected long readValue(LargeByteBuffer lbb, long address) {
-            return Short.toUnsignedLong((short) (lbb.getShort(address + 12) ^ valueMask));
+            return Short.toUnsignedLong((short) (lbb.getShort(address) ^ valueMask));
+        }
+
+        @Override
+        protected long hashOfKey(long key) {
+            throw new UnsupportedOperationException();
         }
     }
 }
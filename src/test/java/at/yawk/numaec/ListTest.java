@@ -1,6 +1,12 @@
 package at.yawk.numaec;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
@@ -75,6 +81,19 @@ public final class ListTest {
         Assert.assertEquals(l, 4);
     }
 
+    @Test(dataProvider = "allocator")
+    public void memoryFootprint(LargeByteBufferAllocator allocator) {
+        MutableLongBufferList list = (MutableLongBufferList) newMutable(allocator);
+        Assert.assertEquals(list.memoryFootprint(), MemoryFootprint.EMPTY);
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        MemoryFootprint footprint = list.memoryFootprint();
+        Assert.assertEquals(footprint.payload(), 100L * Long.BYTES);
+        Assert.assertEquals(footprint.used(), footprint.payload());
+        Assert.assertTrue(footprint.reserved() >= footprint.used());
+    }
+
     @Test(dataProvider = "allocator")
     public void iterateRemove(LargeByteBufferAllocator allocator) {
         MutableLongList list = newMutable(allocator);
@@ -633,4 +652,65 @@ public final class ListTest {
                 LongLists.mutable.empty().with(1).with(2).with(3).hashCode()
         );
     }
+
+    @Test
+    public void wrapMappedFile() throws IOException {
+        Path file = Files.createTempFile(ListTest.class.getName(), null);
+        try {
+            ByteBuffer data = ByteBuffer.allocate(5 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (long i = 0; i < 5; i++) {
+                data.putLong(i * 1000);
+            }
+            Files.write(file, data.array());
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                LargeByteBuffer buffer = ByteBufferBackedLargeByteBuffer.map(
+                        channel, FileChannel.MapMode.READ_ONLY, Long.BYTES, 4 * Long.BYTES, ByteOrder.LITTLE_ENDIAN);
+                LongBufferList list = MutableLongBufferListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR)
+                        .wrapReadOnly(buffer, 3);
+                Assert.assertEquals(list, LongLists.mutable.with(1000, 2000, 3000));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void wrapMutable() {
+        LargeByteBuffer buffer = BTreeTest.SIMPLE_ALLOCATOR.allocate(3 * Long.BYTES);
+        buffer.setLong(0, 5);
+        buffer.setLong(Long.BYTES, 6);
+        MutableLongList list = MutableLongBufferListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).wrap(buffer, 2);
+        Assert.assertEquals(list, LongLists.mutable.with(5, 6));
+        // uses the spare capacity, then grows
+        list.add(7);
+        list.add(8);
+        Assert.assertEquals(list, LongLists.mutable.with(5, 6, 7, 8));
+        assertThrows(IllegalArgumentException.class,
+                     () -> MutableLongBufferListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).wrap(buffer, 4));
+    }
+
+    @Test
+    public void wrapLittleEndianGrows() {
+        LargeByteBuffer buffer = new ByteBufferBackedLargeByteBuffer(
+                new ByteBuffer[]{ ByteBuffer.allocate(2 * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN) }, 0x1000000);
+        buffer.setLong(0, 1);
+        buffer.setLong(Long.BYTES, 2);
+        MutableLongList list = MutableLongBufferListFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).wrap(buffer, 2);
+        list.add(3);
+        Assert.assertEquals(list, LongLists.mutable.with(1, 2, 3));
+        list.add(4);
+        Assert.assertEquals(list, LongLists.mutable.with(1, 2, 3, 4));
+    }
+
+    @Test
+    public void wrapIncompatibleGrows() {
+        LargeByteBuffer buffer = BTreeTest.SIMPLE_ALLOCATOR.allocate(2 * Long.BYTES);
+        buffer.setLong(0, 1);
+        buffer.setLong(Long.BYTES, 2);
+        LargeByteBufferAllocator chunked = (LargeByteBufferAllocator) allocator()[0][0];
+        MutableLongList list = MutableLongBufferListFactory.withAllocator(chunked).wrap(buffer, 2);
+        list.add(3);
+        Assert.assertEquals(list, LongLists.mutable.with(1, 2, 3));
+    }
 }
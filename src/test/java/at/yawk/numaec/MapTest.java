@@ -1,11 +1,21 @@
 package at.yawk.numaec;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.IntConsumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
+import org.eclipse.collections.api.list.primitive.MutableIntList;
 import org.eclipse.collections.api.map.primitive.IntDoubleMap;
 import org.eclipse.collections.api.map.primitive.MutableIntDoubleMap;
 import org.eclipse.collections.api.set.primitive.IntSet;
@@ -13,6 +23,7 @@ import org.eclipse.collections.api.set.primitive.MutableDoubleSet;
 import org.eclipse.collections.api.set.primitive.MutableIntSet;
 import org.eclipse.collections.impl.factory.primitive.DoubleSets;
 import org.eclipse.collections.impl.factory.primitive.IntDoubleMaps;
+import org.eclipse.collections.impl.factory.primitive.IntLists;
 import org.eclipse.collections.impl.factory.primitive.IntSets;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -34,7 +45,324 @@ public class MapTest {
                         b.dontStoreHash().build()
                 ))
                 .map(cfg -> new Object[]{ new IntDoubleLinearHashMap.Mutable(allocator, cfg), });
-        return Stream.concat(btreeStream, lhtStream).toArray(Object[][]::new);
+        Stream<Object[]> concurrentBtreeStream = BTreeTest.configList().stream().map(cfg -> new Object[]{
+                new ConcurrentIntDoubleBTreeMap(allocator, cfg) });
+        Stream<Object[]> concurrentStream = LinearHashTableTest.configList().stream()
+                .flatMap(b -> Stream.of(
+                        b.segmentCount(1).build(),
+                        b.segmentCount(4).build()
+                ))
+                .map(cfg -> new Object[]{ new ConcurrentIntDoubleLinearHashMap(allocator, cfg), });
+        Stream<Object[]> openStream = Stream.of(0.5f, 0.8f, 0.95f)
+                .map(loadFactor -> OpenHashMapConfig.builder().loadFactor(loadFactor).build())
+                .map(cfg -> new Object[]{ new IntDoubleOpenHashMap.Mutable(allocator, cfg) });
+        return Stream.of(btreeStream, lhtStream, concurrentBtreeStream, concurrentStream, openStream)
+                .flatMap(s -> s)
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "map")
+    public void getAll(MutableIntDoubleBufferMap map) {
+        for (int i = 0; i < 1000; i += 2) {
+            map.put(i, i * 1.5);
+        }
+        int[] keys = new int[1500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (i * 7919) % 1100;
+        }
+        double[] values = new double[keys.length];
+        Arrays.fill(values, -1);
+        boolean[] found = new boolean[keys.length];
+        map.getAll(keys, values, found);
+        for (int i = 0; i < keys.length; i++) {
+            Assert.assertEquals(found[i], map.containsKey(keys[i]));
+            Assert.assertEquals(values[i], found[i] ? keys[i] * 1.5 : -1);
+        }
+
+        ((MutableIntDoubleBufferMap) map.asSynchronized()).getAll(new int[]{ 2, 3 }, values, found);
+        Assert.assertEquals(values[0], 3.0);
+        Assert.assertTrue(found[0]);
+        Assert.assertFalse(found[1]);
+
+        ListTest.assertThrows(IllegalArgumentException.class, () -> map.getAll(keys, new double[1], found));
+    }
+
+    @DataProvider
+    public Object[][] lhtConfig() {
+        return LinearHashTableTest.configList().stream()
+                .flatMap(b -> Stream.of(b.hashLength(4).build(), b.hashLength(8).build(), b.dontStoreHash().build()))
+                .map(cfg -> new Object[]{ cfg })
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "lhtConfig")
+    public void lhtBulkLoad(LinearHashMapConfig config) {
+        MutableIntDoubleMap expected = IntDoubleMaps.mutable.empty();
+        MutableIntDoubleBufferMap map;
+        try (IntDoubleBulkLoader loader = MutableIntDoubleLinearHashMapFactory.bulkLoader(
+                BTreeTest.SIMPLE_ALLOCATOR, config, BTreeTest.SIMPLE_ALLOCATOR, 2000)) {
+            Random rng = new Random(0);
+            for (int i = 0; i < 2000; i++) {
+                int key = rng.nextInt(1500) - 500;
+                loader.put(key, i);
+                expected.put(key, i);
+            }
+            map = loader.build();
+        }
+        checkInvariants(map);
+        assertContentEquals(map, expected);
+
+        map.put(5000, 1);
+        map.remove(-500);
+        expected.put(5000, 1);
+        expected.remove(-500);
+        checkInvariants(map);
+        assertContentEquals(map, expected);
+    }
+
+    private static void assertContentEquals(IntDoubleMap actual, IntDoubleMap expected) {
+        Assert.assertEquals(actual.size(), expected.size());
+        expected.forEachKeyValue((k, v) -> Assert.assertEquals(actual.getIfAbsent(k, Double.NaN), v));
+    }
+
+    @Test
+    public void lhtBulkLoadTooManyEntries() {
+        try (IntDoubleBulkLoader loader = MutableIntDoubleLinearHashMapFactory.bulkLoader(
+                BTreeTest.SIMPLE_ALLOCATOR, LinearHashMapConfig.builder().build(), BTreeTest.SIMPLE_ALLOCATOR, 1)) {
+            loader.put(1, 1);
+            ListTest.assertThrows(IllegalStateException.class, () -> loader.put(2, 2));
+        }
+    }
+
+    @Test
+    public void lhtBulkLoadReleasesMap() {
+        Set<LargeByteBuffer> open = new HashSet<>();
+        AtomicInteger remainingAllocations = new AtomicInteger(Integer.MAX_VALUE);
+        LargeByteBufferAllocator tracking = size -> {
+            if (remainingAllocations.getAndDecrement() <= 0) { throw new IllegalStateException("Allocation failed"); }
+            LargeByteBuffer buffer = new BufferSlice(BTreeTest.SIMPLE_ALLOCATOR.allocate(size), 0, size) {
+                @Override
+                public void close() {
+                    open.remove(this);
+                }
+            };
+            open.add(buffer);
+            return buffer;
+        };
+        LinearHashMapConfig config = LinearHashMapConfig.builder().regionSize(1).build();
+
+        try (IntDoubleBulkLoader loader = MutableIntDoubleLinearHashMapFactory.bulkLoader(
+                tracking, config, tracking, 1000)) {
+            for (int i = 0; i < 1000; i++) {
+                loader.put(i, i);
+            }
+        }
+        Assert.assertEquals(open, Collections.emptySet());
+
+        try (IntDoubleBulkLoader loader = MutableIntDoubleLinearHashMapFactory.bulkLoader(
+                tracking, config, tracking, 1000)) {
+            for (int i = 0; i < 1000; i++) {
+                loader.put(i, i);
+            }
+            // fail after the map has allocated its first page
+            remainingAllocations.set(1);
+            ListTest.assertThrows(IllegalStateException.class, loader::build);
+        }
+        Assert.assertEquals(open, Collections.emptySet());
+    }
+
+    @Test
+    public void frozen() {
+        for (int size : new int[]{ 0, 1, 100, 5000 }) {
+            MutableIntDoubleMap expected = IntDoubleMaps.mutable.empty();
+            Random rng = new Random(size);
+            while (expected.size() < size) {
+                expected.put(rng.nextInt(), rng.nextDouble());
+            }
+            try (IntDoubleBufferMap map = FrozenIntDoubleBufferMaps.freeze(BTreeTest.SIMPLE_ALLOCATOR, expected)) {
+                assertContentEquals(map, expected);
+                for (int i = 0; i < 1000; i++) {
+                    int key = rng.nextInt();
+                    Assert.assertEquals(map.containsKey(key), expected.containsKey(key));
+                }
+                MutableIntDoubleMap iterated = IntDoubleMaps.mutable.empty();
+                map.forEachKeyValue(iterated::put);
+                assertContentEquals(iterated, expected);
+            }
+        }
+    }
+
+    @Test
+    public void frozenDoubleClose() {
+        IntDoubleBufferMap map = FrozenIntDoubleBufferMaps.freeze(
+                BTreeTest.SIMPLE_ALLOCATOR, IntDoubleMaps.mutable.empty().withKeyValue(1, 2.0));
+        Assert.assertEquals(map.memoryFootprint().payload(), Integer.BYTES + Double.BYTES);
+        map.close();
+        Assert.assertEquals(map.memoryFootprint(), MemoryFootprint.EMPTY);
+        map.close();
+    }
+
+    @Test
+    public void openHashRandomOperations() {
+        Random rng = new Random(0);
+        MutableIntDoubleMap expected = IntDoubleMaps.mutable.empty();
+        try (MutableIntDoubleBufferMap map = new IntDoubleOpenHashMap.Mutable(
+                BTreeTest.SIMPLE_ALLOCATOR, OpenHashMapConfig.builder().loadFactor(0.95f).build())) {
+            for (int i = 0; i < 20000; i++) {
+                int key = rng.nextInt(3000);
+                if (rng.nextInt(3) == 0) {
+                    map.remove(key);
+                    expected.remove(key);
+                } else {
+                    map.put(key, i);
+                    expected.put(key, i);
+                }
+                if (i % 1000 == 0) {
+                    checkInvariants(map);
+                    assertContentEquals(map, expected);
+                }
+            }
+            try (IntDoubleMapCursor cursor = map.cursor()) {
+                while (cursor.next()) {
+                    if (cursor.key() % 2 == 0) {
+                        expected.remove(cursor.key());
+                        cursor.remove();
+                    }
+                }
+            }
+            checkInvariants(map);
+            assertContentEquals(map, expected);
+        }
+    }
+
+    @DataProvider
+    public Object[][] btreeMap() {
+        Stream<Object[]> copyOnWriteStream = Stream.of(true, false).map(inLeaf -> new Object[]{
+                new IntDoubleBTreeMap.Mutable(
+                        BTreeTest.SIMPLE_ALLOCATOR,
+                        BTreeConfig.builder().blockSize(64).entryMustBeInLeaf(inLeaf).copyOnWrite(true).build()) });
+        return Stream.concat(Stream.of(map()).filter(args -> args[0] instanceof IntDoubleBTreeMap.Mutable),
+                             copyOnWriteStream)
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "btreeMap")
+    public void btreeSortedBatches(IntDoubleBTreeMap.Mutable map) {
+        MutableIntDoubleMap expected = IntDoubleMaps.mutable.empty();
+        Random rng = new Random(0);
+        for (int round = 0; round < 20; round++) {
+            int[] keys = rng.ints(200, 0, 2000).toArray();
+            if (round % 4 != 3) {
+                // unsorted batches must work too, just slower
+                Arrays.sort(keys);
+            }
+            if (round % 2 == 0) {
+                double[] values = rng.doubles(keys.length).toArray();
+                map.putAllSorted(keys, values);
+                for (int i = 0; i < keys.length; i++) {
+                    expected.put(keys[i], values[i]);
+                }
+            } else {
+                map.removeAllSorted(keys);
+                for (int key : keys) {
+                    expected.remove(key);
+                }
+            }
+            checkInvariants(map);
+            Assert.assertEquals(map.size(), expected.size());
+
+            int[] probe = IntStream.range(-10, 2010).toArray();
+            double[] values = new double[probe.length];
+            boolean[] found = new boolean[probe.length];
+            map.getAllSorted(probe, values, found);
+            for (int i = 0; i < probe.length; i++) {
+                Assert.assertEquals(found[i], expected.containsKey(probe[i]));
+                if (found[i]) {
+                    Assert.assertEquals(values[i], expected.get(probe[i]));
+                }
+            }
+        }
+    }
+
+    @DataProvider
+    public Object[][] cursorMap() {
+        return Stream.of(map())
+                .filter(args -> args[0] instanceof IntDoubleBTreeMap.Mutable ||
+                                args[0] instanceof IntDoubleLinearHashMap.Mutable ||
+                                args[0] instanceof IntDoubleOpenHashMap.Mutable)
+                .toArray(Object[][]::new);
+    }
+
+    @Test(dataProvider = "cursorMap")
+    public void cursorIterateUpdateRemove(MutableIntDoubleBufferMap map) {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i * 1.5);
+        }
+        MutableIntSet visited = IntSets.mutable.empty();
+        try (IntDoubleMapCursor cursor = map.cursor()) {
+            while (cursor.next()) {
+                int key = cursor.key();
+                Assert.assertTrue(visited.add(key));
+                Assert.assertEquals(cursor.value(), key * 1.5);
+                if (key % 3 == 0) {
+                    cursor.remove();
+                } else if (key % 2 == 0) {
+                    cursor.setValue(-key);
+                }
+            }
+        }
+        Assert.assertEquals(visited.size(), 1000);
+        checkInvariants(map);
+        Assert.assertEquals(map.size(), 1000 - 334);
+        for (int i = 0; i < 1000; i++) {
+            if (i % 3 == 0) {
+                Assert.assertFalse(map.containsKey(i));
+            } else {
+                Assert.assertEquals(map.get(i), i % 2 == 0 ? -i : i * 1.5);
+            }
+        }
+
+        try (IntDoubleMapCursor cursor = map.cursor()) {
+            while (cursor.next()) {
+                cursor.remove();
+            }
+            Assert.assertTrue(map.isEmpty());
+            cursor.reset();
+            Assert.assertFalse(cursor.next());
+        }
+        checkInvariants(map);
+    }
+
+    @Test(dataProvider = "cursorMap")
+    public void cursorSeek(MutableIntDoubleBufferMap map) {
+        for (int i = 0; i < 1000; i += 2) {
+            map.put(i, i);
+        }
+        MutableIntList order = IntLists.mutable.empty();
+        try (IntDoubleMapCursor cursor = map.cursor()) {
+            while (cursor.next()) {
+                order.add(cursor.key());
+            }
+            Assert.assertEquals(order.size(), 500);
+
+            for (int i = 0; i < order.size() - 1; i++) {
+                Assert.assertTrue(cursor.seek(order.get(i)));
+                Assert.assertEquals(cursor.key(), order.get(i));
+                Assert.assertTrue(cursor.next());
+                Assert.assertEquals(cursor.key(), order.get(i + 1));
+            }
+
+            Assert.assertFalse(cursor.seek(501));
+            ListTest.assertThrows(IllegalStateException.class, cursor::key);
+            if (map instanceof IntDoubleBTreeMap) {
+                Assert.assertTrue(cursor.next());
+                Assert.assertEquals(cursor.key(), 502);
+            }
+
+            cursor.reset();
+            Assert.assertTrue(cursor.next());
+            Assert.assertEquals(cursor.key(), order.get(0));
+        }
     }
 
     private void checkInvariants(IntDoubleMap map) {
@@ -207,7 +535,8 @@ public class MapTest {
                         map.toArray(),
                         IntStream.range(0, i + 1).mapToDouble(k -> k * 1.5).toArray()
                 );
-            } else if (map instanceof IntDoubleLinearHashMap) {
+            } else if (map instanceof IntDoubleLinearHashMap || map instanceof ConcurrentIntDoubleLinearHashMap ||
+                       map instanceof IntDoubleOpenHashMap) {
                 // just check entries
                 IntSet expectedKeys = IntSets.immutable.ofAll(IntStream.range(0, i + 1));
 
@@ -574,4 +903,273 @@ public class MapTest {
             after.accept(i);
         }
     }
-}
\ No newline at end of file
+
+    @Test(dataProvider = "map")
+    public void merge(MutableIntDoubleBufferMap map) {
+        MutableIntDoubleBufferMap sync = (MutableIntDoubleBufferMap) map.asSynchronized();
+        for (int i = 0; i < 300; i++) {
+            MutableIntDoubleBufferMap target = i % 2 == 0 ? map : sync;
+            // inserts 1, then merges to 3 and 7
+            double expected = (2 << (i / 100)) - 1;
+            Assert.assertEquals(target.merge(i % 100, 1, (old, value) -> old * 2 + value), expected);
+            Assert.assertEquals(map.size(), Math.min(i + 1, 100));
+            checkInvariants(map);
+        }
+    }
+
+    @Test(dataProvider = "map")
+    public void memoryFootprint(MutableIntDoubleBufferMap map) {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        MemoryFootprint footprint = map.memoryFootprint();
+        Assert.assertEquals(footprint.payload(), 1000L * (Integer.BYTES + Double.BYTES));
+        Assert.assertTrue(footprint.used() >= footprint.payload());
+        Assert.assertTrue(footprint.reserved() >= footprint.used());
+        Assert.assertEquals(((MutableIntDoubleBufferMap) map.asSynchronized()).memoryFootprint(), footprint);
+
+        map.clear();
+        Assert.assertEquals(map.memoryFootprint().payload(), 0);
+        Assert.assertTrue(map.memoryFootprint().reserved() > 0);
+    }
+
+    @Test(dataProvider = "map")
+    public void statistics(MutableIntDoubleBufferMap map) {
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+        MutableIntDoubleBufferMap sync = (MutableIntDoubleBufferMap) map.asSynchronized();
+        if (map instanceof IntDoubleBTreeMap) {
+            Assert.assertTrue(BTreeStatistics.of(map).levelCount() > 0);
+            Assert.assertEquals(BTreeStatistics.of(sync).leafCount(), BTreeStatistics.of(map).leafCount());
+            ListTest.assertThrows(IllegalArgumentException.class, () -> LinearHashStatistics.of(sync));
+        } else if (map instanceof IntDoubleLinearHashMap) {
+            Assert.assertEquals(LinearHashStatistics.of(map).entryCount(), 1000);
+            Assert.assertEquals(LinearHashStatistics.of(sync).entryCount(), 1000);
+            ListTest.assertThrows(IllegalArgumentException.class, () -> BTreeStatistics.of(sync));
+        } else {
+            ListTest.assertThrows(IllegalArgumentException.class, () -> BTreeStatistics.of(map));
+            ListTest.assertThrows(IllegalArgumentException.class, () -> LinearHashStatistics.of(map));
+        }
+    }
+
+    @Test(dataProvider = "map")
+    public void synchronizedView(MutableIntDoubleMap map) {
+        MutableIntDoubleMap sync = map.asSynchronized();
+        Assert.assertSame(sync.asSynchronized(), sync);
+        sync.put(1, 2.0);
+        Assert.assertEquals(map.get(1), 2.0);
+        Assert.assertEquals(sync.get(1), 2.0);
+        Assert.assertEquals(sync.getIfAbsent(2, 5.0), 5.0);
+        ListTest.assertThrows(IllegalStateException.class, () -> sync.getOrThrow(2));
+        Assert.assertEquals(sync.addToValue(1, 1.0), 3.0);
+        Assert.assertEquals(sync.getIfAbsentPut(2, 4.0), 4.0);
+        Assert.assertEquals(sync.size(), 2);
+        Assert.assertEquals(sync, IntDoubleMaps.mutable.empty().withKeyValue(1, 3.0).withKeyValue(2, 4.0));
+        Assert.assertEquals(sync.sum(), 7.0);
+        sync.removeKey(1);
+        Assert.assertFalse(sync.containsKey(1));
+        checkInvariants(map);
+    }
+
+    @Test(dataProvider = "map")
+    public void synchronizedConcurrentReads(MutableIntDoubleMap map) throws InterruptedException {
+        MutableIntDoubleMap sync = map.asSynchronized();
+        int count = 2000;
+        AtomicInteger written = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                while (written.get() < count) {
+                    int limit = written.get();
+                    for (int i = 0; i < limit; i++) {
+                        // every key written before reading the limit must be visible with its final value
+                        if (sync.getIfAbsent(i, -1.0) != i * 1.5 || !sync.containsKey(i)) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        for (int i = 0; i < count; i++) {
+            sync.put(i, i * 1.5);
+            written.incrementAndGet();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        Assert.assertEquals(failures.get(), 0);
+        Assert.assertEquals(sync.size(), count);
+        checkInvariants(map);
+    }
+
+    @Test
+    public void btreeSnapshotIsolatedFromOpenCursor() {
+        IntDoubleBTreeMap.Mutable map = (IntDoubleBTreeMap.Mutable) MutableIntDoubleBTreeMapFactory
+                .withAllocatorAndConfig(BTreeTest.SIMPLE_ALLOCATOR,
+                                        BTreeConfig.builder().blockSize(64).copyOnWrite(true).build())
+                .empty();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, 0);
+        }
+        try (IntDoubleMapCursor cursor = map.cursor()) {
+            Assert.assertTrue(cursor.seek(50));
+            cursor.setValue(1);
+            // the cursor has already written, the snapshot must still be protected from its later writes
+            try (IntDoubleBufferMap snapshot = map.snapshot()) {
+                cursor.setValue(2);
+                Assert.assertTrue(cursor.next());
+                cursor.remove();
+                Assert.assertEquals(snapshot.get(50), 1.0);
+                Assert.assertTrue(snapshot.containsKey(51));
+                Assert.assertEquals(snapshot.size(), 100);
+                Assert.assertEquals(map.get(50), 2.0);
+                Assert.assertFalse(map.containsKey(51));
+            }
+        }
+        checkInvariants(map);
+    }
+
+    @Test
+    public void btreeSnapshotConcurrentReads() throws InterruptedException {
+        IntDoubleBTreeMap.Mutable map = (IntDoubleBTreeMap.Mutable) MutableIntDoubleBTreeMapFactory
+                .withAllocatorAndConfig(BTreeTest.SIMPLE_ALLOCATOR,
+                                        BTreeConfig.builder().blockSize(64).copyOnWrite(true).build())
+                .empty();
+        int count = 500;
+        int rounds = 100;
+        for (int i = 0; i < count; i++) {
+            map.put(i, 0);
+        }
+        List<IntDoubleBufferMap> snapshots = new ArrayList<>();
+        AtomicReference<IntDoubleBufferMap> published = new AtomicReference<>(map.snapshot());
+        snapshots.add(published.get());
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger failures = new AtomicInteger();
+        Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(() -> {
+                try {
+                    while (!done.get()) {
+                        IntDoubleBufferMap snapshot = published.get();
+                        // all values of a snapshot were written in the same round
+                        double round = snapshot.get(0);
+                        AtomicInteger seen = new AtomicInteger();
+                        AtomicBoolean mismatch = new AtomicBoolean();
+                        snapshot.forEachKeyValue((k, v) -> {
+                            seen.incrementAndGet();
+                            if (v != round) { mismatch.set(true); }
+                        });
+                        if (snapshot.size() != count || seen.get() != count || mismatch.get() ||
+                            snapshot.getIfAbsent(count - 1, -1) != round) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    // a reader that dies must not pass silently
+                    failures.incrementAndGet();
+                    throw e;
+                }
+            });
+            readers[t].start();
+        }
+        for (int round = 1; round <= rounds; round++) {
+            for (int i = 0; i < count; i++) {
+                map.put(i, round);
+            }
+            // churn the tree structure as well
+            map.put(count + round, round);
+            map.remove(count + round);
+            IntDoubleBufferMap snapshot = map.snapshot();
+            snapshots.add(snapshot);
+            published.set(snapshot);
+        }
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        Assert.assertEquals(failures.get(), 0);
+        for (int round = 0; round <= rounds; round++) {
+            Assert.assertEquals(snapshots.get(round).get(count / 2), (double) round);
+            snapshots.get(round).close();
+        }
+        checkInvariants(map);
+    }
+
+    @DataProvider
+    public Object[][] concurrentMap() {
+        LinearHashMapConfig lhtConfig = LinearHashMapConfig.builder().segmentCount(8).build();
+        return new Object[][]{
+                { MutableIntDoubleConcurrentLinearHashMapFactory
+                        .withAllocatorAndConfig(BTreeTest.SIMPLE_ALLOCATOR, lhtConfig).empty() },
+                { MutableIntDoubleConcurrentBTreeMapFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).empty() },
+                { MutableIntDoubleConcurrentBTreeMapFactory.withAllocatorAndConfig(
+                        BTreeTest.SIMPLE_ALLOCATOR,
+                        BTreeConfig.builder().blockSize(64).entryMustBeInLeaf(false).build()).empty() },
+        };
+    }
+
+    @Test(dataProvider = "concurrentMap")
+    public void concurrentWriters(MutableIntDoubleMap map) throws InterruptedException {
+        int perThread = 5000;
+        int writerCount = 4;
+        AtomicInteger failures = new AtomicInteger();
+        AtomicInteger runningWriters = new AtomicInteger(writerCount);
+        Thread[] threads = new Thread[writerCount + 2];
+        for (int t = 0; t < writerCount; t++) {
+            int offset = t * perThread;
+            threads[t] = new Thread(() -> {
+                for (int i = offset; i < offset + perThread; i++) {
+                    map.put(i, i * 1.5);
+                    if (map.get(i) != i * 1.5) {
+                        failures.incrementAndGet();
+                    }
+                    // contended keys
+                    map.addToValue(-1 - i % 100, 1);
+                    if (i % 3 == 0) {
+                        map.removeKey(i);
+                    }
+                }
+                runningWriters.decrementAndGet();
+            });
+        }
+        for (int t = writerCount; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                while (runningWriters.get() > 0) {
+                    for (int i = 0; i < perThread * writerCount; i += 7) {
+                        // never observe a torn value
+                        double value = map.getIfAbsent(i, -1);
+                        if (value != -1 && value != i * 1.5) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(failures.get(), 0);
+        checkInvariants(map);
+        int expectedSize = 100;
+        for (int i = 0; i < perThread * writerCount; i++) {
+            if (i % 3 == 0) {
+                Assert.assertFalse(map.containsKey(i));
+            } else {
+                Assert.assertEquals(map.get(i), i * 1.5);
+                expectedSize++;
+            }
+        }
+        Assert.assertEquals(map.size(), expectedSize);
+        double contended = 0;
+        for (int i = 1; i <= 100; i++) {
+            contended += map.get(-i);
+        }
+        Assert.assertEquals(contended, (double) perThread * writerCount);
+    }
+}
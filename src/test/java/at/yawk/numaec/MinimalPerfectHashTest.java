@@ -0,0 +1,63 @@
+package at.yawk.numaec;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public final class MinimalPerfectHashTest {
+    private static final LargeByteBufferAllocator ALLOCATOR = BTreeTest.SIMPLE_ALLOCATOR;
+
+    @DataProvider
+    public Object[][] sizes() {
+        return new Object[][]{ { 0 }, { 1 }, { 2 }, { 63 }, { 1000 }, { 100000 } };
+    }
+
+    @Test(dataProvider = "sizes")
+    public void bijective(int size) {
+        long[] keys = new Random(size).longs(size).distinct().toArray();
+        try (LargeByteBuffer buffer = ALLOCATOR.allocate(Math.max(keys.length, 1) * (long) Long.BYTES)) {
+            for (int i = 0; i < keys.length; i++) {
+                buffer.setLong(i * (long) Long.BYTES, keys[i]);
+            }
+            try (MinimalPerfectHash hash = MinimalPerfectHash.build(ALLOCATOR, buffer, keys.length)) {
+                Assert.assertEquals(hash.count(), keys.length);
+                BitSet seen = new BitSet();
+                for (long key : keys) {
+                    long index = hash.index(key);
+                    Assert.assertTrue(index >= 0 && index < keys.length);
+                    Assert.assertFalse(seen.get((int) index));
+                    seen.set((int) index);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sequentialKeys() {
+        int size = 10000;
+        try (LargeByteBuffer buffer = ALLOCATOR.allocate(size * (long) Long.BYTES)) {
+            for (int i = 0; i < size; i++) {
+                buffer.setLong(i * (long) Long.BYTES, i);
+            }
+            try (MinimalPerfectHash hash = MinimalPerfectHash.build(ALLOCATOR, buffer, size)) {
+                BitSet seen = new BitSet();
+                for (int key = 0; key < size; key++) {
+                    seen.set((int) hash.index(key));
+                }
+                Assert.assertEquals(seen.cardinality(), size);
+                Assert.assertEquals(seen.length(), size);
+            }
+        }
+    }
+
+    @Test
+    public void duplicateKeys() {
+        try (LargeByteBuffer buffer = ALLOCATOR.allocate(2 * Long.BYTES)) {
+            buffer.setLong(0, 5);
+            buffer.setLong(Long.BYTES, 5);
+            ListTest.assertThrows(IllegalArgumentException.class, () -> MinimalPerfectHash.build(ALLOCATOR, buffer, 2));
+        }
+    }
+}
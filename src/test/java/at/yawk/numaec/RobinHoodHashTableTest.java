@@ -0,0 +1,54 @@
+package at.yawk.numaec;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public final class RobinHoodHashTableTest {
+    @Test
+    public void seekAbsentKeyAtStart() {
+        try (RobinHoodHashTable table = new IdentityTable()) {
+            // slots 0, 1, 3, 5, 7, 8, 10, 12, 14 and 15 of 16 are taken, iteration starts at the empty slot 2
+            for (long i = 0; i < 10; i++) {
+                table.put(i * 7, i * 7, i);
+            }
+            table.checkInvariants();
+            for (long key : new long[]{ 2, 18 }) {
+                try (RobinHoodHashTable.Cursor cursor = table.allocateCursor()) {
+                    Assert.assertFalse(cursor.seek(key, key));
+                    int count = 0;
+                    while (cursor.next()) {
+                        count++;
+                    }
+                    Assert.assertEquals(count, 10);
+                }
+            }
+        }
+    }
+
+    private static class IdentityTable extends RobinHoodHashTable {
+        IdentityTable() {
+            super(BTreeTest.SIMPLE_ALLOCATOR, OpenHashMapConfig.builder().build(), 2 * Long.BYTES);
+        }
+
+        @Override
+        protected long hash(long key) {
+            return key;
+        }
+
+        @Override
+        protected void write(LargeByteBuffer lbb, long address, long key, long value) {
+            lbb.setLong(address, key);
+            lbb.setLong(address + Long.BYTES, value);
+        }
+
+        @Override
+        protected long readKey(LargeByteBuffer lbb, long address) {
+            return lbb.getLong(address);
+        }
+
+        @Override
+        protected long readValue(LargeByteBuffer lbb, long address) {
+            return lbb.getLong(address + Long.BYTES);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package at.yawk.numaec;
+
+import java.util.Random;
+import java.util.stream.Stream;
+import org.eclipse.collections.api.iterator.IntIterator;
+import org.eclipse.collections.api.set.primitive.MutableIntSet;
+import org.eclipse.collections.impl.factory.primitive.IntSets;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public class SetTest {
+    @DataProvider
+    public Object[][] set() {
+        LargeByteBufferAllocator allocator = BTreeTest.SIMPLE_ALLOCATOR;
+        Stream<Object[]> btreeStream = BTreeTest.configList().stream().map(cfg -> new Object[]{
+                new IntBTreeSet.Mutable(allocator, cfg) });
+        Stream<Object[]> lhtStream = LinearHashTableTest.configList().stream()
+                .flatMap(b -> Stream.of(
+                        b.hashLength(4).build(),
+                        b.dontStoreHash().build()
+                ))
+                .map(cfg -> new Object[]{ new IntLinearHashSet.Mutable(allocator, cfg), });
+        return Stream.concat(btreeStream, lhtStream).toArray(Object[][]::new);
+    }
+
+    private void checkInvariants(MutableIntSet set) {
+        ((BaseIntSet) set).checkInvariants();
+    }
+
+    @Test(dataProvider = "set")
+    public void addRemove(MutableIntSet set) {
+        checkInvariants(set);
+        Assert.assertFalse(set.contains(1));
+        Assert.assertTrue(set.add(1));
+        Assert.assertFalse(set.add(1));
+        Assert.assertTrue(set.add(-5));
+        checkInvariants(set);
+        Assert.assertTrue(set.contains(1));
+        Assert.assertTrue(set.contains(-5));
+        Assert.assertEquals(set.size(), 2);
+        Assert.assertTrue(set.remove(1));
+        Assert.assertFalse(set.remove(1));
+        checkInvariants(set);
+        Assert.assertFalse(set.contains(1));
+        Assert.assertEquals(set, IntSets.mutable.with(-5));
+        Assert.assertEquals(set.hashCode(), IntSets.mutable.with(-5).hashCode());
+    }
+
+    @Test(dataProvider = "set")
+    public void random(MutableIntSet set) {
+        MutableIntSet reference = IntSets.mutable.empty();
+        Random random = new Random(0);
+        for (int i = 0; i < 2000; i++) {
+            int element = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                Assert.assertEquals(set.remove(element), reference.remove(element));
+            } else {
+                Assert.assertEquals(set.add(element), reference.add(element));
+            }
+        }
+        checkInvariants(set);
+        Assert.assertEquals(set, reference);
+        Assert.assertEquals(set.size(), reference.size());
+        Assert.assertEquals(set.sum(), reference.sum());
+        Assert.assertEquals(set.max(), reference.max());
+        Assert.assertEquals(set.min(), reference.min());
+
+        MutableIntSet iterated = IntSets.mutable.empty();
+        IntIterator itr = set.intIterator();
+        while (itr.hasNext()) {
+            Assert.assertTrue(iterated.add(itr.next()));
+        }
+        Assert.assertEquals(iterated, reference);
+    }
+
+    @Test(dataProvider = "set")
+    public void bulk(MutableIntSet set) {
+        set.addAll(1, 2, 3, 4, 5, 6);
+        set.removeAll(IntSets.mutable.with(2, 7));
+        Assert.assertEquals(set, IntSets.mutable.with(1, 3, 4, 5, 6));
+        Assert.assertTrue(set.retainAll(4, 5, 6, 7));
+        Assert.assertEquals(set, IntSets.mutable.with(4, 5, 6));
+        Assert.assertTrue(set.removeIf(i -> i % 2 == 0));
+        Assert.assertEquals(set, IntSets.mutable.with(5));
+        checkInvariants(set);
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+        checkInvariants(set);
+    }
+
+    @Test
+    public void factories() {
+        Assert.assertEquals(
+                MutableIntBTreeSetFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR).of(1, 2, 3),
+                IntSets.mutable.with(1, 2, 3));
+        Assert.assertEquals(
+                MutableIntLinearHashSetFactory.withAllocator(BTreeTest.SIMPLE_ALLOCATOR)
+                        .ofAll(IntSets.mutable.with(1, 2, 3)),
+                IntSets.mutable.with(1, 2, 3));
+    }
+}
@@ -0,0 +1,139 @@
+package at.yawk.numaec;
+
+import java.util.Random;
+import org.eclipse.collections.api.list.primitive.LongList;
+import org.eclipse.collections.api.list.primitive.MutableLongList;
+import org.eclipse.collections.impl.factory.primitive.LongLists;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+@SuppressWarnings("resource")
+public final class SortedListsTest {
+    private static final LargeByteBufferAllocator ALLOCATOR = BTreeTest.SIMPLE_ALLOCATOR;
+
+    /**
+     * @param density Chance for each value in {@code [0, range)} to be included
+     */
+    private static MutableLongList randomSorted(Random random, int range, double density, boolean duplicates) {
+        MutableLongList list = LongLists.mutable.empty();
+        for (long i = 0; i < range; i++) {
+            while (random.nextDouble() < density) {
+                list.add(i);
+                if (!duplicates) {
+                    break;
+                }
+            }
+        }
+        return list;
+    }
+
+    private static LongList toBufferList(LongList list, boolean compressed) {
+        if (compressed) {
+            return LongCompressedBufferListFactory.withAllocator(ALLOCATOR).ofAll(list);
+        } else {
+            return MutableLongBufferListFactory.withAllocator(ALLOCATOR).ofAll(list);
+        }
+    }
+
+    @DataProvider
+    public Object[][] inputs() {
+        Random random = new Random(0);
+        double[] densities = { 0, 0.001, 0.05, 0.5, 0.95 };
+        Object[][] data = new Object[densities.length * densities.length * 3][];
+        int i = 0;
+        for (double densityA : densities) {
+            for (double densityB : densities) {
+                for (int mode = 0; mode < 3; mode++) {
+                    data[i++] = new Object[]{
+                            randomSorted(random, 2000, densityA, mode == 1),
+                            randomSorted(random, 2000, densityB, mode == 1),
+                            mode == 2
+                    };
+                }
+            }
+        }
+        return data;
+    }
+
+    @Test(dataProvider = "inputs")
+    public void intersect(MutableLongList a, MutableLongList b, boolean compressed) {
+        MutableLongList expected = LongLists.mutable.empty();
+        int j = 0;
+        for (int i = 0; i < a.size(); i++) {
+            while (j < b.size() && b.get(j) < a.get(i)) { j++; }
+            if (j < b.size() && b.get(j) == a.get(i)) {
+                expected.add(a.get(i));
+                j++;
+            }
+        }
+        Assert.assertEquals(
+                SortedLongBufferLists.intersect(ALLOCATOR, toBufferList(a, compressed), toBufferList(b, compressed)),
+                expected);
+    }
+
+    @Test(dataProvider = "inputs")
+    public void union(MutableLongList a, MutableLongList b, boolean compressed) {
+        MutableLongList expected = LongLists.mutable.empty();
+        int i = 0;
+        int j = 0;
+        while (i < a.size() || j < b.size()) {
+            if (j == b.size() || (i < a.size() && a.get(i) < b.get(j))) {
+                expected.add(a.get(i++));
+            } else if (i == a.size() || b.get(j) < a.get(i)) {
+                expected.add(b.get(j++));
+            } else {
+                expected.add(a.get(i++));
+                j++;
+            }
+        }
+        Assert.assertEquals(
+                SortedLongBufferLists.union(ALLOCATOR, toBufferList(a, compressed), toBufferList(b, compressed)),
+                expected);
+    }
+
+    @Test(dataProvider = "inputs")
+    public void difference(MutableLongList a, MutableLongList b, boolean compressed) {
+        MutableLongList expected = LongLists.mutable.empty();
+        int j = 0;
+        for (int i = 0; i < a.size(); i++) {
+            while (j < b.size() && b.get(j) < a.get(i)) { j++; }
+            if (j < b.size() && b.get(j) == a.get(i)) {
+                j++;
+            } else {
+                expected.add(a.get(i));
+            }
+        }
+        Assert.assertEquals(
+                SortedLongBufferLists.difference(ALLOCATOR, toBufferList(a, compressed), toBufferList(b, compressed)),
+                expected);
+    }
+
+    @Test
+    public void merge() {
+        Random random = new Random(0);
+        LongList[] lists = new LongList[7];
+        MutableLongList expected = LongLists.mutable.empty();
+        for (int i = 0; i < lists.length; i++) {
+            MutableLongList list = randomSorted(random, 1000, i * 0.1, true);
+            expected.addAll(list);
+            lists[i] = toBufferList(list, i % 2 == 0);
+        }
+        expected.sortThis();
+        Assert.assertEquals(SortedLongBufferLists.merge(ALLOCATOR, lists), expected);
+        Assert.assertEquals(SortedLongBufferLists.merge(ALLOCATOR), LongLists.mutable.empty());
+    }
+
+    @Test
+    public void differentAllocators() {
+        LargeByteBufferAllocator chunked = (LargeByteBufferAllocator) new ListTest().allocator()[0][0];
+        MutableLongList a = MutableLongBufferListFactory.withAllocator(chunked).with(1, 3, 5, 7);
+        MutableLongList b = MutableLongBufferListFactory.withAllocator(ALLOCATOR).with(2, 3, 8, 9);
+        Assert.assertEquals(SortedLongBufferLists.union(ALLOCATOR, a, b), LongLists.mutable.with(1, 2, 3, 5, 7, 8, 9));
+        Assert.assertEquals(SortedLongBufferLists.union(chunked, a, b), LongLists.mutable.with(1, 2, 3, 5, 7, 8, 9));
+        Assert.assertEquals(SortedLongBufferLists.intersect(ALLOCATOR, a, b), LongLists.mutable.with(3));
+        Assert.assertEquals(SortedLongBufferLists.difference(ALLOCATOR, a, b), LongLists.mutable.with(1, 5, 7));
+        Assert.assertEquals(SortedLongBufferLists.merge(ALLOCATOR, a, b),
+                            LongLists.mutable.with(1, 2, 3, 3, 5, 7, 8, 9));
+    }
+}